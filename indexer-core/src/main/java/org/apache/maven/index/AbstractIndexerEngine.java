@@ -0,0 +1,147 @@
+package org.apache.maven.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.Collection;
+
+import org.apache.maven.index.context.IndexingContext;
+import org.codehaus.plexus.logging.AbstractLogEnabled;
+
+/**
+ * Base class of {@link IndexerEngine} implementations, adding batch operations. The batch operations invoke the per
+ * artifact operations, and are meant to be overridden by engines able to process a batch at once. Engines not
+ * extending this class are adapted by {@link #batching(IndexerEngine)}.
+ *
+ * @since 5.2
+ */
+public abstract class AbstractIndexerEngine
+    extends AbstractLogEnabled
+    implements IndexerEngine
+{
+    /**
+     * Add new artifacts to the index. Same as invoking {@link #index(IndexingContext, ArtifactContext)} for each
+     * artifact. Does not commit.
+     */
+    public void index( IndexingContext context, Collection<ArtifactContext> acs )
+        throws IOException
+    {
+        for ( ArtifactContext ac : acs )
+        {
+            index( context, ac );
+        }
+    }
+
+    /**
+     * Replace data for previously indexed artifacts. Same as invoking {@link #update(IndexingContext, ArtifactContext)}
+     * for each artifact. Does not commit.
+     */
+    public void update( IndexingContext context, Collection<ArtifactContext> acs )
+        throws IOException
+    {
+        for ( ArtifactContext ac : acs )
+        {
+            update( context, ac );
+        }
+    }
+
+    /**
+     * Remove artifacts from the index. Same as invoking {@link #remove(IndexingContext, ArtifactContext)} for each
+     * artifact. Does not commit.
+     */
+    public void remove( IndexingContext context, Collection<ArtifactContext> acs )
+        throws IOException
+    {
+        for ( ArtifactContext ac : acs )
+        {
+            remove( context, ac );
+        }
+    }
+
+    /**
+     * Remove artifacts identified by their UINFOs from the index. Same as invoking
+     * {@link #remove(IndexingContext, ArtifactContext)} with a minimal artifact context for each UINFO. Does not
+     * commit.
+     */
+    public void removeUinfos( IndexingContext context, Collection<String> uinfos )
+        throws IOException
+    {
+        for ( String uinfo : uinfos )
+        {
+            String[] ra = ArtifactInfo.FS_PATTERN.split( uinfo );
+
+            ArtifactInfo ai = new ArtifactInfo();
+
+            ai.repository = context.getRepositoryId();
+
+            ai.groupId = ra[0];
+
+            ai.artifactId = ra[1];
+
+            ai.version = ra[2];
+
+            if ( ra.length > 3 )
+            {
+                ai.classifier = ArtifactInfo.renvl( ra[3] );
+            }
+
+            if ( ra.length > 4 )
+            {
+                ai.packaging = ArtifactInfo.renvl( ra[4] );
+            }
+
+            // minimal ArtifactContext for removal
+            remove( context, new ArtifactContext( null, null, null, ai, ai.calculateGav() ) );
+        }
+    }
+
+    /**
+     * Returns the passed in engine if it extends this class, or an adapter invoking its per artifact operations
+     * otherwise.
+     */
+    public static AbstractIndexerEngine batching( final IndexerEngine engine )
+    {
+        if ( engine instanceof AbstractIndexerEngine )
+        {
+            return (AbstractIndexerEngine) engine;
+        }
+
+        return new AbstractIndexerEngine()
+        {
+            public void index( IndexingContext context, ArtifactContext ac )
+                throws IOException
+            {
+                engine.index( context, ac );
+            }
+
+            public void update( IndexingContext context, ArtifactContext ac )
+                throws IOException
+            {
+                engine.update( context, ac );
+            }
+
+            public void remove( IndexingContext context, ArtifactContext ac )
+                throws IOException
+            {
+                engine.remove( context, ac );
+            }
+        };
+    }
+}
@@ -21,6 +21,8 @@ package org.apache.maven.index;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.lucene.search.Query;
 import org.apache.maven.index.context.IndexingContext;
@@ -65,6 +67,26 @@ public class AbstractSearchRequest
      */
     private boolean luceneExplain = false;
 
+    /**
+     * The fields to load for hits, or {@code null} to load all of them.
+     */
+    private Set<Field> fieldProjection;
+
+    /**
+     * The maximum count of contexts searched concurrently.
+     */
+    private int threads = 1;
+
+    /**
+     * The executor to search contexts with, if not set, a per-request one is used.
+     */
+    private ExecutorService executor;
+
+    /**
+     * The time in milliseconds to wait for a single context to deliver its hits, or {@link #UNDEFINED}.
+     */
+    private long contextTimeout = UNDEFINED;
+
     public AbstractSearchRequest( Query query )
     {
         this( query, null );
@@ -212,4 +234,83 @@ public class AbstractSearchRequest
     {
         this.luceneExplain = luceneExplain;
     }
+
+    /**
+     * Returns the fields loaded for hits, or {@code null} if all the fields are loaded.
+     */
+    public Set<Field> getFieldProjection()
+    {
+        return fieldProjection;
+    }
+
+    /**
+     * Sets the fields to load for hits. Only the stored index fields backing them are read from the index, and only
+     * the index creators providing them are run. Artifact coordinates (GAV, classifier and packaging) are always
+     * loaded. Other fields are loaded lazily on first access through {@link ArtifactInfo#getFieldValue(Field)}, or
+     * all at once by {@link ArtifactInfo#materialize()}.
+     */
+    public void setFieldProjection( Set<Field> fieldProjection )
+    {
+        this.fieldProjection = fieldProjection;
+    }
+
+    /**
+     * Returns the maximum count of contexts searched concurrently. Values less than 2 mean the contexts are searched
+     * sequentially on the calling thread, unless an executor is set.
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Sets the maximum count of contexts searched concurrently. Applies to flat and grouped searches, results are
+     * reduced on the calling thread, so filters and postprocessors do not need to be thread safe.
+     */
+    public void setThreads( int threads )
+    {
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the executor to search contexts with, or {@code null} if search engine should create (and shut down) one
+     * for the request, sized by {@link #getThreads()}.
+     */
+    public ExecutorService getExecutor()
+    {
+        return executor;
+    }
+
+    /**
+     * Sets an externally managed executor to search contexts with, recommended for frequent parallel searches. The
+     * search engine will not shut it down. Contexts are searched in parallel when an executor is set, if no thread
+     * count is set as well, all of them are submitted at once and the executor bounds concurrency.
+     */
+    public void setExecutor( ExecutorService executor )
+    {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the time in milliseconds to wait for a single context when searching in parallel, or {@link #UNDEFINED}
+     * to wait as long as needed.
+     */
+    public long getContextTimeout()
+    {
+        return contextTimeout;
+    }
+
+    /**
+     * Sets the time in milliseconds to wait for a single context when searching in parallel. Contexts not delivering
+     * their hits in time are left out of results.
+     */
+    public void setContextTimeout( long contextTimeout )
+    {
+        this.contextTimeout = contextTimeout;
+    }
+
+    public boolean isParallel()
+    {
+        return executor != null || threads > 1;
+    }
 }
@@ -0,0 +1,139 @@
+package org.apache.maven.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.NumericUtils;
+
+/**
+ * Collector gathering all the hits of a query in a single pass, into growable primitive buffers. Used for searches
+ * without a count set, where the hit count is not known upfront. Scores are gathered (and hits ordered by them) only
+ * if asked for, otherwise hits are returned in index order.
+ * 
+ * @since 5.2
+ */
+public class AllHitsCollector
+    extends Collector
+{
+    private final boolean scoresNeeded;
+
+    private int[] docs = new int[64];
+
+    private float[] scores;
+
+    private int size;
+
+    private int docBase;
+
+    private Scorer scorer;
+
+    public AllHitsCollector( final boolean scoresNeeded )
+    {
+        this.scoresNeeded = scoresNeeded;
+        this.scores = scoresNeeded ? new float[docs.length] : null;
+    }
+
+    @Override
+    public void setScorer( final Scorer scorer )
+    {
+        this.scorer = scorer;
+    }
+
+    @Override
+    public void collect( final int doc )
+        throws IOException
+    {
+        if ( size == docs.length )
+        {
+            docs = ArrayUtil.grow( docs, size + 1 );
+            if ( scoresNeeded )
+            {
+                scores = ArrayUtil.grow( scores, docs.length );
+            }
+        }
+
+        docs[size] = docBase + doc;
+        if ( scoresNeeded )
+        {
+            scores[size] = scorer.score();
+        }
+        size++;
+    }
+
+    @Override
+    public void setNextReader( final AtomicReaderContext context )
+    {
+        this.docBase = context.docBase;
+    }
+
+    @Override
+    public boolean acceptsDocsOutOfOrder()
+    {
+        return false;
+    }
+
+    public int getTotalHits()
+    {
+        return size;
+    }
+
+    /**
+     * Returns all the collected hits, ordered as {@link org.apache.lucene.search.TopScoreDocCollector} would (by score
+     * descending, then by doc ID) if scores were gathered, in index order otherwise.
+     */
+    public TopDocs topDocs()
+    {
+        final ScoreDoc[] scoreDocs = new ScoreDoc[size];
+
+        if ( !scoresNeeded )
+        {
+            for ( int i = 0; i < size; i++ )
+            {
+                scoreDocs[i] = new ScoreDoc( docs[i], Float.NaN );
+            }
+
+            return new TopDocs( size, scoreDocs, Float.NaN );
+        }
+
+        // pack (inverted sortable score, doc) into longs, so a primitive sort orders them
+        final long[] packed = new long[size];
+        for ( int i = 0; i < size; i++ )
+        {
+            packed[i] = ( (long) ~NumericUtils.floatToSortableInt( scores[i] ) << 32 ) | ( docs[i] & 0xFFFFFFFFL );
+        }
+        Arrays.sort( packed );
+
+        for ( int i = 0; i < size; i++ )
+        {
+            final float score = NumericUtils.sortableIntToFloat( ~(int) ( packed[i] >>> 32 ) );
+            scoreDocs[i] = new ScoreDoc( (int) packed[i], score );
+        }
+
+        return new TopDocs( size, scoreDocs, size > 0 ? scoreDocs[0].score : Float.NaN );
+    }
+}
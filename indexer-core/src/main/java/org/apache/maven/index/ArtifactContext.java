@@ -19,6 +19,7 @@ package org.apache.maven.index;
  * under the License.
  */
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -35,17 +36,25 @@ import org.apache.lucene.document.Field.Index;
 import org.apache.lucene.document.Field.Store;
 import org.apache.maven.index.artifact.Gav;
 import org.apache.maven.index.context.IndexCreator;
+import org.apache.maven.index.context.IndexUtils;
 import org.apache.maven.index.context.IndexingContext;
+import org.apache.maven.index.fs.DirectoryListing;
+import org.apache.maven.index.util.zip.CachingZipHandle;
 import org.apache.maven.index.util.zip.ZipFacade;
 import org.apache.maven.index.util.zip.ZipHandle;
 import org.apache.maven.model.Model;
-import org.codehaus.plexus.util.xml.Xpp3Dom;
-import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.pull.MXParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParser;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 
 /**
  * An artifact context used to provide information about artifact during scanning. It is passed to the
  * {@link IndexCreator}, which can populate {@link ArtifactInfo} for the given artifact.
+ * <p>
+ * The context may hold the artifact archive open (see {@link #getArtifactZipHandle()}). It is released by
+ * {@link #createDocument(IndexingContext)}, and by the default scanner listener and indexer engine once they are done
+ * with the context; code invoking index creators, {@link #getPomModel()} or {@link #getArtifactZipHandle()} on its
+ * own must invoke {@link #close()} once done.
  * 
  * @see IndexCreator#populateArtifactInfo(ArtifactContext)
  * @see Indexer#scan(IndexingContext)
@@ -64,10 +73,31 @@ public class ArtifactContext
 
     private final Gav gav;
 
+    private final DirectoryListing directoryListing;
+
     private final List<Exception> errors = new ArrayList<Exception>();
 
+    private ZipHandle artifactZipHandle;
+
+    private IOException artifactZipHandleFailure;
+
+    private Model pomModel;
+
+    private boolean pomModelRead;
+
     public ArtifactContext( File pom, File artifact, File metadata, ArtifactInfo artifactInfo, Gav gav )
         throws IllegalArgumentException
+    {
+        this( pom, artifact, metadata, artifactInfo, gav, null );
+    }
+
+    /**
+     * @param directoryListing the listing of the directory holding the artifact as read by scanner, or {@code null}
+     * @since 5.2
+     */
+    public ArtifactContext( File pom, File artifact, File metadata, ArtifactInfo artifactInfo, Gav gav,
+                            DirectoryListing directoryListing )
+        throws IllegalArgumentException
     {
         if ( artifactInfo == null )
         {
@@ -79,6 +109,7 @@ public class ArtifactContext
         this.metadata = metadata;
         this.artifactInfo = artifactInfo;
         this.gav = gav == null ? artifactInfo.calculateGav() : gav;
+        this.directoryListing = directoryListing;
     }
 
     public File getPom()
@@ -86,10 +117,29 @@ public class ArtifactContext
         return pom;
     }
 
+    /**
+     * Returns the (partial) model of the artifact POM, or {@code null} if none found. The model is read only once, and
+     * is cached in this context for all the {@link IndexCreator}s. It carries packaging, name and description only.
+     */
     public Model getPomModel()
     {
+        if ( !pomModelRead )
+        {
+            pomModel = readPomModel();
+
+            pomModelRead = true;
+        }
+
+        return pomModel;
+    }
+
+    private Model readPomModel()
+    {
+        final boolean pomExists =
+            getPom() != null && ( directoryListing != null ? directoryListing.exists( getPom() ) : getPom().exists() );
+
         // First check for local pom file
-        if ( getPom() != null && getPom().exists() )
+        if ( pomExists )
         {
             try
             {
@@ -102,11 +152,9 @@ public class ArtifactContext
         // Otherwise, check for pom contained in maven generated artifact
         else if ( getArtifact() != null )
         {
-            ZipHandle handle = null;
-
             try
             {
-                handle = ZipFacade.getZipHandle( getArtifact() );
+                final ZipHandle handle = getArtifactZipHandle();
 
                 final String embeddedPomPath =
                     "META-INF/maven/" + getGav().getGroupId() + "/" + getGav().getArtifactId() + "/pom.xml";
@@ -119,16 +167,6 @@ public class ArtifactContext
             catch ( IOException e )
             {
             }
-            finally
-            {
-                try
-                {
-                    ZipFacade.close( handle );
-                }
-                catch ( Exception e )
-                {
-                }
-            }
         }
 
         return null;
@@ -154,6 +192,79 @@ public class ArtifactContext
         return gav;
     }
 
+    /**
+     * Returns the prefetched listing of the artifact directory, or {@code null} if this context was not created by
+     * scanner.
+     * 
+     * @since 5.2
+     */
+    public DirectoryListing getDirectoryListing()
+    {
+        return directoryListing;
+    }
+
+    /**
+     * Returns a handle to the artifact archive, shared by all consumers of this context. The archive is opened lazily
+     * on first invocation and its entry list is read only once. Callers must not close the returned handle, it is
+     * closed by {@link #close()} (invoked by {@link #createDocument(IndexingContext)} once all creators are done).
+     * Callers not going through {@code createDocument} must invoke {@link #close()} themselves once done, the archive
+     * is opened again if needed afterwards.
+     * 
+     * @throws IOException if there is no artifact file, or it cannot be opened as an archive (the failure is
+     *             remembered, and rethrown on subsequent invocations without retrying)
+     * @since 5.2
+     */
+    public ZipHandle getArtifactZipHandle()
+        throws IOException
+    {
+        if ( artifactZipHandle == null )
+        {
+            if ( artifactZipHandleFailure != null )
+            {
+                throw artifactZipHandleFailure;
+            }
+
+            if ( getArtifact() == null )
+            {
+                throw new IOException( "No artifact file present for " + getArtifactInfo().getUinfo() );
+            }
+
+            try
+            {
+                artifactZipHandle = new CachingZipHandle( ZipFacade.getZipHandle( getArtifact() ) );
+            }
+            catch ( IOException e )
+            {
+                artifactZipHandleFailure = e;
+
+                throw e;
+            }
+        }
+
+        return artifactZipHandle;
+    }
+
+    /**
+     * Releases resources held by this context, like the shared artifact archive handle. May be invoked several times.
+     * 
+     * @since 5.2
+     */
+    public void close()
+    {
+        try
+        {
+            ZipFacade.close( artifactZipHandle );
+        }
+        catch ( IOException e )
+        {
+            addError( e );
+        }
+        finally
+        {
+            artifactZipHandle = null;
+        }
+    }
+
     public List<Exception> getErrors()
     {
         return errors;
@@ -174,20 +285,27 @@ public class ArtifactContext
         // unique key
         doc.add( new Field( ArtifactInfo.UINFO, getArtifactInfo().getUinfo(), Store.YES, Index.NOT_ANALYZED ) );
 
-        doc.add( new Field( ArtifactInfo.LAST_MODIFIED, //
-            Long.toString( System.currentTimeMillis() ), Store.YES, Index.NO ) );
+        IndexUtils.addLastModified( doc, System.currentTimeMillis() );
 
-        for ( IndexCreator indexCreator : context.getIndexCreators() )
+        try
         {
-            try
-            {
-                indexCreator.populateArtifactInfo( this );
-            }
-            catch ( IOException ex )
+            for ( IndexCreator indexCreator : context.getIndexCreators() )
             {
-                addError( ex );
+                try
+                {
+                    indexCreator.populateArtifactInfo( this );
+                }
+                catch ( IOException ex )
+                {
+                    addError( ex );
+                }
             }
         }
+        finally
+        {
+            // all creators are done with the archive
+            close();
+        }
 
         // need a second pass in case index creators updated document attributes
         for ( IndexCreator indexCreator : context.getIndexCreators() )
@@ -198,8 +316,18 @@ public class ArtifactContext
         return doc;
     }
 
+    /**
+     * Reads the handful of top level POM elements needed by indexer using a pull parser. Parsing stops as soon as all of
+     * them are found, no DOM is built.
+     */
     public static class ModelReader
     {
+        private static final String PACKAGING = "packaging";
+
+        private static final String NAME = "name";
+
+        private static final String DESCRIPTION = "description";
+
         public Model readModel( InputStream pom )
         {
             if ( pom == null )
@@ -207,63 +335,143 @@ public class ArtifactContext
                 return null;
             }
 
-            Model model = new Model();
-
-            Xpp3Dom dom = readPomInputStream( pom );
-
-            if ( dom == null )
+            Reader r = new InputStreamReader( pom );
+            try
             {
-                return null;
+                return readModel( r );
             }
-
-            if ( dom.getChild( "packaging" ) != null )
+            catch ( XmlPullParserException e )
             {
-                model.setPackaging( dom.getChild( "packaging" ).getValue() );
             }
-            // Special case, packaging should be null instead of default .jar if not set in pom
-            else
+            catch ( IOException e )
             {
-                model.setPackaging( null );
             }
+            finally
+            {
+                try
+                {
+                    r.close();
+                }
+                catch ( IOException e )
+                {
+                }
+            }
+
+            return null;
+        }
+
+        private Model readModel( Reader r )
+            throws XmlPullParserException, IOException
+        {
+            final XmlPullParser parser = new MXParser();
+
+            parser.setInput( r );
+
+            // position on root element
+            int eventType = parser.getEventType();
 
-            if ( dom.getChild( "name" ) != null )
+            while ( eventType != XmlPullParser.START_TAG )
             {
-                model.setName( dom.getChild( "name" ).getValue() );
+                if ( eventType == XmlPullParser.END_DOCUMENT )
+                {
+                    return null;
+                }
+
+                eventType = parser.next();
             }
 
-            if ( dom.getChild( "description" ) != null )
+            final Model model = new Model();
+
+            // Special case, packaging should be null instead of default .jar if not set in pom
+            model.setPackaging( null );
+
+            boolean packagingFound = false;
+
+            boolean nameFound = false;
+
+            boolean descriptionFound = false;
+
+            while ( !( packagingFound && nameFound && descriptionFound ) )
             {
-                model.setDescription( dom.getChild( "description" ).getValue() );
+                eventType = parser.next();
+
+                if ( eventType == XmlPullParser.END_TAG && parser.getDepth() == 1 )
+                {
+                    // end of root element
+                    break;
+                }
+
+                if ( eventType == XmlPullParser.END_DOCUMENT )
+                {
+                    throw new EOFException( "Unexpected end of POM" );
+                }
+
+                if ( eventType != XmlPullParser.START_TAG || parser.getDepth() != 2 )
+                {
+                    continue;
+                }
+
+                if ( !packagingFound && PACKAGING.equals( parser.getName() ) )
+                {
+                    model.setPackaging( readValue( parser ) );
+
+                    packagingFound = true;
+                }
+                else if ( !nameFound && NAME.equals( parser.getName() ) )
+                {
+                    model.setName( readValue( parser ) );
+
+                    nameFound = true;
+                }
+                else if ( !descriptionFound && DESCRIPTION.equals( parser.getName() ) )
+                {
+                    model.setDescription( readValue( parser ) );
+
+                    descriptionFound = true;
+                }
             }
 
             return model;
         }
 
-        private Xpp3Dom readPomInputStream( InputStream is )
+        /**
+         * Reads the value of the element the parser is positioned at, with same semantics as {@code Xpp3DomBuilder}
+         * (trimmed text, {@code null} for empty element tags and for elements having children).
+         */
+        private String readValue( XmlPullParser parser )
+            throws XmlPullParserException, IOException
         {
-            Reader r = new InputStreamReader( is );
-            try
-            {
-                return Xpp3DomBuilder.build( r );
-            }
-            catch ( XmlPullParserException e )
-            {
-            }
-            catch ( IOException e )
-            {
-            }
-            finally
+            final boolean emptyElementTag = parser.isEmptyElementTag();
+
+            final int depth = parser.getDepth();
+
+            final StringBuilder value = new StringBuilder();
+
+            boolean hasChildren = false;
+
+            while ( true )
             {
-                try
+                final int eventType = parser.next();
+
+                if ( eventType == XmlPullParser.START_TAG )
                 {
-                    r.close();
+                    hasChildren = true;
                 }
-                catch ( IOException e )
+                else if ( eventType == XmlPullParser.TEXT && parser.getDepth() == depth )
                 {
+                    value.append( parser.getText().trim() );
+                }
+                else if ( eventType == XmlPullParser.END_TAG && parser.getDepth() == depth )
+                {
+                    break;
+                }
+                else if ( eventType == XmlPullParser.END_DOCUMENT )
+                {
+                    throw new EOFException( "Unexpected end of POM" );
                 }
             }
 
-            return null;
+            return emptyElementTag || hasChildren ? null : value.toString();
         }
     }
 }
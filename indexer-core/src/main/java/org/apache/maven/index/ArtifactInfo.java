@@ -19,6 +19,7 @@ package org.apache.maven.index;
  * under the License.
  */
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -121,6 +122,13 @@ public class ArtifactInfo
      */
     public static final String LAST_MODIFIED = MinimalArtifactInfoIndexCreator.FLD_LAST_MODIFIED.getKey();
 
+    /**
+     * Last modified, as numeric field for range queries. Not stored, indexed
+     * 
+     * @since 5.2
+     */
+    public static final String LAST_MODIFIED_NUMERIC = "mn";
+
     /**
      * SHA1. Stored, indexed untokenized
      */
@@ -290,6 +298,11 @@ public class ArtifactInfo
 
     private final transient VersionScheme versionScheme;
 
+    // set while fields left out by a search field projection are not loaded yet
+    private transient ArtifactInfoProjection projection;
+
+    private transient String projectedUinfo;
+
     public ArtifactInfo()
     {
         versionScheme = new GenericVersionScheme();
@@ -370,6 +383,37 @@ public class ArtifactInfo
             null ); // signatureType
     }
 
+    /**
+     * Returns true if this artifact info was loaded by a search with field projection, and the fields left out by it
+     * are not loaded yet.
+     */
+    public boolean isProjected()
+    {
+        return projection != null;
+    }
+
+    /**
+     * Loads the fields left out by the field projection of the search that delivered this artifact info, if any. The
+     * indexing context the artifact info comes from must still be open.
+     */
+    public synchronized void materialize()
+        throws IOException
+    {
+        if ( projection != null )
+        {
+            projection.materialize( this, projectedUinfo );
+
+            projection = null;
+            projectedUinfo = null;
+        }
+    }
+
+    void setProjection( final ArtifactInfoProjection projection, final String uinfo )
+    {
+        this.projection = projection;
+        this.projectedUinfo = uinfo;
+    }
+
     public Map<String, String> getAttributes()
     {
         return attributes;
@@ -426,6 +470,18 @@ public class ArtifactInfo
      */
     public String getFieldValue( Field field )
     {
+        if ( projection != null && !projection.contains( field ) )
+        {
+            try
+            {
+                materialize();
+            }
+            catch ( IOException e )
+            {
+                throw new IllegalStateException( "Cannot load field " + field.getFQN() + " of " + this, e );
+            }
+        }
+
         if ( MAVEN.GROUP_ID.equals( field ) )
         {
             return groupId;
@@ -0,0 +1,205 @@
+package org.apache.maven.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0    
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DocumentStoredFieldVisitor;
+import org.apache.lucene.index.DocsEnum;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.util.BytesRef;
+import org.apache.maven.index.context.IndexCreator;
+import org.apache.maven.index.context.IndexingContext;
+
+/**
+ * Loads artifact infos of hits restricted to a set of fields: only the stored index fields of index creators providing
+ * the requested fields are read (using a stored field visitor), and only those creators are run. Artifact coordinates
+ * are always part of the projection. Artifact infos loaded this way remember the projection, and load the rest of their
+ * fields on demand, see {@link ArtifactInfo#materialize()}.
+ *
+ * @since 5.2
+ */
+class ArtifactInfoProjection
+{
+    private final IndexingContext context;
+
+    private final Set<Field> fields;
+
+    private final List<IndexCreator> projectedCreators = new ArrayList<IndexCreator>();
+
+    private final List<IndexCreator> remainingCreators = new ArrayList<IndexCreator>();
+
+    private final Set<String> storedFields = new HashSet<String>();
+
+    ArtifactInfoProjection( final IndexingContext context, final Collection<Field> fields )
+    {
+        this.context = context;
+        this.fields = new HashSet<Field>( fields );
+
+        // coordinates are needed for comparators, grouping and lazy loading
+        this.fields.add( MAVEN.GROUP_ID );
+        this.fields.add( MAVEN.ARTIFACT_ID );
+        this.fields.add( MAVEN.VERSION );
+        this.fields.add( MAVEN.CLASSIFIER );
+        this.fields.add( MAVEN.PACKAGING );
+
+        storedFields.add( ArtifactInfo.UINFO );
+
+        for ( IndexCreator ic : context.getIndexCreators() )
+        {
+            if ( provides( ic ) )
+            {
+                projectedCreators.add( ic );
+
+                for ( IndexerField indexerField : ic.getIndexerFields() )
+                {
+                    if ( indexerField.isStored() )
+                    {
+                        storedFields.add( indexerField.getKey() );
+                    }
+                }
+            }
+            else if ( !ic.getIndexerFields().isEmpty() )
+            {
+                remainingCreators.add( ic );
+            }
+        }
+    }
+
+    /**
+     * Returns true if the value of given field is loaded by this projection. Fields not backed by index fields (like
+     * repository ID) are always considered loaded.
+     */
+    boolean contains( final Field field )
+    {
+        return fields.contains( field ) || field.getIndexerFields().isEmpty();
+    }
+
+    /**
+     * Returns the stored index fields this projection reads.
+     */
+    Set<String> getStoredFields()
+    {
+        return storedFields;
+    }
+
+    /**
+     * Reads the projected stored fields of a document.
+     */
+    Document document( final IndexSearcher searcher, final int doc )
+        throws IOException
+    {
+        final DocumentStoredFieldVisitor visitor = new DocumentStoredFieldVisitor( storedFields );
+        searcher.doc( doc, visitor );
+        return visitor.getDocument();
+    }
+
+    /**
+     * Constructs the artifact info from a document read by {@link #document(IndexSearcher, int)}, or returns
+     * {@code null} if the document is not an artifact record.
+     */
+    ArtifactInfo constructArtifactInfo( final Document doc )
+    {
+        final String uinfo = doc.get( ArtifactInfo.UINFO );
+
+        // if no UINFO can't create, must be a different type of record
+        if ( uinfo == null )
+        {
+            return null;
+        }
+
+        boolean res = false;
+
+        final ArtifactInfo artifactInfo = new ArtifactInfo();
+
+        for ( IndexCreator ic : projectedCreators )
+        {
+            res |= ic.updateArtifactInfo( doc, artifactInfo );
+        }
+
+        if ( !res )
+        {
+            return null;
+        }
+
+        if ( !remainingCreators.isEmpty() )
+        {
+            artifactInfo.setProjection( this, uinfo );
+        }
+
+        return artifactInfo;
+    }
+
+    /**
+     * Loads the fields left out by this projection into the artifact info, reading its document anew from the context.
+     * Artifacts removed from the context meanwhile are left as they are.
+     */
+    void materialize( final ArtifactInfo artifactInfo, final String uinfo )
+        throws IOException
+    {
+        final IndexSearcher searcher = context.acquireIndexSearcher();
+        try
+        {
+            final IndexReader reader = searcher.getIndexReader();
+
+            final DocsEnum docs =
+                MultiFields.getTermDocsEnum( reader, MultiFields.getLiveDocs( reader ), ArtifactInfo.UINFO,
+                    new BytesRef( uinfo ) );
+
+            if ( docs != null && docs.nextDoc() != DocIdSetIterator.NO_MORE_DOCS )
+            {
+                final Document doc = reader.document( docs.docID() );
+
+                for ( IndexCreator ic : remainingCreators )
+                {
+                    ic.updateArtifactInfo( doc, artifactInfo );
+                }
+            }
+        }
+        finally
+        {
+            context.releaseIndexSearcher( searcher );
+        }
+    }
+
+    // ==
+
+    private boolean provides( final IndexCreator ic )
+    {
+        for ( IndexerField indexerField : ic.getIndexerFields() )
+        {
+            if ( fields.contains( indexerField.getOntology() ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
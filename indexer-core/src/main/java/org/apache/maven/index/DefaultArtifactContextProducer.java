@@ -24,6 +24,7 @@ import java.io.File;
 import org.apache.maven.index.artifact.ArtifactPackagingMapper;
 import org.apache.maven.index.artifact.Gav;
 import org.apache.maven.index.context.IndexingContext;
+import org.apache.maven.index.fs.DirectoryListing;
 import org.apache.maven.index.locator.ArtifactLocator;
 import org.apache.maven.index.locator.GavHelpedLocator;
 import org.apache.maven.index.locator.Locator;
@@ -50,10 +51,46 @@ public class DefaultArtifactContextProducer
 
     private Locator ml = new MetadataLocator();
 
+    // listing passed in by the scanning thread, see getArtifactContext(IndexingContext, File, DirectoryListing)
+    private final ThreadLocal<DirectoryListing> listings = new ThreadLocal<DirectoryListing>();
+
     /**
      * Get ArtifactContext for given pom or artifact (jar, war, etc). A file can be
      */
     public ArtifactContext getArtifactContext( IndexingContext context, File file )
+    {
+        return createArtifactContext( context, file, listings.get() );
+    }
+
+    /**
+     * Same as {@link #getArtifactContext(IndexingContext, File)}, but makes the passed in listing of the directory
+     * containing the file (if not {@code null}) available to {@link #createArtifactContext}, that uses it instead of
+     * querying the filesystem for sibling files. Invokes {@link #getArtifactContext(IndexingContext, File)}, so its
+     * overrides are honored.
+     * 
+     * @since 5.2
+     */
+    public ArtifactContext getArtifactContext( IndexingContext context, File file, DirectoryListing listing )
+    {
+        final DirectoryListing previous = listings.get();
+        listings.set( listing );
+        try
+        {
+            return getArtifactContext( context, file );
+        }
+        finally
+        {
+            listings.set( previous );
+        }
+    }
+
+    /**
+     * Creates the ArtifactContext for given pom or artifact, using the passed in listing of the directory containing
+     * the file (if not {@code null}) instead of querying the filesystem for sibling files.
+     * 
+     * @since 5.2
+     */
+    protected ArtifactContext createArtifactContext( IndexingContext context, File file, DirectoryListing listing )
     {
         // TODO shouldn't this use repository layout instead?
 
@@ -84,7 +121,7 @@ public class DefaultArtifactContextProducer
         if ( file.getName().endsWith( ".pom" ) )
         {
             ArtifactLocator al = new ArtifactLocator( mapper );
-            artifact = al.locate( file, context.getGavCalculator(), gav );
+            artifact = al.locate( file, context.getGavCalculator(), gav, listing );
 
             // If we found the matching artifact, switch over to indexing that, instead of the pom
             if ( artifact != null )
@@ -121,7 +158,7 @@ public class DefaultArtifactContextProducer
 
         File metadata = ml.locate( pom );
 
-        return new ArtifactContext( pom, artifact, metadata, ai, gav );
+        return new ArtifactContext( pom, artifact, metadata, ai, gav, listing );
     }
 
     private boolean isIndexable( File file )
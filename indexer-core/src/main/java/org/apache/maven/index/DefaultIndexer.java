@@ -104,12 +104,13 @@ public class DefaultIndexer
     {
         if ( ac != null && !ac.isEmpty() )
         {
-            for ( ArtifactContext actx : ac )
+            // under the lock of context, so the changes are not mixed into a replacement of its content
+            synchronized ( context )
             {
-                indexerEngine.update( context, actx );
-            }
+                AbstractIndexerEngine.batching( indexerEngine ).update( context, ac );
 
-            context.commit();
+                context.commit();
+            }
         }
     }
 
@@ -118,9 +119,9 @@ public class DefaultIndexer
     {
         if ( ac != null && !ac.isEmpty() )
         {
-            for ( ArtifactContext actx : ac )
+            synchronized ( context )
             {
-                indexerEngine.remove( context, actx );
+                AbstractIndexerEngine.batching( indexerEngine ).remove( context, ac );
 
                 context.commit();
             }
@@ -20,7 +20,12 @@ package org.apache.maven.index;
  */
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -32,10 +37,10 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.maven.index.context.IndexUtils;
 import org.apache.maven.index.context.IndexingContext;
 import org.apache.maven.index.creator.MinimalArtifactInfoIndexCreator;
 import org.codehaus.plexus.component.annotations.Component;
-import org.codehaus.plexus.logging.AbstractLogEnabled;
 
 /**
  * A default {@link IndexerEngine} implementation.
@@ -44,74 +49,232 @@ import org.codehaus.plexus.logging.AbstractLogEnabled;
  */
 @Component( role = IndexerEngine.class )
 public class DefaultIndexerEngine
-    extends AbstractLogEnabled
-    implements IndexerEngine
+    extends AbstractIndexerEngine
 {
 
     public void index( IndexingContext context, ArtifactContext ac )
         throws IOException
     {
-        // skip artifacts not obeying repository layout (whether m1 or m2)
-        if ( ac != null && ac.getGav() != null )
+        if ( addDocument( context, ac ) )
         {
-            Document d = ac.createDocument( context );
+            context.updateTimestamp();
+        }
+    }
+
+    public void update( IndexingContext context, ArtifactContext ac )
+        throws IOException
+    {
+        if ( updateDocument( context, ac ) )
+        {
+            updateGroups( context, Collections.singleton( ac.getArtifactInfo().getRootGroup() ),
+                Collections.singleton( ac.getArtifactInfo().groupId ) );
+
+            context.updateTimestamp();
+        }
+    }
+
+    public void remove( IndexingContext context, ArtifactContext ac )
+        throws IOException
+    {
+        if ( removeDocument( context, ac ) )
+        {
+            context.updateTimestamp();
+        }
+    }
+
+    /**
+     * Adds the artifacts, updating the index timestamp once per batch.
+     */
+    @Override
+    public void index( IndexingContext context, Collection<ArtifactContext> acs )
+        throws IOException
+    {
+        boolean changed = false;
+
+        for ( ArtifactContext ac : acs )
+        {
+            changed |= addDocument( context, ac );
+        }
 
-            if ( d != null )
+        if ( changed )
+        {
+            context.updateTimestamp();
+        }
+    }
+
+    /**
+     * Replaces the artifacts, accumulating group changes in memory and applying them to the group documents (along
+     * with the index timestamp) once per batch.
+     */
+    @Override
+    public void update( IndexingContext context, Collection<ArtifactContext> acs )
+        throws IOException
+    {
+        // group deltas of this batch, applied once at the end
+        final Set<String> rootGroups = new LinkedHashSet<String>();
+        final Set<String> allGroups = new LinkedHashSet<String>();
+
+        for ( ArtifactContext ac : acs )
+        {
+            if ( updateDocument( context, ac ) )
             {
-                context.getIndexWriter().addDocument( d );
+                rootGroups.add( ac.getArtifactInfo().getRootGroup() );
+                allGroups.add( ac.getArtifactInfo().groupId );
+            }
+        }
+
+        if ( !allGroups.isEmpty() )
+        {
+            updateGroups( context, rootGroups, allGroups );
 
-                context.updateTimestamp();
+            context.updateTimestamp();
+        }
+    }
+
+    /**
+     * Removes the artifacts using one bulk delete, updating the index timestamp once per batch.
+     */
+    @Override
+    public void remove( IndexingContext context, Collection<ArtifactContext> acs )
+        throws IOException
+    {
+        final List<String> uinfos = new ArrayList<String>( acs.size() );
+
+        for ( ArtifactContext ac : acs )
+        {
+            if ( ac != null )
+            {
+                uinfos.add( ac.getArtifactInfo().getUinfo() );
             }
         }
+
+        removeUinfos( context, uinfos );
     }
 
-    public void update( IndexingContext context, ArtifactContext ac )
+    /**
+     * Removes the artifacts using one bulk delete, updating the index timestamp once.
+     */
+    @Override
+    public void removeUinfos( IndexingContext context, Collection<String> uinfos )
         throws IOException
     {
-        if ( ac != null && ac.getGav() != null )
+        if ( !uinfos.isEmpty() )
         {
-            Document d = ac.createDocument( context );
+            removeDocuments( context, uinfos );
 
-            if ( d != null )
+            context.updateTimestamp();
+        }
+    }
+
+    // ==
+
+    private boolean addDocument( IndexingContext context, ArtifactContext ac )
+        throws IOException
+    {
+        if ( ac == null )
+        {
+            return false;
+        }
+
+        try
+        {
+            // skip artifacts not obeying repository layout (whether m1 or m2)
+            if ( ac.getGav() != null )
+            {
+                Document d = ac.createDocument( context );
+
+                if ( d != null )
+                {
+                    context.getIndexWriter().addDocument( d );
+
+                    return true;
+                }
+            }
+        }
+        finally
+        {
+            // the archive may have been opened by producer or listener as well, even if artifact is skipped
+            ac.close();
+        }
+
+        return false;
+    }
+
+    private boolean updateDocument( IndexingContext context, ArtifactContext ac )
+        throws IOException
+    {
+        if ( ac == null )
+        {
+            return false;
+        }
+
+        try
+        {
+            if ( ac.getGav() != null )
             {
-                Document old = getOldDocument( context, ac );
+                Document d = ac.createDocument( context );
 
-                if ( !equals( d, old ) )
+                if ( d != null )
                 {
-                    IndexWriter w = context.getIndexWriter();
+                    Document old = getOldDocument( context, ac );
 
-                    w.updateDocument( new Term( ArtifactInfo.UINFO, ac.getArtifactInfo().getUinfo() ), d );
+                    if ( !equals( d, old ) )
+                    {
+                        IndexWriter w = context.getIndexWriter();
 
-                    updateGroups( context, ac );
+                        w.updateDocument( new Term( ArtifactInfo.UINFO, ac.getArtifactInfo().getUinfo() ), d );
 
-                    context.updateTimestamp();
+                        return true;
+                    }
                 }
             }
         }
+        finally
+        {
+            // the archive may have been opened by producer or listener as well, even if artifact is skipped
+            ac.close();
+        }
+
+        return false;
     }
 
-    public void remove( IndexingContext context, ArtifactContext ac )
+    private boolean removeDocument( IndexingContext context, ArtifactContext ac )
         throws IOException
     {
         if ( ac != null )
         {
-            final String uinfo = ac.getArtifactInfo().getUinfo();
+            removeDocuments( context, Collections.singleton( ac.getArtifactInfo().getUinfo() ) );
 
+            return true;
+        }
+
+        return false;
+    }
+
+    private void removeDocuments( IndexingContext context, Collection<String> uinfos )
+        throws IOException
+    {
+        final long lastModified = System.currentTimeMillis();
+        final List<Document> markers = new ArrayList<Document>( uinfos.size() );
+        final Term[] terms = new Term[uinfos.size()];
+
+        int i = 0;
+        for ( String uinfo : uinfos )
+        {
             // add artifact deletion marker
             final Document doc = new Document();
 
             doc.add( new Field( ArtifactInfo.DELETED, uinfo, Field.Store.YES, Field.Index.NO ) );
-            doc.add( new Field( ArtifactInfo.LAST_MODIFIED, //
-                Long.toString( System.currentTimeMillis() ), Field.Store.YES, Field.Index.NO ) );
+            IndexUtils.addLastModified( doc, lastModified );
 
-            IndexWriter w = context.getIndexWriter();
-            w.addDocument( doc );
-            w.deleteDocuments( new Term( ArtifactInfo.UINFO, uinfo ) );
-            context.updateTimestamp();
+            markers.add( doc );
+            terms[i++] = new Term( ArtifactInfo.UINFO, uinfo );
         }
-    }
 
-    // ==
+        IndexWriter w = context.getIndexWriter();
+        w.addDocuments( markers );
+        w.deleteDocuments( terms );
+    }
 
     private boolean equals( final Document d1, final Document d2 )
     {
@@ -178,21 +341,23 @@ public class DefaultIndexerEngine
         return null;
     }
 
-    private void updateGroups( IndexingContext context, ArtifactContext ac )
+    /**
+     * Merges the passed in group deltas into stored groups. Group documents are rewritten (and committed) only if the
+     * deltas contain groups not yet known.
+     */
+    private void updateGroups( IndexingContext context, Collection<String> newRootGroups,
+                               Collection<String> newAllGroups )
         throws IOException
     {
-        String rootGroup = ac.getArtifactInfo().getRootGroup();
         Set<String> rootGroups = context.getRootGroups();
-        if ( !rootGroups.contains( rootGroup ) )
+        if ( rootGroups.addAll( newRootGroups ) )
         {
-            rootGroups.add( rootGroup );
             context.setRootGroups( rootGroups );
         }
 
         Set<String> allGroups = context.getAllGroups();
-        if ( !allGroups.contains( ac.getArtifactInfo().groupId ) )
+        if ( allGroups.addAll( newAllGroups ) )
         {
-            allGroups.add( ac.getArtifactInfo().groupId );
             context.setAllGroups( allGroups );
         }
     }
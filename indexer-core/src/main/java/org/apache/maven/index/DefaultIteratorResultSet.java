@@ -22,8 +22,12 @@ package org.apache.maven.index;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.apache.lucene.analysis.Analyzer;
 
 import org.apache.lucene.analysis.CachingTokenFilter;
@@ -66,6 +70,11 @@ public class DefaultIteratorResultSet
 
     private final List<MatchHighlightRequest> matchHighlightRequests;
 
+    private final Set<Field> projectedFields;
+
+    private final Map<IndexingContext, ArtifactInfoProjection> projections =
+        new HashMap<IndexingContext, ArtifactInfoProjection>();
+
     private final TopDocs hits;
 
     private final int from;
@@ -118,6 +127,21 @@ public class DefaultIteratorResultSet
             matchHighlightRequests.add( new MatchHighlightRequest( hr.getField(), rewrittenQuery, hr.getHighlightMode() ) );
         }
 
+        if ( request.getFieldProjection() != null )
+        {
+            // highlighted fields must be loaded too
+            this.projectedFields = new HashSet<Field>( request.getFieldProjection() );
+
+            for ( MatchHighlightRequest hr : request.getMatchHighlightRequests() )
+            {
+                projectedFields.add( hr.getField() );
+            }
+        }
+        else
+        {
+            this.projectedFields = null;
+        }
+
         this.hits = hits;
 
         this.from = request.getStart();
@@ -219,11 +243,28 @@ public class DefaultIteratorResultSet
         // or we found what we need
         while ( ( result == null ) && ( pointer < maxRecPointer ) && ( pointer < hits.scoreDocs.length ) )
         {
-            Document doc = indexSearcher.doc( hits.scoreDocs[pointer].doc );
+            final Document doc;
 
-            IndexingContext context = getIndexingContextForPointer( doc, hits.scoreDocs[pointer].doc );
+            final IndexingContext context;
 
-            result = IndexUtils.constructArtifactInfo( doc, context );
+            if ( projectedFields != null )
+            {
+                context = getIndexingContextForPointer( null, hits.scoreDocs[pointer].doc );
+
+                final ArtifactInfoProjection projection = getProjection( context );
+
+                doc = projection.document( indexSearcher, hits.scoreDocs[pointer].doc );
+
+                result = projection.constructArtifactInfo( doc );
+            }
+            else
+            {
+                doc = indexSearcher.doc( hits.scoreDocs[pointer].doc );
+
+                context = getIndexingContextForPointer( doc, hits.scoreDocs[pointer].doc );
+
+                result = IndexUtils.constructArtifactInfo( doc, context );
+            }
 
             if ( result != null )
             {
@@ -267,6 +308,20 @@ public class DefaultIteratorResultSet
         return result;
     }
 
+    private ArtifactInfoProjection getProjection( final IndexingContext context )
+    {
+        ArtifactInfoProjection projection = projections.get( context );
+
+        if ( projection == null )
+        {
+            projection = new ArtifactInfoProjection( context, projectedFields );
+
+            projections.put( context, projection );
+        }
+
+        return projection;
+    }
+
     private volatile boolean cleanedUp = false;
 
     protected synchronized void cleanUp()
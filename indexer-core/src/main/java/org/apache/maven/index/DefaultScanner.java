@@ -20,18 +20,31 @@ package org.apache.maven.index;
  */
 
 import java.io.File;
-import java.util.Arrays;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.maven.index.context.IndexingContext;
+import org.apache.maven.index.fs.DirectoryListing;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
 
 /**
- * A default repository scanner for Maven 2 repository.
+ * A default repository scanner for Maven 2 repository. It walks the repository using {@code java.nio.file}, reading
+ * {@link BasicFileAttributes} of every entry exactly once, and hands the per-directory {@link DirectoryListing} over
+ * to {@link ArtifactContextProducer}, so creators do not need to stat the sibling files again. Directories are walked
+ * in {@link ScannerFileComparator} order, hence the order of discovery (and of documents in index) is stable.
  * 
  * @author Jason Van Zyl
  * @author Tamas Cservenak
@@ -50,7 +63,14 @@ public class DefaultScanner
 
         ScanningResult result = new ScanningResult( request );
 
-        scanDirectory( request.getStartingDirectory(), request );
+        if ( request.isParallel() )
+        {
+            scanDirectoryParallel( request.getStartingDirectory(), request );
+        }
+        else
+        {
+            scanDirectory( request.getStartingDirectory(), request );
+        }
 
         request.getArtifactScanningListener().scanningFinished( request.getIndexingContext(), result );
 
@@ -64,42 +84,117 @@ public class DefaultScanner
             return;
         }
 
-        File[] fileArray = dir.listFiles();
+        Map<String, BasicFileAttributes> entries = listDirectory( dir );
+
+        DirectoryListing listing = new DirectoryListing( dir, entries );
 
-        if ( fileArray != null )
+        for ( String name : sortedNames( entries ) )
         {
-            Set<File> files = new TreeSet<File>( new ScannerFileComparator() );
+            if ( name.startsWith( "." ) )
+            {
+                continue; // skip all hidden files and directories
+            }
 
-            files.addAll( Arrays.asList( fileArray ) );
+            if ( entries.get( name ).isDirectory() )
+            {
+                scanDirectory( new File( dir, name ), request );
+            }
+            else
+            {
+                processFile( new File( dir, name ), listing, request );
+            }
+        }
+    }
 
-            for ( File f : files )
+    private void scanDirectoryParallel( File dir, ScanningRequest request )
+    {
+        if ( dir == null )
+        {
+            return;
+        }
+
+        final boolean ownPool = request.getPool() == null;
+
+        final ForkJoinPool pool = ownPool ? new ForkJoinPool( Math.max( 1, request.getThreads() ) ) : request.getPool();
+
+        try
+        {
+            pool.invoke( new ScanDirectoryTask( dir, request ) );
+        }
+        finally
+        {
+            if ( ownPool )
             {
-                if ( f.getName().startsWith( "." ) )
-                {
-                    continue; // skip all hidden files and directories
-                }
+                pool.shutdown();
+            }
+        }
+    }
 
-                if ( f.isDirectory() )
-                {
-                    scanDirectory( f, request );
-                }
-                // else if ( !AbstractIndexCreator.isIndexable( f ) )
-                // {
-                // continue; // skip non-indexable files
-                // }
-                else
+    /**
+     * Lists the directory, reading the attributes of every entry exactly once. Returns empty map if the directory does
+     * not exist or is not readable.
+     */
+    private Map<String, BasicFileAttributes> listDirectory( File dir )
+    {
+        Map<String, BasicFileAttributes> entries = new HashMap<String, BasicFileAttributes>();
+
+        try
+        {
+            DirectoryStream<Path> stream = Files.newDirectoryStream( dir.toPath() );
+            try
+            {
+                for ( Path entry : stream )
                 {
-                    processFile( f, request );
+                    try
+                    {
+                        entries.put( entry.getFileName().toString(),
+                            Files.readAttributes( entry, BasicFileAttributes.class ) );
+                    }
+                    catch ( IOException e )
+                    {
+                        // vanished or dangling link, skip it
+                    }
                 }
             }
+            finally
+            {
+                stream.close();
+            }
         }
+        catch ( IOException e )
+        {
+            // not a directory or not readable, nothing to scan
+        }
+
+        return entries;
     }
 
-    private void processFile( File file, ScanningRequest request )
+    private List<String> sortedNames( Map<String, BasicFileAttributes> entries )
+    {
+        List<String> names = new ArrayList<String>( entries.keySet() );
+
+        Collections.sort( names, new ScannerFileComparator() );
+
+        return names;
+    }
+
+    private void processFile( File file, DirectoryListing listing, ScanningRequest request )
     {
         IndexingContext context = request.getIndexingContext();
 
-        ArtifactContext ac = artifactContextProducer.getArtifactContext( context, file );
+        ArtifactContext ac;
+
+        // other producers only know files, and query the filesystem themselves; the default one passes the listing
+        // on to its overridable getArtifactContext( context, file )
+        if ( artifactContextProducer instanceof DefaultArtifactContextProducer )
+        {
+            ac = ( (DefaultArtifactContextProducer) artifactContextProducer ).getArtifactContext( context, file,
+                listing );
+        }
+        else
+        {
+            ac = artifactContextProducer.getArtifactContext( context, file );
+        }
 
         if ( ac != null )
         {
@@ -109,24 +204,86 @@ public class DefaultScanner
 
     // ==
 
+    /**
+     * Fork-join task scanning one directory: subdirectories are forked as separate tasks (and are stolen by idle
+     * workers), while files of the directory itself are processed sequentially in {@link ScannerFileComparator}
+     * order, hence the "POMs last" and "newest snapshot first" guarantees hold within each GAV directory.
+     */
+    private class ScanDirectoryTask
+        extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final File dir;
+
+        private final ScanningRequest request;
+
+        public ScanDirectoryTask( File dir, ScanningRequest request )
+        {
+            this.dir = dir;
+            this.request = request;
+        }
+
+        @Override
+        protected void compute()
+        {
+            Map<String, BasicFileAttributes> entries = listDirectory( dir );
+
+            DirectoryListing listing = new DirectoryListing( dir, entries );
+
+            List<ScanDirectoryTask> subtasks = new ArrayList<ScanDirectoryTask>();
+
+            List<File> files = new ArrayList<File>();
+
+            for ( String name : sortedNames( entries ) )
+            {
+                if ( name.startsWith( "." ) )
+                {
+                    continue; // skip all hidden files and directories
+                }
+
+                if ( entries.get( name ).isDirectory() )
+                {
+                    ScanDirectoryTask subtask = new ScanDirectoryTask( new File( dir, name ), request );
+                    subtask.fork();
+                    subtasks.add( subtask );
+                }
+                else
+                {
+                    files.add( new File( dir, name ) );
+                }
+            }
+
+            for ( File file : files )
+            {
+                processFile( file, listing, request );
+            }
+
+            for ( ScanDirectoryTask subtask : subtasks )
+            {
+                subtask.join();
+            }
+        }
+    }
+
     /**
      * A special comparator to overcome some very bad limitations of nexus-indexer during scanning: using this
      * comparator, we force to "discover" POMs last, before the actual artifact file. The reason for this, is to
      * guarantee that scanner will provide only "best" informations 1st about same artifact, since the POM->artifact
      * direction of discovery is not trivial at all (pom read -> packaging -> extension -> artifact file). The artifact
-     * -> POM direction is trivial.
+     * -> POM direction is trivial. Compares file names.
      */
     private static class ScannerFileComparator
-        implements Comparator<File>
+        implements Comparator<String>
     {
-        public int compare( File o1, File o2 )
+        public int compare( String o1, String o2 )
         {
-            if ( o1.getName().endsWith( ".pom" ) && !o2.getName().endsWith( ".pom" ) )
+            if ( o1.endsWith( ".pom" ) && !o2.endsWith( ".pom" ) )
             {
                 // 1st is pom, 2nd is not
                 return 1;
             }
-            else if ( !o1.getName().endsWith( ".pom" ) && o2.getName().endsWith( ".pom" ) )
+            else if ( !o1.endsWith( ".pom" ) && o2.endsWith( ".pom" ) )
             {
                 // 2nd is pom, 1st is not
                 return -1;
@@ -136,7 +293,7 @@ public class DefaultScanner
                 // both are "same" (pom or not pom)
                 // Use reverse order so that timestamped snapshots
                 // use latest - not first
-                return o2.getName().compareTo( o1.getName() );
+                return o2.compareTo( o1 );
 
             }
         }
@@ -21,24 +21,30 @@ package org.apache.maven.index;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.lucene.document.Document;
 import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.DocsEnum;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.MultiFields;
-import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
-import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.search.TopScoreDocCollector;
 import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 import org.apache.maven.index.context.IndexingContext;
+import org.apache.maven.index.util.FingerprintSet;
+import org.apache.maven.index.util.SortedTermSet;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
 
 /**
- * A default scanning listener
+ * A default scanning listener. It is thread safe, hence it may be used with parallel scanning too (see
+ * {@link ScanningRequest#setThreads(int)}).
  * 
  * @author Eugene Kuleshov
  */
@@ -48,30 +54,38 @@ public class DefaultScannerListener
 {
     private final IndexingContext context;
 
-    private final IndexerEngine indexerEngine;
+    private final AbstractIndexerEngine indexerEngine;
 
     private final boolean update;
 
     private final ArtifactScanningListener listener;
 
-    private final Set<String> uinfos = new HashSet<String>();
+    private static final int DELETE_BATCH_SIZE = 1000;
 
-    private final Set<String> processedUinfos = new HashSet<String>();
+    /**
+     * UINFOs present in index when scanning started, the ones discovered by scan are marked.
+     */
+    private volatile SortedTermSet uinfos = emptyTermSet();
 
-    private final Set<String> allGroups = new HashSet<String>();
+    /**
+     * UINFOs discovered by scan that were not present in index.
+     */
+    private final FingerprintSet processedUinfos = new FingerprintSet();
 
-    private final Set<String> groups = new HashSet<String>();
+    private final Set<String> allGroups = newConcurrentSet();
 
-    private final List<Exception> exceptions = new ArrayList<Exception>();
+    private final Set<String> groups = newConcurrentSet();
 
-    private int count = 0;
+    private final List<Exception> exceptions = Collections.synchronizedList( new ArrayList<Exception>() );
+
+    private final AtomicInteger count = new AtomicInteger();
 
     public DefaultScannerListener( IndexingContext context, //
                             IndexerEngine indexerEngine, boolean update, //
                             ArtifactScanningListener listener )
     {
         this.context = context;
-        this.indexerEngine = indexerEngine;
+        this.indexerEngine = AbstractIndexerEngine.batching( indexerEngine );
         this.update = update;
         this.listener = listener;
     }
@@ -98,42 +112,33 @@ public class DefaultScannerListener
 
     public void artifactDiscovered( ArtifactContext ac )
     {
-        String uinfo = ac.getArtifactInfo().getUinfo();
-
-        // TODO: scattered across commented out changes while I was fixing NEXUS-2712, cstamas
-        // These changes should be applied by borks too much the fragile indexer
-
-        // if ( VersionUtils.isSnapshot( ac.getArtifactInfo().version ) && processedUinfos.contains( uinfo ) )
-        if ( processedUinfos.contains( uinfo ) )
+        try
         {
-            return; // skip individual snapshots
-        }
+            String uinfo = ac.getArtifactInfo().getUinfo();
 
-        boolean adding = processedUinfos.add( uinfo );
+            // TODO: scattered across commented out changes while I was fixing NEXUS-2712, cstamas
+            // These changes should be applied by borks too much the fragile indexer
 
-        if ( uinfos.contains( uinfo ) )
-        {
-            // already indexed
-            uinfos.remove( uinfo );
-            return;
-        }
-
-        try
-        {
-            if ( listener != null )
+            if ( uinfos.mark( uinfo ) )
             {
-                listener.artifactDiscovered( ac );
+                // already indexed
+                return;
             }
 
-            if ( adding )
+            // if ( VersionUtils.isSnapshot( ac.getArtifactInfo().version ) && processedUinfos.contains( uinfo ) )
+            // add is atomic: with parallel scan only the first thread discovering the uinfo proceeds
+            if ( !processedUinfos.add( uinfo ) )
             {
-                indexerEngine.index( context, ac );
+                return; // skip individual snapshots
             }
-            else
+
+            if ( listener != null )
             {
-                indexerEngine.update( context, ac );
+                listener.artifactDiscovered( ac );
             }
 
+            indexerEngine.index( context, ac );
+
             for ( Exception e : ac.getErrors() )
             {
                 artifactError( ac, e );
@@ -142,21 +147,29 @@ public class DefaultScannerListener
             groups.add( ac.getArtifactInfo().getRootGroup() );
             allGroups.add( ac.getArtifactInfo().groupId );
 
-            count++;
+            count.incrementAndGet();
         }
         catch ( IOException ex )
         {
             artifactError( ac, ex );
         }
+        finally
+        {
+            // also when not indexed, the archive may have been opened by producer or listener
+            ac.close();
+        }
     }
 
     public void scanningFinished( IndexingContext ctx, ScanningResult result )
     {
-        result.setTotalFiles( count );
+        result.setTotalFiles( count.get() );
 
-        for ( Exception ex : exceptions )
+        synchronized ( exceptions )
         {
-            result.addException( ex );
+            for ( Exception ex : exceptions )
+            {
+                result.addException( ex );
+            }
         }
 
         try
@@ -210,40 +223,49 @@ public class DefaultScannerListener
     private void initialize( IndexingContext ctx )
         throws IOException, CorruptIndexException
     {
+        // if ctx is receiving updates (in other words, is a proxy),
+        // there is no need to build a huge set with all uinfo's
+        // as deletion detection in those cases have no effect. Also, the
+        // removeDeletedArtifacts() method, that uses info gathered in this set
+        // is invoked with same condition.
+        final SortedTermSet existing = ctx.isReceivingUpdates() ? null : new SortedTermSet();
+
         final IndexSearcher indexSearcher = ctx.acquireIndexSearcher();
         try
         {
             final IndexReader r = indexSearcher.getIndexReader();
-            Bits liveDocs = MultiFields.getLiveDocs(r);
+            final Bits liveDocs = MultiFields.getLiveDocs( r );
+            final Terms terms = MultiFields.getTerms( r, ArtifactInfo.UINFO );
 
-            for ( int i = 0; i < r.maxDoc(); i++ )
+            if ( terms != null )
             {
-                if (liveDocs == null || liveDocs.get(i) )
-                {
-                    Document d = r.document( i );
+                // walk the terms dictionary instead of loading stored documents
+                final TermsEnum termsEnum = terms.iterator( null );
+                DocsEnum docsEnum = null;
+                BytesRef term;
 
-                    String uinfo = d.get( ArtifactInfo.UINFO );
+                while ( ( term = termsEnum.next() ) != null )
+                {
+                    docsEnum = termsEnum.docs( liveDocs, docsEnum, DocsEnum.FLAG_NONE );
 
-                    if ( uinfo != null )
+                    if ( docsEnum.nextDoc() == DocIdSetIterator.NO_MORE_DOCS )
                     {
-                        // if ctx is receiving updates (in other words, is a proxy),
-                        // there is no need to build a huge Set of strings with all uinfo's
-                        // as deletion detection in those cases have no effect. Also, the
-                        // removeDeletedArtifacts() method, that uses info gathered in this set
-                        // is invoked with same condition. As indexes of Central are getting huge,
-                        // the set grows enormously too, but is actually not used
-                        if ( !ctx.isReceivingUpdates() )
-                        {
-                            uinfos.add( uinfo );
-                        }
+                        // only deleted documents carry this uinfo
+                        continue;
+                    }
 
-                        // add all existing groupIds to the lists, as they will
-                        // not be "discovered" and would be missing from the new list..
-                        String groupId = uinfo.substring( 0, uinfo.indexOf( '|' ) );
-                        int n = groupId.indexOf( '.' );
-                        groups.add( n == -1 ? groupId : groupId.substring( 0, n ) );
-                        allGroups.add( groupId );
+                    if ( existing != null )
+                    {
+                        existing.add( term );
                     }
+
+                    // add all existing groupIds to the lists, as they will
+                    // not be "discovered" and would be missing from the new list..
+                    String uinfo = term.utf8ToString();
+                    String groupId = uinfo.substring( 0, uinfo.indexOf( '|' ) );
+                    int n = groupId.indexOf( '.' );
+                    groups.add( n == -1 ? groupId : groupId.substring( 0, n ) );
+                    allGroups.add( groupId );
                 }
             }
         }
@@ -251,6 +273,12 @@ public class DefaultScannerListener
         {
             ctx.releaseIndexSearcher( indexSearcher );
         }
+
+        if ( existing != null )
+        {
+            existing.freeze();
+            uinfos = existing;
+        }
     }
 
     private void removeDeletedArtifacts( IndexingContext context, ScanningResult result, String contextPath )
@@ -258,54 +286,73 @@ public class DefaultScannerListener
     {
         int deleted = 0;
 
+        final SortedTermSet existing = uinfos;
+        final List<String> batch = new ArrayList<String>( DELETE_BATCH_SIZE );
+
         final IndexSearcher indexSearcher = context.acquireIndexSearcher();
         try
         {
-            for ( String uinfo : uinfos )
-            {
-                TopScoreDocCollector collector = TopScoreDocCollector.create( 1, false );
-
-                indexSearcher.search( new TermQuery( new Term( ArtifactInfo.UINFO, uinfo ) ), collector );
+            final IndexReader r = indexSearcher.getIndexReader();
+            final Bits liveDocs = MultiFields.getLiveDocs( r );
+            final Terms terms = MultiFields.getTerms( r, ArtifactInfo.UINFO );
 
-                if ( collector.getTotalHits() > 0 )
+            if ( terms != null && existing.size() > 0 )
+            {
+                // merge-walk the sorted terms dictionary against the sorted set of UINFOs present when scan
+                // started: members of that set left unmarked were not discovered by the scan, hence are deleted
+                final TermsEnum termsEnum = terms.iterator( null );
+                final BytesRef member = new BytesRef();
+                DocsEnum docsEnum = null;
+                BytesRef term;
+                int pos = 0;
+                int cmp = -1;
+
+                while ( pos < existing.size() && ( term = termsEnum.next() ) != null )
                 {
-                    String[] ra = ArtifactInfo.FS_PATTERN.split( uinfo );
-
-                    ArtifactInfo ai = new ArtifactInfo();
-
-                    ai.repository = context.getRepositoryId();
-
-                    ai.groupId = ra[0];
-
-                    ai.artifactId = ra[1];
-
-                    ai.version = ra[2];
-
-                    if ( ra.length > 3 )
+                    while ( pos < existing.size() && ( cmp = existing.get( pos, member ).compareTo( term ) ) < 0 )
                     {
-                        ai.classifier = ArtifactInfo.renvl( ra[3] );
+                        pos++;
                     }
 
-                    if ( ra.length > 4 )
+                    if ( cmp != 0 || existing.isMarked( pos ) )
                     {
-                        ai.packaging = ArtifactInfo.renvl( ra[4] );
+                        // newly added or discovered artifact
+                        continue;
                     }
 
-                    // minimal ArtifactContext for removal
-                    ArtifactContext ac = new ArtifactContext( null, null, null, ai, ai.calculateGav() );
+                    docsEnum = termsEnum.docs( liveDocs, docsEnum, DocsEnum.FLAG_NONE );
+
+                    int hits = 0;
+                    while ( docsEnum.nextDoc() != DocIdSetIterator.NO_MORE_DOCS )
+                    {
+                        hits++;
+                    }
 
-                    for ( int i = 0; i < collector.getTotalHits(); i++ )
+                    if ( hits > 0 )
                     {
-                        if ( contextPath == null
-                            || context.getGavCalculator().gavToPath( ac.getGav() ).startsWith( contextPath ) )
+                        final String uinfo = term.utf8ToString();
+
+                        if ( contextPath == null || isUnderPath( context, uinfo, contextPath ) )
                         {
-                            indexerEngine.remove( context, ac );
-                        }
+                            batch.add( uinfo );
+
+                            deleted += hits;
 
-                        deleted++;
+                            if ( batch.size() >= DELETE_BATCH_SIZE )
+                            {
+                                indexerEngine.removeUinfos( context, batch );
+
+                                batch.clear();
+                            }
+                        }
                     }
                 }
             }
+
+            if ( !batch.isEmpty() )
+            {
+                indexerEngine.removeUinfos( context, batch );
+            }
         }
         finally
         {
@@ -320,4 +367,43 @@ public class DefaultScannerListener
         result.setDeletedFiles( deleted );
     }
 
-}
\ No newline at end of file
+    /**
+     * Returns true if the artifact of passed in UINFO resides under given path in repository.
+     */
+    private boolean isUnderPath( IndexingContext context, String uinfo, String contextPath )
+    {
+        String[] ra = ArtifactInfo.FS_PATTERN.split( uinfo );
+
+        ArtifactInfo ai = new ArtifactInfo();
+
+        ai.groupId = ra[0];
+
+        ai.artifactId = ra[1];
+
+        ai.version = ra[2];
+
+        if ( ra.length > 3 )
+        {
+            ai.classifier = ArtifactInfo.renvl( ra[3] );
+        }
+
+        if ( ra.length > 4 )
+        {
+            ai.packaging = ArtifactInfo.renvl( ra[4] );
+        }
+
+        return context.getGavCalculator().gavToPath( ai.calculateGav() ).startsWith( contextPath );
+    }
+
+    private static SortedTermSet emptyTermSet()
+    {
+        final SortedTermSet result = new SortedTermSet();
+        result.freeze();
+        return result;
+    }
+
+    private static Set<String> newConcurrentSet()
+    {
+        return Collections.newSetFromMap( new ConcurrentHashMap<String, Boolean>() );
+    }
+}
@@ -20,20 +20,32 @@ package org.apache.maven.index;
  */
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.lucene.document.Document;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.TopScoreDocCollector;
 import org.apache.maven.index.context.IndexUtils;
 import org.apache.maven.index.context.IndexingContext;
@@ -125,127 +137,390 @@ public class DefaultSearchEngine
 
     // ===
 
-    protected int searchFlat( FlatSearchRequest req, Collection<ArtifactInfo> result,
-                              List<IndexingContext> participatingContexts, Query query )
+    protected int searchFlat( final FlatSearchRequest req, final Collection<ArtifactInfo> result,
+                              final List<IndexingContext> participatingContexts, final Query query )
         throws IOException
     {
-        int hitCount = 0;
-        for ( IndexingContext context : participatingContexts )
+        return searchContexts( req, participatingContexts, query, new HitsReducer()
         {
-            final IndexSearcher indexSearcher = context.acquireIndexSearcher();
-            try
+            @Override
+            void reduce( final ContextHits hits )
             {
-                final TopScoreDocCollector collector = doSearchWithCeiling( req, indexSearcher, query );
+                // uhm btw hitCount contains dups
+                hitCount += hits.totalHits;
 
-                if ( collector.getTotalHits() == 0 )
+                for ( ArtifactInfo artifactInfo : hits.artifactInfos )
                 {
-                    // context has no hits, just continue to next one
-                    continue;
+                    if ( accept( req, hits.context, artifactInfo ) )
+                    {
+                        result.add( artifactInfo );
+                    }
                 }
+            }
+        } );
+    }
+
+    protected int searchGrouped( final GroupedSearchRequest req, final Map<String, ArtifactInfoGroup> result,
+                                 final Grouping grouping, final List<IndexingContext> participatingContexts,
+                                 final Query query )
+        throws IOException
+    {
+        return searchContexts( req, participatingContexts, query, new HitsReducer()
+        {
+            @Override
+            void reduce( final ContextHits hits )
+            {
+                hitCount += hits.totalHits;
 
-                ScoreDoc[] scoreDocs = collector.topDocs().scoreDocs;
+                for ( ArtifactInfo artifactInfo : hits.artifactInfos )
+                {
+                    if ( accept( req, hits.context, artifactInfo ) )
+                    {
+                        if ( !grouping.addArtifactInfo( result, artifactInfo ) )
+                        {
+                            // fix the hitCount accordingly
+                            hitCount--;
+                        }
+                    }
+                }
+            }
+        } );
+    }
 
-                // uhm btw hitCount contains dups
+    /**
+     * Hits of one context, before filtering and reduction into results.
+     */
+    private static class ContextHits
+    {
+        private final IndexingContext context;
+
+        private final List<ArtifactInfo> artifactInfos = new ArrayList<ArtifactInfo>();
+
+        private int totalHits;
+
+        private ContextHits( final IndexingContext context )
+        {
+            this.context = context;
+        }
+    }
 
-                hitCount += collector.getTotalHits();
+    /**
+     * Reduces hits of contexts into results, always invoked on calling thread and in order of contexts.
+     */
+    private abstract static class HitsReducer
+    {
+        protected int hitCount;
 
-                int start = 0; // from == FlatSearchRequest.UNDEFINED ? 0 : from;
+        abstract void reduce( ContextHits hits );
+    }
 
-                // we have to pack the results as long: a) we have found aiCount ones b) we depleted hits
-                for ( int i = start; i < scoreDocs.length; i++ )
+    /**
+     * Searches the contexts, sequentially or in parallel as the request asks for, and reduces their hits in order of
+     * contexts. Returns the hit count of the reducer.
+     */
+    private int searchContexts( final AbstractSearchRequest req, final List<IndexingContext> contexts,
+                                final Query query, final HitsReducer reducer )
+        throws IOException
+    {
+        if ( !req.isParallel() || contexts.size() < 2 )
+        {
+            for ( IndexingContext context : contexts )
+            {
+                reducer.reduce( searchContext( req, context, query ) );
+            }
+        }
+        else
+        {
+            for ( ContextHits hits : searchContextsInParallel( req, contexts, query ) )
+            {
+                if ( hits != null )
                 {
-                    Document doc = indexSearcher.doc( scoreDocs[i].doc );
+                    reducer.reduce( hits );
+                }
+            }
+        }
 
-                    ArtifactInfo artifactInfo = IndexUtils.constructArtifactInfo( doc, context );
+        return reducer.hitCount;
+    }
 
-                    if ( artifactInfo != null )
-                    {
-                        artifactInfo.repository = context.getRepositoryId();
-                        artifactInfo.context = context.getId();
+    /**
+     * Searches the contexts concurrently, keeping at most {@link AbstractSearchRequest#getThreads()} of them in
+     * flight. Returns hits in order of contexts, with {@code null} for contexts that timed out. Timed out searches are
+     * abandoned but not interrupted, as interrupting a thread doing I/O would close the underlying index files.
+     */
+    private ContextHits[] searchContextsInParallel( final AbstractSearchRequest req,
+                                                    final List<IndexingContext> contexts, final Query query )
+        throws IOException
+    {
+        // with an executor of the caller and no thread count, the executor alone bounds concurrency
+        final int threads = req.getThreads() > 1 ? Math.min( req.getThreads(), contexts.size() ) : contexts.size();
+        final long timeout = req.getContextTimeout();
+        final ExecutorService executor =
+            req.getExecutor() != null ? req.getExecutor() : Executors.newFixedThreadPool( threads,
+                new SearchThreadFactory() );
+
+        final ContextHits[] results = new ContextHits[contexts.size()];
+        final ExecutorCompletionService<ContextHits> completionService =
+            new ExecutorCompletionService<ContextHits>( executor );
+        final Map<Future<ContextHits>, Integer> inFlight = new HashMap<Future<ContextHits>, Integer>();
+        final Map<Future<ContextHits>, Long> deadlines = new HashMap<Future<ContextHits>, Long>();
+
+        try
+        {
+            int next = 0;
+
+            while ( next < threads )
+            {
+                submit( req, contexts, next++, query, completionService, inFlight, deadlines );
+            }
+
+            while ( !inFlight.isEmpty() )
+            {
+                final Future<ContextHits> future;
 
-                        if ( req.getArtifactInfoFilter() != null )
+                if ( timeout == AbstractSearchRequest.UNDEFINED )
+                {
+                    future = completionService.take();
+                }
+                else
+                {
+                    final long now = System.currentTimeMillis();
+                    long earliest = Long.MAX_VALUE;
+                    for ( Map.Entry<Future<ContextHits>, Long> deadline : deadlines.entrySet() )
+                    {
+                        if ( deadline.getKey().isDone() )
+                        {
+                            // completed in time, only waits to be taken from the completion service
+                            continue;
+                        }
+                        else if ( deadline.getValue() <= now )
                         {
-                            if ( !req.getArtifactInfoFilter().accepts( context, artifactInfo ) )
-                            {
-                                continue;
-                            }
+                            final IndexingContext context = contexts.get( inFlight.get( deadline.getKey() ) );
+                            getLogger().warn(
+                                "Search of context " + context.getId() + " timed out after " + timeout
+                                    + "ms, its hits are left out of results" );
+                            deadline.getKey().cancel( false );
                         }
-                        if ( req.getArtifactInfoPostprocessor() != null )
+                        else
                         {
-                            req.getArtifactInfoPostprocessor().postprocess( context, artifactInfo );
+                            earliest = Math.min( earliest, deadline.getValue() );
                         }
+                    }
 
-                        result.add( artifactInfo );
+                    if ( removeCancelled( inFlight, deadlines ) )
+                    {
+                        while ( next < contexts.size() && inFlight.size() < threads )
+                        {
+                            submit( req, contexts, next++, query, completionService, inFlight, deadlines );
+                        }
+                        continue;
+                    }
+
+                    future = completionService.poll( earliest - now, TimeUnit.MILLISECONDS );
+
+                    if ( future == null )
+                    {
+                        continue;
                     }
                 }
+
+                final Integer index = inFlight.remove( future );
+                deadlines.remove( future );
+
+                if ( index == null )
+                {
+                    // a timed out search completed meanwhile
+                    continue;
+                }
+
+                results[index] = getHits( future );
+
+                if ( next < contexts.size() )
+                {
+                    submit( req, contexts, next++, query, completionService, inFlight, deadlines );
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException( "Interrupted while searching contexts" ).initCause( e );
+        }
+        finally
+        {
+            for ( Future<ContextHits> future : inFlight.keySet() )
+            {
+                future.cancel( false );
             }
-            finally
+
+            if ( executor != req.getExecutor() )
             {
-                context.releaseIndexSearcher( indexSearcher );
+                executor.shutdown();
             }
         }
 
-        return hitCount;
+        return results;
     }
 
-    protected int searchGrouped( GroupedSearchRequest req, Map<String, ArtifactInfoGroup> result, Grouping grouping,
-                                 List<IndexingContext> participatingContexts, Query query )
-        throws IOException
+    private void submit( final AbstractSearchRequest req, final List<IndexingContext> contexts, final int index,
+                         final Query query, final ExecutorCompletionService<ContextHits> completionService,
+                         final Map<Future<ContextHits>, Integer> inFlight,
+                         final Map<Future<ContextHits>, Long> deadlines )
     {
-        int hitCount = 0;
+        final IndexingContext context = contexts.get( index );
 
-        for ( IndexingContext context : participatingContexts )
+        final Future<ContextHits> future = completionService.submit( new Callable<ContextHits>()
         {
-            final IndexSearcher indexSearcher = context.acquireIndexSearcher();
-            try
+            public ContextHits call()
+                throws IOException
             {
-                final TopScoreDocCollector collector = doSearchWithCeiling( req, indexSearcher, query );
+                return searchContext( req, context, query );
+            }
+        } );
 
-                if ( collector.getTotalHits() > 0 )
-                {
-                    ScoreDoc[] scoreDocs = collector.topDocs().scoreDocs;
+        inFlight.put( future, index );
 
-                    hitCount += collector.getTotalHits();
+        if ( req.getContextTimeout() != AbstractSearchRequest.UNDEFINED )
+        {
+            deadlines.put( future, System.currentTimeMillis() + req.getContextTimeout() );
+        }
+    }
 
-                    for ( int i = 0; i < scoreDocs.length; i++ )
-                    {
-                        Document doc = indexSearcher.doc( scoreDocs[i].doc );
+    private boolean removeCancelled( final Map<Future<ContextHits>, Integer> inFlight,
+                                     final Map<Future<ContextHits>, Long> deadlines )
+    {
+        boolean removed = false;
 
-                        ArtifactInfo artifactInfo = IndexUtils.constructArtifactInfo( doc, context );
+        for ( Iterator<Future<ContextHits>> i = inFlight.keySet().iterator(); i.hasNext(); )
+        {
+            final Future<ContextHits> future = i.next();
 
-                        if ( artifactInfo != null )
-                        {
-                            artifactInfo.repository = context.getRepositoryId();
-                            artifactInfo.context = context.getId();
-
-                            if ( req.getArtifactInfoFilter() != null )
-                            {
-                                if ( !req.getArtifactInfoFilter().accepts( context, artifactInfo ) )
-                                {
-                                    continue;
-                                }
-                            }
-                            if ( req.getArtifactInfoPostprocessor() != null )
-                            {
-                                req.getArtifactInfoPostprocessor().postprocess( context, artifactInfo );
-                            }
-
-                            if ( !grouping.addArtifactInfo( result, artifactInfo ) )
-                            {
-                                // fix the hitCount accordingly
-                                hitCount--;
-                            }
-                        }
-                    }
+            if ( future.isCancelled() )
+            {
+                i.remove();
+                deadlines.remove( future );
+                removed = true;
+            }
+        }
+
+        return removed;
+    }
+
+    private ContextHits getHits( final Future<ContextHits> future )
+        throws IOException, InterruptedException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( ExecutionException e )
+        {
+            final Throwable cause = e.getCause();
+
+            if ( cause instanceof IOException )
+            {
+                throw (IOException) cause;
+            }
+            else if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            else if ( cause instanceof Error )
+            {
+                throw (Error) cause;
+            }
+
+            throw new IOException( "Error searching context", cause );
+        }
+    }
+
+    /**
+     * Searches one context, and constructs the artifact infos of its hits.
+     */
+    private ContextHits searchContext( final AbstractSearchRequest req, final IndexingContext context,
+                                       final Query query )
+        throws IOException
+    {
+        final ContextHits hits = new ContextHits( context );
+
+        final IndexSearcher indexSearcher = context.acquireIndexSearcher();
+        try
+        {
+            // results are ordered by request comparators, scores are irrelevant
+            final TopDocs topDocs = doSearchWithCeiling( req, indexSearcher, query, false );
+
+            hits.totalHits = topDocs.totalHits;
+
+            final ArtifactInfoProjection projection =
+                req.getFieldProjection() != null ? new ArtifactInfoProjection( context, req.getFieldProjection() )
+                                : null;
+
+            for ( ScoreDoc scoreDoc : topDocs.scoreDocs )
+            {
+                final ArtifactInfo artifactInfo;
+
+                if ( projection != null )
+                {
+                    artifactInfo =
+                        projection.constructArtifactInfo( projection.document( indexSearcher, scoreDoc.doc ) );
+                }
+                else
+                {
+                    artifactInfo = IndexUtils.constructArtifactInfo( indexSearcher.doc( scoreDoc.doc ), context );
+                }
+
+                if ( artifactInfo != null )
+                {
+                    artifactInfo.repository = context.getRepositoryId();
+                    artifactInfo.context = context.getId();
+
+                    hits.artifactInfos.add( artifactInfo );
                 }
             }
-            finally
+        }
+        finally
+        {
+            context.releaseIndexSearcher( indexSearcher );
+        }
+
+        return hits;
+    }
+
+    /**
+     * Applies request filter and postprocessor to an artifact info, returns true if it should be added to results.
+     */
+    private boolean accept( final AbstractSearchRequest req, final IndexingContext context,
+                            final ArtifactInfo artifactInfo )
+    {
+        if ( req.getArtifactInfoFilter() != null )
+        {
+            if ( !req.getArtifactInfoFilter().accepts( context, artifactInfo ) )
             {
-                context.releaseIndexSearcher( indexSearcher );
+                return false;
             }
         }
+        if ( req.getArtifactInfoPostprocessor() != null )
+        {
+            req.getArtifactInfoPostprocessor().postprocess( context, artifactInfo );
+        }
+
+        return true;
+    }
 
-        return hitCount;
+    /**
+     * Creates daemon threads for per-request executors.
+     */
+    private static class SearchThreadFactory
+        implements ThreadFactory
+    {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread( final Runnable r )
+        {
+            final Thread thread = new Thread( r, "nexus-indexer-search-" + count.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
     }
 
     // == NG Search
@@ -277,11 +552,10 @@ public class DefaultSearchEngine
 
         try
         {
-            TopScoreDocCollector hits = doSearchWithCeiling( request, indexSearcher, request.getQuery() );
+            TopDocs hits = doSearchWithCeiling( request, indexSearcher, request.getQuery(), true );
 
-            return new IteratorSearchResponse( request.getQuery(), hits.getTotalHits(),
-                                               new DefaultIteratorResultSet( request, indexSearcher, contexts,
-                                                                             hits.topDocs() ) );
+            return new IteratorSearchResponse( request.getQuery(), hits.totalHits,
+                                               new DefaultIteratorResultSet( request, indexSearcher, contexts, hits ) );
         }
         catch ( IOException e )
         {
@@ -311,8 +585,14 @@ public class DefaultSearchEngine
 
     // ==
 
-    protected TopScoreDocCollector doSearchWithCeiling( final AbstractSearchRequest request,
-                                                        final IndexSearcher indexSearcher, final Query query )
+    /**
+     * Executes the query once. If request has count set, only the top hits are collected, otherwise all the hits are
+     * collected (see {@link AllHitsCollector}).
+     * 
+     * @param scoresNeeded whether hits must be scored and ordered by relevance, if request has no count set.
+     */
+    protected TopDocs doSearchWithCeiling( final AbstractSearchRequest request, final IndexSearcher indexSearcher,
+                                           final Query query, final boolean scoresNeeded )
         throws IOException
     {
         int topHitCount = getTopDocsCollectorHitNum( request, AbstractSearchRequest.UNDEFINED );
@@ -324,39 +604,50 @@ public class DefaultSearchEngine
 
             indexSearcher.search( query, hits );
 
-            return hits;
+            return hits.topDocs();
         }
         else
         {
-            // set something reasonable as 1k
-            topHitCount = 1000;
+            // unbounded search: collect all hits in one pass, memory is linear to hit count
+            final AllHitsCollector hits = new AllHitsCollector( scoresNeeded );
 
-            // perform search
-            TopScoreDocCollector hits = TopScoreDocCollector.create( topHitCount, true );
             indexSearcher.search( query, hits );
 
-            // check total hits against, does it fit?
-            if ( topHitCount < hits.getTotalHits() )
+            if ( getLogger().isDebugEnabled() && hits.getTotalHits() > 1000 )
             {
-                topHitCount = hits.getTotalHits();
+                getLogger().debug(
+                    "Executed unbounded search yielding " + hits.getTotalHits()
+                        + " hits. To lessen memory use, use narrower queries or limit your expectancy with"
+                        + " request.setCount() method where appropriate. See MINDEXER-14 for details." );
+            }
 
-                if ( getLogger().isDebugEnabled() )
-                {
-                    // warn the user and leave trace just before OOM might happen
-                    // the hits.getTotalHits() might be HUUGE
-                    getLogger().debug(
-                        "Executing unbounded search, and fitting topHitCounts to "
-                            + topHitCount
-                            + ", an OOMEx might follow. To avoid OOM use narrower queries or limit your expectancy with request.setCount() method where appropriate. See MINDEXER-14 for details." );
-                }
+            return hits.topDocs();
+        }
+    }
 
-                // redo all, but this time with correct numbers
-                hits = TopScoreDocCollector.create( topHitCount, true );
-                indexSearcher.search( query, hits );
-            }
+    /**
+     * Executes the query, collecting all the hits, sized by a first pass counting them, if request has no count set.
+     * 
+     * @deprecated this class no longer invokes this method, override or use
+     *             {@link #doSearchWithCeiling(AbstractSearchRequest, IndexSearcher, Query, boolean)} instead.
+     */
+    @Deprecated
+    protected TopScoreDocCollector doSearchWithCeiling( final AbstractSearchRequest request,
+                                                        final IndexSearcher indexSearcher, final Query query )
+        throws IOException
+    {
+        int topHitCount = getTopDocsCollectorHitNum( request, AbstractSearchRequest.UNDEFINED );
 
-            return hits;
+        if ( AbstractSearchRequest.UNDEFINED == topHitCount )
+        {
+            topHitCount = Math.max( 1, doSearchWithCeiling( request, indexSearcher, query, false ).totalHits );
         }
+
+        final TopScoreDocCollector hits = TopScoreDocCollector.create( topHitCount, true );
+
+        indexSearcher.search( query, hits );
+
+        return hits;
     }
 
     /**
@@ -20,6 +20,7 @@ package org.apache.maven.index;
  */
 
 import java.io.File;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.maven.index.context.IndexingContext;
 import org.codehaus.plexus.util.StringUtils;
@@ -37,6 +38,10 @@ public class ScanningRequest
 
     private final String startingPath;
 
+    private int threads = 1;
+
+    private ForkJoinPool pool;
+
     public ScanningRequest( final IndexingContext context, final ArtifactScanningListener artifactScanningListener )
     {
         this( context, artifactScanningListener, null );
@@ -65,6 +70,47 @@ public class ScanningRequest
         return startingPath;
     }
 
+    /**
+     * Returns the number of threads used to walk the repository and process artifacts. Values less than 2 mean the
+     * repository is scanned sequentially on the calling thread.
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads used to scan. When more than one thread is used, the
+     * {@link ArtifactScanningListener} must be thread safe, as it will be invoked concurrently (but never concurrently
+     * for files from the same directory).
+     */
+    public void setThreads( int threads )
+    {
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the pool to use for parallel scanning, or {@code null} if scanner should create (and shut down) a pool
+     * sized by {@link #getThreads()}.
+     */
+    public ForkJoinPool getPool()
+    {
+        return pool;
+    }
+
+    /**
+     * Sets an externally managed pool to use for parallel scanning. The scanner will not shut it down.
+     */
+    public void setPool( ForkJoinPool pool )
+    {
+        this.pool = pool;
+    }
+
+    public boolean isParallel()
+    {
+        return pool != null || threads > 1;
+    }
+
     public File getStartingDirectory()
     {
         if ( StringUtils.isBlank( startingPath ) )
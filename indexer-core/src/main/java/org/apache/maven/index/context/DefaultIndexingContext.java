@@ -21,23 +21,33 @@ package org.apache.maven.index.context;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.index.AtomicReaderContext;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocsEnum;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.index.TrackingIndexWriter;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TermQuery;
@@ -46,6 +56,8 @@ import org.apache.lucene.search.TopScoreDocCollector;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
 import org.apache.maven.index.ArtifactInfo;
 import org.apache.maven.index.artifact.GavCalculator;
 import org.apache.maven.index.artifact.M2GavCalculator;
@@ -95,6 +107,17 @@ public class DefaultIndexingContext
 
     private SearcherManager searcherManager;
 
+    private volatile Generations generations = new Generations( null, 0 );
+
+    private volatile ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+    // held for writing while content is swapped, searchers are not refreshed meanwhile
+    private final ReentrantReadWriteLock refreshLock = new ReentrantReadWriteLock();
+
+    private double targetMaxStaleSec;
+
+    private double targetMinStaleSec;
+
     private Date timestamp;
 
     private List<? extends IndexCreator> indexCreators;
@@ -456,6 +479,8 @@ public class DefaultIndexingContext
     protected void openAndWarmup()
         throws IOException
     {
+        // stop refreshing before closing the writer it refreshes from
+        stopReopenThread();
         // IndexWriter (close)
         if ( indexWriter != null )
         {
@@ -472,7 +497,131 @@ public class DefaultIndexingContext
 
         this.indexWriter = new NexusIndexWriter( getIndexDirectory(), getWriterConfig() );
         this.indexWriter.commit(); // LUCENE-2386
+        this.generations = generations.next( new TrackingIndexWriter( indexWriter ) );
         this.searcherManager = new SearcherManager( indexWriter, false, new NexusIndexSearcherFactory( this ) );
+        startReopenThread();
+    }
+
+    /**
+     * Configures background refreshing of searchers. When enabled, searchers are reopened by a background thread and
+     * {@link #acquireIndexSearcher()} merely acquires the current searcher, that may not reflect changes made in the
+     * last {@code targetMaxStaleSec} seconds. Callers needing to see their own changes should use
+     * {@link #getIndexGeneration()} and {@link #waitForGeneration(long)}. When disabled (the default), searchers are
+     * refreshed on every acquire.
+     * 
+     * @param targetMaxStaleSec maximum time a searcher is allowed to be stale when nobody waits for a generation, if
+     *            zero or less, background refresh is disabled.
+     * @param targetMinStaleSec time between reopens when somebody waits for a generation.
+     * @since 5.2
+     */
+    public synchronized void setSearcherRefresh( double targetMaxStaleSec, double targetMinStaleSec )
+    {
+        if ( targetMaxStaleSec > 0 && targetMinStaleSec > targetMaxStaleSec )
+        {
+            throw new IllegalArgumentException( "targetMinStaleSec (" + targetMinStaleSec
+                + ") must be <= targetMaxStaleSec (" + targetMaxStaleSec + ")" );
+        }
+
+        stopReopenThread();
+        this.targetMaxStaleSec = targetMaxStaleSec;
+        this.targetMinStaleSec = targetMinStaleSec;
+        if ( searcherManager != null )
+        {
+            startReopenThread();
+        }
+    }
+
+    /**
+     * Returns a generation covering all the changes made to the index writer so far. Once the generation is reached
+     * (see {@link #waitForGeneration(long)}), acquired searchers reflect those changes. Generations do not decrease
+     * when the writer is reopened (by replace or purge for instance), those returned before are reached already then.
+     * 
+     * @since 5.2
+     */
+    public long getIndexGeneration()
+    {
+        return generations.getAndIncrementGeneration();
+    }
+
+    /**
+     * Waits until searchers reflect the changes covered by given generation (see {@link #getIndexGeneration()}).
+     * Without background refresh, refreshes searcher immediately, once a swap of content in progress is complete.
+     * 
+     * @since 5.2
+     */
+    public void waitForGeneration( long generation )
+        throws IOException
+    {
+        final Generations current = generations;
+
+        if ( current.writer == null || generation <= current.offset )
+        {
+            // context is closed, or the generation belongs to a previous writer, the searchers were reopened since
+            return;
+        }
+
+        final ControlledRealTimeReopenThread<IndexSearcher> thread = reopenThread;
+
+        if ( thread != null )
+        {
+            try
+            {
+                thread.waitForGeneration( generation - current.offset );
+
+                if ( thread == reopenThread )
+                {
+                    return;
+                }
+            }
+            catch ( IllegalArgumentException e )
+            {
+                // the writer was reopened meanwhile, the thread waited on the new one
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new IOException( "Interrupted while waiting for generation " + generation, e );
+            }
+
+            // background refresh was stopped meanwhile, waiting returned without the generation being reached
+        }
+
+        refreshLock.readLock().lock();
+        try
+        {
+            final SearcherManager manager = searcherManager;
+
+            if ( manager != null )
+            {
+                manager.maybeRefreshBlocking();
+            }
+        }
+        finally
+        {
+            refreshLock.readLock().unlock();
+        }
+    }
+
+    private void startReopenThread()
+    {
+        if ( targetMaxStaleSec > 0 )
+        {
+            reopenThread =
+                new ControlledRealTimeReopenThread<IndexSearcher>( generations.writer, searcherManager,
+                    targetMaxStaleSec, targetMinStaleSec );
+            reopenThread.setName( "nexus-indexer-refresh-" + id );
+            reopenThread.setDaemon( true );
+            reopenThread.start();
+        }
+    }
+
+    private void stopReopenThread()
+    {
+        if ( reopenThread != null )
+        {
+            reopenThread.close();
+            reopenThread = null;
+        }
     }
 
     /**
@@ -494,8 +643,19 @@ public class DefaultIndexingContext
     public IndexSearcher acquireIndexSearcher()
         throws IOException
     {
-        // TODO: move this to separate thread to not penalty next incoming searcher
-        searcherManager.maybeRefresh();
+        // while content is swapped, searchers keep seeing the previous content
+        if ( reopenThread == null && !refreshLock.isWriteLockedByCurrentThread() && refreshLock.readLock().tryLock() )
+        {
+            try
+            {
+                // no background refresh, do not penalty next incoming searcher with stale results
+                searcherManager.maybeRefresh();
+            }
+            finally
+            {
+                refreshLock.readLock().unlock();
+            }
+        }
         return searcherManager.acquire();
     }
 
@@ -509,13 +669,13 @@ public class DefaultIndexingContext
         searcherManager.release( is );
     }
 
-    public void commit()
+    public synchronized void commit()
         throws IOException
     {
         getIndexWriter().commit();
     }
 
-    public void rollback()
+    public synchronized void rollback()
         throws IOException
     {
         getIndexWriter().rollback();
@@ -574,7 +734,58 @@ public class DefaultIndexingContext
         storeDescriptor();
         rebuildGroups();
         updateTimestamp( true, ts );
-        optimize();
+    }
+
+    /**
+     * Stages the new content as new segments of this index, written by its own writer, that are swapped in by a single
+     * commit. Searchers are not refreshed until the swap is committed, as they would see the uncommitted content, and
+     * writers synchronizing on this context wait until it is complete.
+     */
+    public synchronized void replace( final DocumentSource source )
+        throws IOException
+    {
+        stopReopenThread();
+        refreshLock.writeLock().lock();
+
+        Date ts = null;
+        boolean success = false;
+        try
+        {
+            final IndexWriter w = getIndexWriter();
+
+            w.deleteAll();
+
+            ts = source.addDocuments( w );
+
+            // reclaim the index as mine, committing swaps the staged content in
+            storeDescriptor();
+
+            success = true;
+        }
+        finally
+        {
+            try
+            {
+                if ( !success )
+                {
+                    // back to last commit
+                    getIndexWriter().rollback();
+                    openAndWarmup();
+                }
+            }
+            finally
+            {
+                refreshLock.writeLock().unlock();
+
+                if ( success )
+                {
+                    startReopenThread();
+                }
+            }
+        }
+
+        rebuildGroups();
+        updateTimestamp( true, ts );
     }
 
     public synchronized void merge( Directory directory )
@@ -586,39 +797,80 @@ public class DefaultIndexingContext
     public synchronized void merge( Directory directory, DocumentFilter filter )
         throws IOException
     {
+        merge( directory, filter, true );
+    }
+
+    public synchronized MergeResult merge( Directory directory, DocumentFilter filter, boolean optimize )
+        throws IOException
+    {
+        final long started = System.currentTimeMillis();
+        final MergeResult result = new MergeResult();
+
         final IndexSearcher s = acquireIndexSearcher();
         try
         {
-            final IndexWriter w = getIndexWriter();
-            final IndexReader directoryReader = IndexReader.open( directory);
-            TopScoreDocCollector collector = null;
+            final DirectoryReader directoryReader = DirectoryReader.open( directory );
+            final DocumentBatch batch = new DocumentBatch( getIndexWriter() );
+            final Set<String> addedGroups = new LinkedHashSet<String>();
+            final Set<String> deletedGroups = new LinkedHashSet<String>();
+            // UINFOs deleted so far, and repeated UINFOs added so far by this merge
+            final Set<String> deletedUinfos = new HashSet<String>();
+            final Set<String> addedUinfos = new HashSet<String>();
             try
             {
-                int numDocs = directoryReader.maxDoc();
-                
-                Bits liveDocs = MultiFields.getLiveDocs(directoryReader);
+                // incoming artifact documents already present in this context, and those sharing their UINFO with
+                // other incoming documents (several incremental chunks merged at once)
+                final FixedBitSet repeated = new FixedBitSet( directoryReader.maxDoc() );
+                final Bits existing = findExisting( directoryReader, s.getIndexReader(), repeated );
+
+                final int numDocs = directoryReader.maxDoc();
+                final Bits liveDocs = MultiFields.getLiveDocs( directoryReader );
                 for ( int i = 0; i < numDocs; i++ )
                 {
-                    if (liveDocs != null && ! liveDocs.get(i) )
+                    if ( liveDocs != null && !liveDocs.get( i ) )
+                    {
+                        continue;
+                    }
+
+                    result.setDocumentsRead( result.getDocumentsRead() + 1 );
+
+                    Document d = null;
+                    boolean present = existing.get( i );
+
+                    if ( repeated.get( i ) || ( present && !deletedUinfos.isEmpty() ) )
+                    {
+                        // depends on incoming documents merged before, as if they were merged one by one
+                        d = directoryReader.document( i );
+                        final String uinfo = d.get( ArtifactInfo.UINFO );
+                        present = addedUinfos.contains( uinfo ) || ( present && !deletedUinfos.contains( uinfo ) );
+                    }
+
+                    if ( present )
                     {
+                        result.setDocumentsExisting( result.getDocumentsExisting() + 1 );
                         continue;
                     }
 
-                    Document d = directoryReader.document( i );
+                    if ( d == null )
+                    {
+                        d = directoryReader.document( i );
+                    }
                     if ( filter != null && !filter.accept( d ) )
                     {
+                        result.setDocumentsFiltered( result.getDocumentsFiltered() + 1 );
                         continue;
                     }
 
                     String uinfo = d.get( ArtifactInfo.UINFO );
                     if ( uinfo != null )
                     {
-                        collector = TopScoreDocCollector.create( 1, false );
-                        s.search( new TermQuery( new Term( ArtifactInfo.UINFO, uinfo ) ), collector );
-                        if ( collector.getTotalHits() == 0 )
+                        batch.add( IndexUtils.updateDocument( d, this, false ) );
+                        if ( repeated.get( i ) )
                         {
-                            w.addDocument( IndexUtils.updateDocument( d, this, false ) );
+                            addedUinfos.add( uinfo );
                         }
+                        addedGroups.add( groupIdOf( uinfo ) );
+                        result.setDocumentsAdded( result.getDocumentsAdded() + 1 );
                     }
                     else
                     {
@@ -629,12 +881,17 @@ public class DefaultIndexingContext
                             // Deleting the document loses history that it was delete,
                             // so incrementals wont work. Therefore, put the delete
                             // document in as well
-                            w.deleteDocuments( new Term( ArtifactInfo.UINFO, deleted ) );
-                            w.addDocument( d );
+                            batch.delete( new Term( ArtifactInfo.UINFO, deleted ),
+                                IndexUtils.updateDocument( d, this, false ) );
+                            deletedUinfos.add( deleted );
+                            addedUinfos.remove( deleted );
+                            deletedGroups.add( groupIdOf( deleted ) );
+                            result.setDocumentsDeleted( result.getDocumentsDeleted() + 1 );
                         }
                     }
                 }
 
+                batch.flush();
             }
             finally
             {
@@ -642,7 +899,7 @@ public class DefaultIndexingContext
                 commit();
             }
 
-            rebuildGroups();
+            updateGroups( addedGroups, deletedGroups );
             Date mergedTimestamp = IndexUtils.getTimestamp( directory );
 
             if ( getTimestamp() != null && mergedTimestamp != null && mergedTimestamp.after( getTimestamp() ) )
@@ -654,17 +911,197 @@ public class DefaultIndexingContext
             {
                 updateTimestamp( true );
             }
-            optimize();
+
+            if ( optimize )
+            {
+                optimize();
+            }
         }
         finally
         {
             releaseIndexSearcher( s );
         }
+
+        result.setElapsedMillis( System.currentTimeMillis() - started );
+
+        return result;
+    }
+
+    /**
+     * Returns the documents of incoming reader having an UINFO that is present in this context. Incoming UINFOs are
+     * enumerated in sorted order from the incoming terms dictionary, and are looked up using one forward-seeking
+     * {@link TermsEnum} per segment of this context. Incoming documents whose UINFO is shared by several incoming
+     * documents are marked in the given repeated set.
+     */
+    private Bits findExisting( final IndexReader incoming, final IndexReader current, final FixedBitSet repeated )
+        throws IOException
+    {
+        final FixedBitSet result = new FixedBitSet( incoming.maxDoc() );
+
+        final Terms incomingTerms = MultiFields.getTerms( incoming, ArtifactInfo.UINFO );
+        if ( incomingTerms == null )
+        {
+            return result;
+        }
+
+        final List<AtomicReaderContext> leaves = current.leaves();
+        final TermsEnum[] currentTermsEnums = new TermsEnum[leaves.size()];
+        for ( int i = 0; i < leaves.size(); i++ )
+        {
+            final Terms terms = leaves.get( i ).reader().terms( ArtifactInfo.UINFO );
+            currentTermsEnums[i] = terms == null ? null : terms.iterator( null );
+        }
+
+        final Bits incomingLiveDocs = MultiFields.getLiveDocs( incoming );
+        final TermsEnum incomingTermsEnum = incomingTerms.iterator( null );
+        DocsEnum incomingDocsEnum = null;
+        DocsEnum docsEnum = null;
+        BytesRef term;
+
+        while ( ( term = incomingTermsEnum.next() ) != null )
+        {
+            boolean found = false;
+
+            for ( int i = 0; i < leaves.size() && !found; i++ )
+            {
+                if ( currentTermsEnums[i] != null && currentTermsEnums[i].seekExact( term ) )
+                {
+                    docsEnum =
+                        currentTermsEnums[i].docs( leaves.get( i ).reader().getLiveDocs(), docsEnum,
+                            DocsEnum.FLAG_NONE );
+                    found = docsEnum.nextDoc() != DocIdSetIterator.NO_MORE_DOCS;
+                }
+            }
+
+            // doc freq counts deleted documents too, which is harmless here
+            final boolean shared = incomingTermsEnum.docFreq() > 1;
+
+            if ( found || shared )
+            {
+                incomingDocsEnum = incomingTermsEnum.docs( incomingLiveDocs, incomingDocsEnum, DocsEnum.FLAG_NONE );
+                int doc;
+                while ( ( doc = incomingDocsEnum.nextDoc() ) != DocIdSetIterator.NO_MORE_DOCS )
+                {
+                    if ( found )
+                    {
+                        result.set( doc );
+                    }
+                    if ( shared )
+                    {
+                        repeated.set( doc );
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Tracking writer of the index, with the generations reached by previous writers as offset, so generations do not
+     * decrease when the writer is reopened.
+     */
+    private static class Generations
+    {
+        private final TrackingIndexWriter writer;
+
+        private final long offset;
+
+        Generations( final TrackingIndexWriter writer, final long offset )
+        {
+            this.writer = writer;
+            this.offset = offset;
+        }
+
+        long getAndIncrementGeneration()
+        {
+            return writer != null ? offset + writer.getAndIncrementGeneration() : offset;
+        }
+
+        Generations next( final TrackingIndexWriter nextWriter )
+        {
+            return new Generations( nextWriter, writer != null ? offset + writer.getGeneration() : offset );
+        }
+    }
+
+    /**
+     * Batches additions and deletions issued to index writer, while keeping their relative order (deletion by term
+     * affects only the documents added before it).
+     */
+    private static class DocumentBatch
+    {
+        private static final int BATCH_SIZE = 1000;
+
+        private final IndexWriter w;
+
+        private final List<Document> additions = new ArrayList<Document>();
+
+        private final List<Term> deletions = new ArrayList<Term>();
+
+        private final List<Document> deletionMarkers = new ArrayList<Document>();
+
+        DocumentBatch( final IndexWriter w )
+        {
+            this.w = w;
+        }
+
+        void add( final Document doc )
+            throws IOException
+        {
+            flushDeletions();
+            additions.add( doc );
+            if ( additions.size() >= BATCH_SIZE )
+            {
+                flushAdditions();
+            }
+        }
+
+        void delete( final Term term, final Document marker )
+            throws IOException
+        {
+            flushAdditions();
+            deletions.add( term );
+            deletionMarkers.add( marker );
+            if ( deletions.size() >= BATCH_SIZE )
+            {
+                flushDeletions();
+            }
+        }
+
+        void flush()
+            throws IOException
+        {
+            flushAdditions();
+            flushDeletions();
+        }
+
+        private void flushAdditions()
+            throws IOException
+        {
+            if ( !additions.isEmpty() )
+            {
+                w.addDocuments( additions );
+                additions.clear();
+            }
+        }
+
+        private void flushDeletions()
+            throws IOException
+        {
+            if ( !deletions.isEmpty() )
+            {
+                w.deleteDocuments( deletions.toArray( new Term[deletions.size()] ) );
+                w.addDocuments( deletionMarkers );
+                deletions.clear();
+                deletionMarkers.clear();
+            }
+        }
     }
 
     private void closeReaders()
         throws CorruptIndexException, IOException
     {
+        stopReopenThread();
         if ( searcherManager != null )
         {
             searcherManager.close();
@@ -675,6 +1112,7 @@ public class DefaultIndexingContext
             indexWriter.close();
             indexWriter = null;
         }
+        generations = generations.next( null );
     }
 
     public GavCalculator getGavCalculator()
@@ -692,45 +1130,129 @@ public class DefaultIndexingContext
     public synchronized void rebuildGroups()
         throws IOException
     {
-        final IndexSearcher is = acquireIndexSearcher();
+        final IndexSearcher is = acquireFreshIndexSearcher();
         try
         {
             final IndexReader r = is.getIndexReader();
+            final Set<String> allGroups = new LinkedHashSet<String>();
 
-            Set<String> rootGroups = new LinkedHashSet<String>();
-            Set<String> allGroups = new LinkedHashSet<String>();
+            // groups are read from terms dictionary, no need to load stored documents
+            final Terms groupTerms = MultiFields.getTerms( r, ArtifactInfo.GROUP_ID );
+            final Terms terms = groupTerms != null ? groupTerms : MultiFields.getTerms( r, ArtifactInfo.UINFO );
 
-            int numDocs = r.maxDoc();
-            Bits liveDocs = MultiFields.getLiveDocs(r);
-
-            for ( int i = 0; i < numDocs; i++ )
+            if ( terms != null )
             {
-                if (liveDocs != null && !liveDocs.get(i) )
+                final Bits liveDocs = MultiFields.getLiveDocs( r );
+                final TermsEnum termsEnum = terms.iterator( null );
+                DocsEnum docsEnum = null;
+                BytesRef term;
+
+                while ( ( term = termsEnum.next() ) != null )
                 {
-                    continue;
+                    docsEnum = termsEnum.docs( liveDocs, docsEnum, DocsEnum.FLAG_NONE );
+
+                    if ( docsEnum.nextDoc() != DocIdSetIterator.NO_MORE_DOCS )
+                    {
+                        final String value = term.utf8ToString();
+                        allGroups.add( groupTerms != null ? value : groupIdOf( value ) );
+                    }
                 }
+            }
 
-                Document d = r.document( i );
+            storeGroups( allGroups );
+        }
+        finally
+        {
+            releaseIndexSearcher( is );
+        }
+    }
+
+    /**
+     * Updates groups after documents of given groups were added or deleted. Deleted groups are dropped only if no
+     * artifact of them is left in the index. Falls back to {@link #rebuildGroups()} if groups were not maintained yet.
+     */
+    protected void updateGroups( Set<String> addedGroups, Set<String> deletedGroups )
+        throws IOException
+    {
+        final Set<String> allGroups = getAllGroups();
+
+        if ( allGroups.isEmpty() )
+        {
+            rebuildGroups();
+            return;
+        }
+
+        if ( addedGroups.isEmpty() && deletedGroups.isEmpty() )
+        {
+            return;
+        }
 
-                String uinfo = d.get( ArtifactInfo.UINFO );
+        allGroups.addAll( addedGroups );
 
-                if ( uinfo != null )
+        if ( !deletedGroups.isEmpty() )
+        {
+            final IndexSearcher is = acquireFreshIndexSearcher();
+            try
+            {
+                final IndexReader r = is.getIndexReader();
+
+                if ( MultiFields.getTerms( r, ArtifactInfo.GROUP_ID ) == null )
                 {
-                    ArtifactInfo info = IndexUtils.constructArtifactInfo( d, this );
-                    rootGroups.add( info.getRootGroup() );
-                    allGroups.add( info.groupId );
+                    rebuildGroups();
+                    return;
                 }
-            }
 
-            setRootGroups( rootGroups );
-            setAllGroups( allGroups );
+                final Bits liveDocs = MultiFields.getLiveDocs( r );
+
+                for ( String group : deletedGroups )
+                {
+                    final DocsEnum docsEnum =
+                        MultiFields.getTermDocsEnum( r, liveDocs, ArtifactInfo.GROUP_ID, new BytesRef( group ) );
 
-            optimize();
+                    if ( docsEnum == null || docsEnum.nextDoc() == DocIdSetIterator.NO_MORE_DOCS )
+                    {
+                        allGroups.remove( group );
+                    }
+                }
+            }
+            finally
+            {
+                releaseIndexSearcher( is );
+            }
         }
-        finally
+
+        storeGroups( allGroups );
+    }
+
+    private void storeGroups( Set<String> allGroups )
+        throws IOException
+    {
+        final Set<String> rootGroups = new LinkedHashSet<String>();
+
+        for ( String group : allGroups )
         {
-            releaseIndexSearcher( is );
+            int n = group.indexOf( '.' );
+            rootGroups.add( n == -1 ? group : group.substring( 0, n ) );
         }
+
+        setGroups( rootGroups, ArtifactInfo.ROOT_GROUPS, ArtifactInfo.ROOT_GROUPS_VALUE, ArtifactInfo.ROOT_GROUPS_LIST );
+        setGroups( allGroups, ArtifactInfo.ALL_GROUPS, ArtifactInfo.ALL_GROUPS_VALUE, ArtifactInfo.ALL_GROUPS_LIST );
+        commit();
+    }
+
+    /**
+     * Acquires a searcher reflecting all the changes made so far.
+     */
+    private IndexSearcher acquireFreshIndexSearcher()
+        throws IOException
+    {
+        waitForGeneration( getIndexGeneration() );
+        return acquireIndexSearcher();
+    }
+
+    private static String groupIdOf( final String uinfo )
+    {
+        return uinfo.substring( 0, uinfo.indexOf( '|' ) );
     }
 
     public Set<String> getAllGroups()
@@ -0,0 +1,42 @@
+package org.apache.maven.index.context;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.Date;
+
+import org.apache.lucene.index.IndexWriter;
+
+/**
+ * Source of documents replacing the content of the index of a context, see
+ * {@link IndexingContext#replace(DocumentSource)}.
+ * 
+ * @since 5.2
+ */
+public interface DocumentSource
+{
+    /**
+     * Adds the documents to the given writer, without committing it.
+     * 
+     * @return the timestamp of supplied documents, or {@code null} if unknown.
+     */
+    Date addDocuments( IndexWriter writer )
+        throws IOException;
+}
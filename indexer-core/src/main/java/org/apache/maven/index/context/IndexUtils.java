@@ -27,6 +27,7 @@ import java.util.Date;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongField;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.store.Directory;
@@ -140,6 +141,11 @@ public class IndexUtils
         ArtifactInfo ai = constructArtifactInfo( doc, context );
         if ( ai == null )
         {
+            // deletion markers take part in incremental chunks too
+            if ( doc.getField( ArtifactInfo.LAST_MODIFIED_NUMERIC ) == null )
+            {
+                addLastModifiedNumeric( doc );
+            }
             return doc;
         }
 
@@ -150,12 +156,13 @@ public class IndexUtils
 
         if ( updateLastModified || doc.getField( ArtifactInfo.LAST_MODIFIED ) == null )
         {
-            document.add( new Field( ArtifactInfo.LAST_MODIFIED, //
-                Long.toString( System.currentTimeMillis() ), Field.Store.YES, Field.Index.NO ) );
+            addLastModified( document, System.currentTimeMillis() );
         }
         else
         {
             document.add( doc.getField( ArtifactInfo.LAST_MODIFIED ) );
+
+            addLastModifiedNumeric( document );
         }
 
         for ( IndexCreator ic : context.getIndexCreators() )
@@ -166,6 +173,41 @@ public class IndexUtils
         return document;
     }
 
+    /**
+     * Adds the last modified timestamp to the document, stored as {@link ArtifactInfo#LAST_MODIFIED}, and indexed as
+     * {@link ArtifactInfo#LAST_MODIFIED_NUMERIC}, so modified documents can be looked up with a range query.
+     * 
+     * @since 5.2
+     */
+    public static void addLastModified( Document doc, long lastModified )
+    {
+        doc.add( new Field( ArtifactInfo.LAST_MODIFIED, Long.toString( lastModified ), Field.Store.YES,
+            Field.Index.NO ) );
+        doc.add( new LongField( ArtifactInfo.LAST_MODIFIED_NUMERIC, lastModified, Field.Store.NO ) );
+    }
+
+    /**
+     * Indexes the stored last modified timestamp of the document, if any, as
+     * {@link ArtifactInfo#LAST_MODIFIED_NUMERIC}.
+     */
+    private static void addLastModifiedNumeric( Document doc )
+    {
+        final String lastModified = doc.get( ArtifactInfo.LAST_MODIFIED );
+
+        if ( lastModified != null )
+        {
+            try
+            {
+                doc.add( new LongField( ArtifactInfo.LAST_MODIFIED_NUMERIC, Long.parseLong( lastModified ),
+                    Field.Store.NO ) );
+            }
+            catch ( NumberFormatException e )
+            {
+                // not a timestamp, cannot be part of an incremental chunk anyway
+            }
+        }
+    }
+
     public static void deleteTimestamp( Directory directory )
         throws IOException
     {
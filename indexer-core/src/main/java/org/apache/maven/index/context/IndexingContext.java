@@ -259,6 +259,19 @@ public interface IndexingContext
     void merge( Directory directory, DocumentFilter filter )
         throws IOException;
 
+    /**
+     * Merges content of given Lucene directory with this context, but filters out the unwanted ones. Unlike the other
+     * merge methods, the index is force merged into a single segment only if asked for.
+     * 
+     * @param directory - the directory to merge
+     * @param filter - the filter to apply, may be {@code null}
+     * @param optimize - whether to force merge the index into single segment after merge
+     * @return statistics of the merge
+     * @since 5.2
+     */
+    MergeResult merge( Directory directory, DocumentFilter filter, boolean optimize )
+        throws IOException;
+
     /**
      * Replaces the Lucene index with the one from supplied directory.
      * 
@@ -268,6 +281,19 @@ public interface IndexingContext
     void replace( Directory directory )
         throws IOException;
 
+    /**
+     * Replaces the Lucene index with documents added by the supplied source. The documents are staged as new segments
+     * of the index, and swapped in with a single commit once complete. Searchers keep seeing the previous content until
+     * the replacement is committed, and on failure the previous content is kept. Writers synchronizing on the context
+     * wait until the replacement is complete.
+     * 
+     * @param source - the source of the new content
+     * @throws IOException
+     * @since 5.2
+     */
+    void replace( DocumentSource source )
+        throws IOException;
+
     Directory getIndexDirectory();
 
     File getIndexDirectoryFile();
@@ -0,0 +1,128 @@
+package org.apache.maven.index.context;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * A merge result holds statistics of merging a Lucene directory into an indexing context.
+ * 
+ * @since 5.2
+ */
+public class MergeResult
+{
+    private int documentsRead;
+
+    private int documentsAdded;
+
+    private int documentsExisting;
+
+    private int documentsFiltered;
+
+    private int documentsDeleted;
+
+    private long elapsedMillis;
+
+    public int getDocumentsRead()
+    {
+        return documentsRead;
+    }
+
+    public void setDocumentsRead( int documentsRead )
+    {
+        this.documentsRead = documentsRead;
+    }
+
+    /**
+     * Returns the count of artifact documents added to the context.
+     */
+    public int getDocumentsAdded()
+    {
+        return documentsAdded;
+    }
+
+    public void setDocumentsAdded( int documentsAdded )
+    {
+        this.documentsAdded = documentsAdded;
+    }
+
+    /**
+     * Returns the count of artifact documents skipped as the context already contained them.
+     */
+    public int getDocumentsExisting()
+    {
+        return documentsExisting;
+    }
+
+    public void setDocumentsExisting( int documentsExisting )
+    {
+        this.documentsExisting = documentsExisting;
+    }
+
+    /**
+     * Returns the count of documents rejected by the document filter.
+     */
+    public int getDocumentsFiltered()
+    {
+        return documentsFiltered;
+    }
+
+    public void setDocumentsFiltered( int documentsFiltered )
+    {
+        this.documentsFiltered = documentsFiltered;
+    }
+
+    /**
+     * Returns the count of artifact deletion markers applied to the context.
+     */
+    public int getDocumentsDeleted()
+    {
+        return documentsDeleted;
+    }
+
+    public void setDocumentsDeleted( int documentsDeleted )
+    {
+        this.documentsDeleted = documentsDeleted;
+    }
+
+    public long getElapsedMillis()
+    {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis( long elapsedMillis )
+    {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Returns the merge throughput, as documents read per second.
+     */
+    public double getDocumentsPerSecond()
+    {
+        return elapsedMillis > 0 ? documentsRead * 1000d / elapsedMillis : documentsRead;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "read %s documents (%s added, %s existing, %s filtered, %s deleted) in %s ms, %.1f docs/s",
+            documentsRead, documentsAdded, documentsExisting, documentsFiltered, documentsDeleted, elapsedMillis,
+            getDocumentsPerSecond() );
+    }
+}
@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -61,6 +62,20 @@ public class MergedIndexingContext
 
     private boolean searchable;
 
+    // cached composite searcher, holds one reference of it, rebuilt when members or their searchers change
+    private NexusIndexMultiSearcher currentSearcher;
+
+    private List<IndexingContext> currentMembers;
+
+    // group unions, valid as long as the composite searcher they were computed with is current
+    private Set<String> allGroups;
+
+    private IndexSearcher allGroupsSearcher;
+
+    private Set<String> rootGroups;
+
+    private IndexSearcher rootGroupsSearcher;
+
     private MergedIndexingContext( ContextMemberProvider membersProvider, String id, String repositoryId,
                                    File repository, Directory indexDirectory, boolean searchable )
         throws IOException
@@ -187,11 +202,72 @@ public class MergedIndexingContext
         return size;
     }
 
+    /**
+     * Returns the composite searcher over member searchers. The composite is shared and reference counted, and is
+     * rebuilt only when the members, or the current searcher of any member change.
+     */
     public IndexSearcher acquireIndexSearcher()
         throws IOException
     {
-        final NexusIndexMultiReader mr = new NexusIndexMultiReader( getMembers() );
-        return new NexusIndexMultiSearcher( mr );
+        final List<IndexingContext> members = new ArrayList<IndexingContext>( getMembers() );
+        final List<IndexSearcher> memberSearchers = new ArrayList<IndexSearcher>( members.size() );
+        try
+        {
+            for ( IndexingContext member : members )
+            {
+                memberSearchers.add( member.acquireIndexSearcher() );
+            }
+
+            synchronized ( this )
+            {
+                if ( currentSearcher == null || !members.equals( currentMembers )
+                    || !isCurrent( memberSearchers, currentSearcher.getNexusIndexMultiReader() ) )
+                {
+                    final NexusIndexMultiSearcher searcher =
+                        new NexusIndexMultiSearcher( new NexusIndexMultiReader( members ) );
+
+                    if ( currentSearcher != null )
+                    {
+                        currentSearcher.release();
+                    }
+
+                    currentSearcher = searcher;
+                    currentMembers = members;
+                }
+
+                // cache holds a reference, so this always succeeds
+                currentSearcher.tryIncRef();
+
+                return currentSearcher;
+            }
+        }
+        finally
+        {
+            for ( int i = 0; i < memberSearchers.size(); i++ )
+            {
+                members.get( i ).releaseIndexSearcher( memberSearchers.get( i ) );
+            }
+        }
+    }
+
+    private static boolean isCurrent( final List<IndexSearcher> memberSearchers, final NexusIndexMultiReader composite )
+    {
+        final List<IndexSearcher> compositeSearchers = composite.getAcquiredSearchers();
+
+        if ( compositeSearchers == null || compositeSearchers.size() != memberSearchers.size() )
+        {
+            return false;
+        }
+
+        for ( int i = 0; i < memberSearchers.size(); i++ )
+        {
+            if ( memberSearchers.get( i ) != compositeSearchers.get( i ) )
+            {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     public void releaseIndexSearcher( IndexSearcher indexSearcher )
@@ -251,10 +327,22 @@ public class MergedIndexingContext
         // noop
     }
 
-    public void close( boolean deleteFiles )
+    public synchronized void close( boolean deleteFiles )
         throws IOException
     {
-        // noop
+        // members are not ours, only let loose of their searchers
+        if ( currentSearcher != null )
+        {
+            currentSearcher.release();
+
+            currentSearcher = null;
+            currentMembers = null;
+        }
+
+        allGroups = null;
+        allGroupsSearcher = null;
+        rootGroups = null;
+        rootGroupsSearcher = null;
     }
 
     public void purge()
@@ -275,12 +363,25 @@ public class MergedIndexingContext
         // noop
     }
 
+    public MergeResult merge( Directory directory, DocumentFilter filter, boolean optimize )
+        throws IOException
+    {
+        // noop
+        return new MergeResult();
+    }
+
     public void replace( Directory directory )
         throws IOException
     {
         // noop
     }
 
+    public void replace( DocumentSource source )
+        throws IOException
+    {
+        // noop
+    }
+
     public Directory getIndexDirectory()
     {
         return directory;
@@ -305,14 +406,7 @@ public class MergedIndexingContext
     public Set<String> getAllGroups()
         throws IOException
     {
-        HashSet<String> result = new HashSet<String>();
-
-        for ( IndexingContext ctx : getMembers() )
-        {
-            result.addAll( ctx.getAllGroups() );
-        }
-
-        return result;
+        return getGroups( true );
     }
 
     public void setRootGroups( Collection<String> groups )
@@ -324,14 +418,58 @@ public class MergedIndexingContext
     public Set<String> getRootGroups()
         throws IOException
     {
-        HashSet<String> result = new HashSet<String>();
+        return getGroups( false );
+    }
 
-        for ( IndexingContext ctx : getMembers() )
+    /**
+     * Returns the union of all or root groups of members, cached until the composite searcher changes, as members
+     * maintain their groups in their indexes.
+     */
+    protected Set<String> getGroups( final boolean all )
+        throws IOException
+    {
+        final IndexSearcher searcher = acquireIndexSearcher();
+        try
         {
-            result.addAll( ctx.getRootGroups() );
-        }
+            synchronized ( this )
+            {
+                if ( searcher == ( all ? allGroupsSearcher : rootGroupsSearcher ) )
+                {
+                    return all ? allGroups : rootGroups;
+                }
+
+                final boolean current = searcher == currentSearcher;
+
+                final HashSet<String> result = new HashSet<String>();
 
-        return result;
+                for ( IndexingContext ctx : current ? currentMembers : getMembers() )
+                {
+                    result.addAll( all ? ctx.getAllGroups() : ctx.getRootGroups() );
+                }
+
+                final Set<String> groups = Collections.unmodifiableSet( result );
+
+                if ( current )
+                {
+                    if ( all )
+                    {
+                        allGroups = groups;
+                        allGroupsSearcher = searcher;
+                    }
+                    else
+                    {
+                        rootGroups = groups;
+                        rootGroupsSearcher = searcher;
+                    }
+                }
+
+                return groups;
+            }
+        }
+        finally
+        {
+            releaseIndexSearcher( searcher );
+        }
     }
 
     public void rebuildGroups()
@@ -20,12 +20,15 @@ package org.apache.maven.index.context;
  */
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class NexusIndexMultiSearcher
     extends NexusIndexSearcher
 {
     private final NexusIndexMultiReader nexusIndexMultiReader;
 
+    private final AtomicInteger refCount = new AtomicInteger( 1 );
+
     public NexusIndexMultiSearcher( final NexusIndexMultiReader reader )
         throws IOException
     {
@@ -33,10 +36,41 @@ public class NexusIndexMultiSearcher
         this.nexusIndexMultiReader = reader;
     }
 
+    /**
+     * Increments the reference count of this searcher, unless it is released already. Every successful invocation
+     * must be paired with a {@link #release()}.
+     * 
+     * @return {@code true} if reference count was incremented, {@code false} if searcher is released already.
+     * @since 5.2
+     */
+    public boolean tryIncRef()
+    {
+        while ( true )
+        {
+            final int count = refCount.get();
+
+            if ( count <= 0 )
+            {
+                return false;
+            }
+
+            if ( refCount.compareAndSet( count, count + 1 ) )
+            {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Decrements the reference count of this searcher, and releases the underlying reader once it drops to zero.
+     */
     public void release()
         throws IOException
     {
-        nexusIndexMultiReader.release();
+        if ( refCount.decrementAndGet() == 0 )
+        {
+            nexusIndexMultiReader.release();
+        }
     }
 
     public NexusIndexMultiReader getNexusIndexMultiReader()
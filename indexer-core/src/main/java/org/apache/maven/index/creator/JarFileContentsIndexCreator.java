@@ -34,7 +34,6 @@ import org.apache.maven.index.IndexerField;
 import org.apache.maven.index.IndexerFieldVersion;
 import org.apache.maven.index.MAVEN;
 import org.apache.maven.index.context.IndexCreator;
-import org.apache.maven.index.util.zip.ZipFacade;
 import org.apache.maven.index.util.zip.ZipHandle;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.util.StringUtils;
@@ -76,7 +75,7 @@ public class JarFileContentsIndexCreator
         if ( artifactFile != null && artifactFile.isFile()
             && ( artifactFile.getName().endsWith( ".jar" ) || artifactFile.getName().endsWith( ".war" ) ) )
         {
-            updateArtifactInfo( ai, artifactFile );
+            updateArtifactInfo( ai, artifactContext );
         }
     }
 
@@ -141,83 +140,67 @@ public class JarFileContentsIndexCreator
         return false;
     }
 
-    private void updateArtifactInfo( final ArtifactInfo ai, final File f )
+    private void updateArtifactInfo( final ArtifactInfo ai, final ArtifactContext ac )
         throws IOException
     {
+        final File f = ac.getArtifact();
+
         if ( f.getName().endsWith( ".jar" ) )
         {
-            updateArtifactInfo( ai, f, null );
+            updateArtifactInfo( ai, ac.getArtifactZipHandle(), null );
         }
         else if ( f.getName().endsWith( ".war" ) )
         {
-            updateArtifactInfo( ai, f, "WEB-INF/classes/" );
+            updateArtifactInfo( ai, ac.getArtifactZipHandle(), "WEB-INF/classes/" );
         }
     }
 
-    private void updateArtifactInfo( final ArtifactInfo ai, final File f, final String strippedPrefix )
+    private void updateArtifactInfo( final ArtifactInfo ai, final ZipHandle handle, final String strippedPrefix )
         throws IOException
     {
-        ZipHandle handle = null;
+        final List<String> entries = handle.getEntries();
 
-        try
-        {
-            handle = ZipFacade.getZipHandle( f );
+        final StringBuilder sb = new StringBuilder();
 
-            final List<String> entries = handle.getEntries();
+        for ( String name : entries )
+        {
+            if ( name.endsWith( ".class" ) )
+            {
+                // TODO verify if class is public or protected
+                // TODO skip all inner classes for now
 
-            final StringBuilder sb = new StringBuilder();
+                int i = name.indexOf( "$" );
 
-            for ( String name : entries )
-            {
-                if ( name.endsWith( ".class" ) )
+                if ( i == -1 )
                 {
-                    // TODO verify if class is public or protected
-                    // TODO skip all inner classes for now
-
-                    int i = name.indexOf( "$" );
+                    if ( name.charAt( 0 ) != '/' )
+                    {
+                        sb.append( '/' );
+                    }
 
-                    if ( i == -1 )
+                    if ( StringUtils.isBlank( strippedPrefix ) )
                     {
-                        if ( name.charAt( 0 ) != '/' )
-                        {
-                            sb.append( '/' );
-                        }
-
-                        if ( StringUtils.isBlank( strippedPrefix ) )
-                        {
-                            // class name without ".class"
-                            sb.append( name.substring( 0, name.length() - 6 ) ).append( '\n' );
-                        }
-                        else if ( name.startsWith( strippedPrefix ) && (name.length() > ( strippedPrefix.length() + 6 )) )
-                        {
-                            // class name without ".class" and stripped prefix
-                            sb.append( name.substring( strippedPrefix.length(), name.length() - 6 ) ).append( '\n' );
-                        }
+                        // class name without ".class"
+                        sb.append( name.substring( 0, name.length() - 6 ) ).append( '\n' );
+                    }
+                    else if ( name.startsWith( strippedPrefix ) && (name.length() > ( strippedPrefix.length() + 6 )) )
+                    {
+                        // class name without ".class" and stripped prefix
+                        sb.append( name.substring( strippedPrefix.length(), name.length() - 6 ) ).append( '\n' );
                     }
                 }
             }
+        }
 
-            final String fieldValue = sb.toString().trim();
+        final String fieldValue = sb.toString().trim();
 
-            if ( fieldValue.length() != 0 )
-            {
-                ai.classNames = fieldValue;
-            }
-            else
-            {
-                ai.classNames = null;
-            }
+        if ( fieldValue.length() != 0 )
+        {
+            ai.classNames = fieldValue;
         }
-        finally
+        else
         {
-            try
-            {
-                ZipFacade.close( handle );
-            }
-            catch ( Exception e )
-            {
-                getLogger().error( "Could not close jar file properly.", e );
-            }
+            ai.classNames = null;
         }
     }
 
@@ -20,7 +20,6 @@ package org.apache.maven.index.creator;
  */
 
 import java.io.File;
-import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -30,7 +29,6 @@ import org.apache.maven.index.ArtifactContext;
 import org.apache.maven.index.ArtifactInfo;
 import org.apache.maven.index.IndexerField;
 import org.apache.maven.index.context.IndexCreator;
-import org.apache.maven.index.util.zip.ZipFacade;
 import org.apache.maven.index.util.zip.ZipHandle;
 import org.codehaus.plexus.component.annotations.Component;
 
@@ -72,7 +70,7 @@ public class MavenArchetypeArtifactInfoIndexCreator
 
             // check for maven archetype, since Archetypes seems to not have consistent packaging,
             // and depending on the contents of the JAR, this call will override the packaging to "maven-archetype"!
-            checkMavenArchetype( ai, artifact );
+            checkMavenArchetype( ai, ac );
         }
     }
 
@@ -82,13 +80,13 @@ public class MavenArchetypeArtifactInfoIndexCreator
      * @param ai
      * @param artifact
      */
-    private void checkMavenArchetype( ArtifactInfo ai, File artifact )
+    private void checkMavenArchetype( ArtifactInfo ai, ArtifactContext ac )
     {
-        ZipHandle handle = null;
+        final File artifact = ac.getArtifact();
 
         try
         {
-            handle = ZipFacade.getZipHandle( artifact );
+            final ZipHandle handle = ac.getArtifactZipHandle();
 
             for ( String path : ARCHETYPE_XML_LOCATIONS )
             {
@@ -113,16 +111,6 @@ public class MavenArchetypeArtifactInfoIndexCreator
                     "Failed to parse Maven artifact " + artifact.getAbsolutePath() + " due to " + e.getMessage() );
             }
         }
-        finally
-        {
-            try
-            {
-                ZipFacade.close( handle );
-            }
-            catch ( IOException ex )
-            {
-            }
-        }
     }
 
     public void updateDocument( ArtifactInfo ai, Document doc )
@@ -21,7 +21,6 @@ package org.apache.maven.index.creator;
 
 import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
@@ -37,7 +36,6 @@ import org.apache.maven.index.IndexerField;
 import org.apache.maven.index.IndexerFieldVersion;
 import org.apache.maven.index.MAVEN;
 import org.apache.maven.index.context.IndexCreator;
-import org.apache.maven.index.util.zip.ZipFacade;
 import org.apache.maven.index.util.zip.ZipHandle;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.configuration.PlexusConfiguration;
@@ -82,17 +80,17 @@ public class MavenPluginArtifactInfoIndexCreator
             // TODO: recheck, is the following true? "Maven plugins and Maven Archetypes can be only JARs?"
 
             // 1st, check for maven plugin
-            checkMavenPlugin( ai, artifact );
+            checkMavenPlugin( ai, ac );
         }
     }
 
-    private void checkMavenPlugin( ArtifactInfo ai, File artifact )
+    private void checkMavenPlugin( ArtifactInfo ai, ArtifactContext ac )
     {
-        ZipHandle handle = null;
+        final File artifact = ac.getArtifact();
 
         try
         {
-            handle = ZipFacade.getZipHandle( artifact );
+            final ZipHandle handle = ac.getArtifactZipHandle();
 
             final String pluginDescriptorPath = "META-INF/maven/plugin.xml";
 
@@ -136,16 +134,6 @@ public class MavenPluginArtifactInfoIndexCreator
                     "Failed to parse Maven artifact " + artifact.getAbsolutePath() + " due to " + e.getMessage() );
             }
         }
-        finally
-        {
-            try
-            {
-                ZipFacade.close( handle );
-            }
-            catch ( IOException e )
-            {
-            }
-        }
     }
 
     public void updateDocument( ArtifactInfo ai, Document doc )
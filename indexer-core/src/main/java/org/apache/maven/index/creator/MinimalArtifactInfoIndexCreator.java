@@ -37,6 +37,7 @@ import org.apache.maven.index.MAVEN;
 import org.apache.maven.index.NEXUS;
 import org.apache.maven.index.artifact.Gav;
 import org.apache.maven.index.context.IndexCreator;
+import org.apache.maven.index.fs.DirectoryListing;
 import org.apache.maven.index.locator.JavadocLocator;
 import org.apache.maven.index.locator.Locator;
 import org.apache.maven.index.locator.Sha1Locator;
@@ -125,9 +126,12 @@ public class MinimalArtifactInfoIndexCreator
 
         ArtifactInfo ai = ac.getArtifactInfo();
 
+        // prefetched by scanner, if any, to spare stat calls
+        DirectoryListing listing = ac.getDirectoryListing();
+
         if ( pom != null )
         {
-            ai.lastModified = pom.lastModified();
+            ai.lastModified = lastModified( listing, pom );
 
             ai.fextension = "pom";
         }
@@ -144,7 +148,7 @@ public class MinimalArtifactInfoIndexCreator
             else
             {
                 File sources = sl.locate( pom );
-                if ( !sources.exists() )
+                if ( !exists( listing, sources ) )
                 {
                     ai.sourcesExists = ArtifactAvailablility.NOT_PRESENT;
                 }
@@ -154,7 +158,7 @@ public class MinimalArtifactInfoIndexCreator
                 }
 
                 File javadoc = jl.locate( pom );
-                if ( !javadoc.exists() )
+                if ( !exists( listing, javadoc ) )
                 {
                     ai.javadocExists = ArtifactAvailablility.NOT_PRESENT;
                 }
@@ -201,11 +205,12 @@ public class MinimalArtifactInfoIndexCreator
         {
             File signature = sigl.locate( artifact );
 
-            ai.signatureExists = signature.exists() ? ArtifactAvailablility.PRESENT : ArtifactAvailablility.NOT_PRESENT;
+            ai.signatureExists =
+                exists( listing, signature ) ? ArtifactAvailablility.PRESENT : ArtifactAvailablility.NOT_PRESENT;
 
             File sha1 = sha1l.locate( artifact );
 
-            if ( sha1.exists() )
+            if ( exists( listing, sha1 ) )
             {
                 try
                 {
@@ -217,9 +222,9 @@ public class MinimalArtifactInfoIndexCreator
                 }
             }
 
-            ai.lastModified = artifact.lastModified();
+            ai.lastModified = lastModified( listing, artifact );
 
-            ai.size = artifact.length();
+            ai.size = length( listing, artifact );
 
             ai.fextension = getExtension( artifact, ac.getGav() );
 
@@ -230,6 +235,21 @@ public class MinimalArtifactInfoIndexCreator
         }
     }
 
+    private boolean exists( DirectoryListing listing, File file )
+    {
+        return listing != null ? listing.exists( file ) : file.exists();
+    }
+
+    private long lastModified( DirectoryListing listing, File file )
+    {
+        return listing != null ? listing.lastModified( file ) : file.lastModified();
+    }
+
+    private long length( DirectoryListing listing, File file )
+    {
+        return listing != null ? listing.length( file ) : file.length();
+    }
+
     private String getExtension( File artifact, Gav gav )
     {
         if ( gav != null && StringUtils.isNotBlank( gav.getExtension() ) )
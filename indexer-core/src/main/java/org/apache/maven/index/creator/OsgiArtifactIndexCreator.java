@@ -27,7 +27,6 @@ import org.apache.maven.index.IndexerField;
 import org.apache.maven.index.IndexerFieldVersion;
 import org.apache.maven.index.OSGI;
 import org.apache.maven.index.context.IndexCreator;
-import org.apache.maven.index.util.zip.ZipFacade;
 import org.apache.maven.index.util.zip.ZipHandle;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.util.StringUtils;
@@ -154,7 +153,7 @@ public class OsgiArtifactIndexCreator
 
         if ( artifactFile != null && artifactFile.isFile() && artifactFile.getName().endsWith( ".jar" ) )
         {
-            updateArtifactInfo( ai, artifactFile );
+            updateArtifactInfo( ai, artifactContext.getArtifactZipHandle() );
         }
     }
 
@@ -320,155 +319,137 @@ public class OsgiArtifactIndexCreator
         return updated;
     }
 
-    private boolean updateArtifactInfo( ArtifactInfo ai, File f )
+    private boolean updateArtifactInfo( ArtifactInfo ai, ZipHandle handle )
         throws IOException
     {
-        ZipHandle handle = null;
-
         boolean updated = false;
 
-        try
+        final List<String> entries = handle.getEntries();
+
+        for ( String name : entries )
         {
-            handle = ZipFacade.getZipHandle( f );
+            if ( name.equals( "META-INF/MANIFEST.MF" ) )
+            {
+                Manifest manifest = new Manifest( handle.getEntryContent( name ) );
 
-            final List<String> entries = handle.getEntries();
+                Attributes mainAttributes = manifest.getMainAttributes();
 
-            for ( String name : entries )
-            {
-                if ( name.equals( "META-INF/MANIFEST.MF" ) )
+                if ( mainAttributes != null )
                 {
-                    Manifest manifest = new Manifest( handle.getEntryContent( name ) );
+                    String attValue = mainAttributes.getValue( BSN );
+                    if ( StringUtils.isNotBlank( attValue ) )
+                    {
+                        ai.bundleSymbolicName = attValue;
+                        updated = true;
+                    }
+                    else
+                    {
+                        ai.bundleSymbolicName = null;
+                    }
 
-                    Attributes mainAttributes = manifest.getMainAttributes();
+                    attValue = mainAttributes.getValue( BV );
+                    if ( StringUtils.isNotBlank( attValue ) )
+                    {
+                        ai.bundleVersion = attValue;
+                        updated = true;
+                    }
+                    else
+                    {
+                        ai.bundleVersion = null;
+                    }
 
-                    if ( mainAttributes != null )
+                    attValue = mainAttributes.getValue( BEP );
+                    if ( StringUtils.isNotBlank( attValue ) )
                     {
-                        String attValue = mainAttributes.getValue( BSN );
-                        if ( StringUtils.isNotBlank( attValue ) )
-                        {
-                            ai.bundleSymbolicName = attValue;
-                            updated = true;
-                        }
-                        else
-                        {
-                            ai.bundleSymbolicName = null;
-                        }
-
-                        attValue = mainAttributes.getValue( BV );
-                        if ( StringUtils.isNotBlank( attValue ) )
-                        {
-                            ai.bundleVersion = attValue;
-                            updated = true;
-                        }
-                        else
-                        {
-                            ai.bundleVersion = null;
-                        }
-
-                        attValue = mainAttributes.getValue( BEP );
-                        if ( StringUtils.isNotBlank( attValue ) )
-                        {
-                            ai.bundleExportPackage = attValue;
-                            updated = true;
-                        }
-                        else
-                        {
-                            ai.bundleExportPackage = null;
-                        }
-
-                        attValue = mainAttributes.getValue( BES );
-                        if ( StringUtils.isNotBlank( attValue ) )
-                        {
-                            ai.bundleExportService = attValue;
-                            updated = true;
-                        }
-                        else
-                        {
-                            ai.bundleExportService = null;
-                        }
-
-                        attValue = mainAttributes.getValue( BD );
-                        if ( StringUtils.isNotBlank( attValue ) )
-                        {
-                            ai.bundleDescription = attValue;
-                            updated = true;
-                        }
-                        else
-                        {
-                            ai.bundleDescription = null;
-                        }
-
-                        attValue = mainAttributes.getValue( BN );
-                        if ( StringUtils.isNotBlank( attValue ) )
-                        {
-                            ai.bundleName = attValue;
-                            updated = true;
-                        }
-                        else
-                        {
-                            ai.bundleName = null;
-                        }
-
-                        attValue = mainAttributes.getValue( BL );
-                        if ( StringUtils.isNotBlank( attValue ) )
-                        {
-                            ai.bundleLicense = attValue;
-                            updated = true;
-                        }
-                        else
-                        {
-                            ai.bundleLicense = null;
-                        }
-
-                        attValue = mainAttributes.getValue( BDU );
-                        if ( StringUtils.isNotBlank( attValue ) )
-                        {
-                            ai.bundleDocUrl = attValue;
-                            updated = true;
-                        }
-                        else
-                        {
-                            ai.bundleDocUrl = null;
-                        }
-
-                        attValue = mainAttributes.getValue( BIP );
-                        if ( StringUtils.isNotBlank( attValue ) )
-                        {
-                            ai.bundleImportPackage = attValue;
-                            updated = true;
-                        }
-                        else
-                        {
-                            ai.bundleImportPackage = null;
-                        }
-
-                        attValue = mainAttributes.getValue( BRB );
-                        if ( StringUtils.isNotBlank( attValue ) )
-                        {
-                            ai.bundleRequireBundle = attValue;
-                            updated = true;
-                        }
-                        else
-                        {
-                            ai.bundleRequireBundle = null;
-                        }
+                        ai.bundleExportPackage = attValue;
+                        updated = true;
+                    }
+                    else
+                    {
+                        ai.bundleExportPackage = null;
+                    }
 
+                    attValue = mainAttributes.getValue( BES );
+                    if ( StringUtils.isNotBlank( attValue ) )
+                    {
+                        ai.bundleExportService = attValue;
+                        updated = true;
+                    }
+                    else
+                    {
+                        ai.bundleExportService = null;
                     }
-                }
-            }
 
-        }
-        finally
-        {
-            try
-            {
-                ZipFacade.close( handle );
-            }
-            catch ( Exception e )
-            {
-                getLogger().error( "Could not close jar file properly.", e );
+                    attValue = mainAttributes.getValue( BD );
+                    if ( StringUtils.isNotBlank( attValue ) )
+                    {
+                        ai.bundleDescription = attValue;
+                        updated = true;
+                    }
+                    else
+                    {
+                        ai.bundleDescription = null;
+                    }
+
+                    attValue = mainAttributes.getValue( BN );
+                    if ( StringUtils.isNotBlank( attValue ) )
+                    {
+                        ai.bundleName = attValue;
+                        updated = true;
+                    }
+                    else
+                    {
+                        ai.bundleName = null;
+                    }
+
+                    attValue = mainAttributes.getValue( BL );
+                    if ( StringUtils.isNotBlank( attValue ) )
+                    {
+                        ai.bundleLicense = attValue;
+                        updated = true;
+                    }
+                    else
+                    {
+                        ai.bundleLicense = null;
+                    }
+
+                    attValue = mainAttributes.getValue( BDU );
+                    if ( StringUtils.isNotBlank( attValue ) )
+                    {
+                        ai.bundleDocUrl = attValue;
+                        updated = true;
+                    }
+                    else
+                    {
+                        ai.bundleDocUrl = null;
+                    }
+
+                    attValue = mainAttributes.getValue( BIP );
+                    if ( StringUtils.isNotBlank( attValue ) )
+                    {
+                        ai.bundleImportPackage = attValue;
+                        updated = true;
+                    }
+                    else
+                    {
+                        ai.bundleImportPackage = null;
+                    }
+
+                    attValue = mainAttributes.getValue( BRB );
+                    if ( StringUtils.isNotBlank( attValue ) )
+                    {
+                        ai.bundleRequireBundle = attValue;
+                        updated = true;
+                    }
+                    else
+                    {
+                        ai.bundleRequireBundle = null;
+                    }
+
+                }
             }
         }
+
         return updated;
     }
 
@@ -0,0 +1,121 @@
+package org.apache.maven.index.fs;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * In-memory snapshot of one directory's entries and their {@link BasicFileAttributes}, as read once by the scanner.
+ * Used to answer "exists", "last modified" and "length" questions about files in that directory without issuing
+ * additional stat calls. Files outside of the listed directory are answered from the filesystem.
+ *
+ * @since 5.2
+ */
+public class DirectoryListing
+{
+    private final String directory;
+
+    private final Map<String, BasicFileAttributes> entries;
+
+    /**
+     * @param directory the listed directory
+     * @param entries the entries of the directory, keyed by file name
+     */
+    public DirectoryListing( File directory, Map<String, BasicFileAttributes> entries )
+    {
+        this.directory = directory.getAbsolutePath();
+        this.entries = Collections.unmodifiableMap( entries );
+    }
+
+    public File getDirectory()
+    {
+        return new File( directory );
+    }
+
+    public Map<String, BasicFileAttributes> getEntries()
+    {
+        return entries;
+    }
+
+    /**
+     * Returns true if the given file is a direct child of the listed directory, hence this listing is authoritative
+     * for it.
+     */
+    public boolean covers( File file )
+    {
+        if ( file == null )
+        {
+            return false;
+        }
+
+        return directory.equals( file.isAbsolute() ? file.getParent() : file.getAbsoluteFile().getParent() );
+    }
+
+    /**
+     * Returns the attributes of the given file, or {@code null} if the file is not covered by this listing or does not
+     * exist.
+     */
+    public BasicFileAttributes getAttributes( File file )
+    {
+        if ( !covers( file ) )
+        {
+            return null;
+        }
+
+        return entries.get( file.getName() );
+    }
+
+    public boolean exists( File file )
+    {
+        if ( covers( file ) )
+        {
+            return entries.containsKey( file.getName() );
+        }
+
+        return file != null && file.exists();
+    }
+
+    public long lastModified( File file )
+    {
+        BasicFileAttributes attrs = getAttributes( file );
+
+        if ( attrs != null )
+        {
+            return attrs.lastModifiedTime().toMillis();
+        }
+
+        return covers( file ) ? 0L : file.lastModified();
+    }
+
+    public long length( File file )
+    {
+        BasicFileAttributes attrs = getAttributes( file );
+
+        if ( attrs != null )
+        {
+            return attrs.size();
+        }
+
+        return covers( file ) ? 0L : file.length();
+    }
+}
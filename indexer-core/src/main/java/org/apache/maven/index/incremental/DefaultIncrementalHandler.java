@@ -39,7 +39,12 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.NumericRangeQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.maven.index.AllHitsCollector;
 import org.apache.maven.index.ArtifactInfo;
 import org.apache.maven.index.context.IndexingContext;
 import org.apache.maven.index.packer.IndexPackingRequest;
@@ -147,39 +152,91 @@ public class DefaultIncrementalHandler
     private List<Integer> getIndexChunk( IndexPackingRequest request, Date timestamp )
         throws IOException
     {
-        final List<Integer> chunk = new ArrayList<Integer>();
         final IndexSearcher indexSearcher = request.getContext().acquireIndexSearcher();
         try
         {
             final IndexReader r = indexSearcher.getIndexReader();
-            Bits liveDocs = MultiFields.getLiveDocs(r);
-            for ( int i = 0; i < r.maxDoc(); i++ )
+
+            if ( MultiFields.getTerms( r, ArtifactInfo.LAST_MODIFIED_NUMERIC ) == null )
             {
-                if (liveDocs == null || liveDocs.get(i) )
-                {
-                    Document d = r.document( i );
+                // index built before last modified got indexed, look at every document
+                return scanIndexChunk( r, timestamp, null, null );
+            }
+
+            // an index upgraded in place still has documents without last modified indexed, looked at one by one
+            final Bits numeric =
+                search( indexSearcher, NumericRangeQuery.newLongRange( ArtifactInfo.LAST_MODIFIED_NUMERIC, null, null,
+                    true, true ) );
+            final Bits modified =
+                search( indexSearcher, NumericRangeQuery.newLongRange( ArtifactInfo.LAST_MODIFIED_NUMERIC,
+                    timestamp.getTime(), null, false, true ) );
 
-                    String lastModified = d.get( ArtifactInfo.LAST_MODIFIED );
+            return scanIndexChunk( r, timestamp, numeric, modified );
+        }
+        finally
+        {
+            request.getContext().releaseIndexSearcher( indexSearcher );
+        }
+    }
+
+    private Bits search( IndexSearcher indexSearcher, Query query )
+        throws IOException
+    {
+        final AllHitsCollector collector = new AllHitsCollector( false );
+
+        indexSearcher.search( query, collector );
+
+        final FixedBitSet bits = new FixedBitSet( indexSearcher.getIndexReader().maxDoc() );
+
+        for ( ScoreDoc hit : collector.topDocs().scoreDocs )
+        {
+            bits.set( hit.doc );
+        }
+
+        return bits;
+    }
 
-                    if ( lastModified != null )
+    /**
+     * Returns the documents modified after timestamp, in index order. Documents in numeric (if not {@code null}) have
+     * their last modified indexed, and are taken from modified, while the stored last modified of the others is read.
+     */
+    private List<Integer> scanIndexChunk( IndexReader r, Date timestamp, Bits numeric, Bits modified )
+        throws IOException
+    {
+        final List<Integer> chunk = new ArrayList<Integer>();
+        Bits liveDocs = MultiFields.getLiveDocs(r);
+        for ( int i = 0; i < r.maxDoc(); i++ )
+        {
+            if (liveDocs == null || liveDocs.get(i) )
+            {
+                if ( numeric != null && numeric.get( i ) )
+                {
+                    if ( modified.get( i ) )
                     {
-                        Date t = new Date( Long.parseLong( lastModified ) );
+                        chunk.add( i );
+                    }
+
+                    continue;
+                }
+
+                Document d = r.document( i );
+
+                String lastModified = d.get( ArtifactInfo.LAST_MODIFIED );
 
-                        // Only add documents that were added after the last time we indexed
-                        if ( t.after( timestamp ) )
-                        {
-                            chunk.add( i );
-                        }
+                if ( lastModified != null )
+                {
+                    Date t = new Date( Long.parseLong( lastModified ) );
+
+                    // Only add documents that were added after the last time we indexed
+                    if ( t.after( timestamp ) )
+                    {
+                        chunk.add( i );
                     }
                 }
             }
-
-            return chunk;
-        }
-        finally
-        {
-            request.getContext().releaseIndexSearcher( indexSearcher );
         }
+
+        return chunk;
     }
 
     private void updateProperties( Properties properties, IndexPackingRequest request )
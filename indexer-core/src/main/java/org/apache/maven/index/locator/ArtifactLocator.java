@@ -27,6 +27,7 @@ import org.apache.maven.index.ArtifactContext.ModelReader;
 import org.apache.maven.index.artifact.ArtifactPackagingMapper;
 import org.apache.maven.index.artifact.Gav;
 import org.apache.maven.index.artifact.GavCalculator;
+import org.apache.maven.index.fs.DirectoryListing;
 import org.apache.maven.model.Model;
 
 /**
@@ -45,9 +46,19 @@ public class ArtifactLocator
     }
 
     public File locate( File source, GavCalculator gavCalculator, Gav gav )
+    {
+        return locate( source, gavCalculator, gav, null );
+    }
+
+    /**
+     * Locates the artifact, using the (optional) directory listing to check for file existence.
+     * 
+     * @since 5.2
+     */
+    public File locate( File source, GavCalculator gavCalculator, Gav gav, DirectoryListing listing )
     {
         // if we don't have this data, nothing we can do
-        if ( source == null || !source.exists() || gav == null || gav.getArtifactId() == null
+        if ( source == null || !exists( source, listing ) || gav == null || gav.getArtifactId() == null
             || gav.getVersion() == null )
         {
             return null;
@@ -70,7 +81,7 @@ public class ArtifactLocator
 
             File artifact = new File( source.getParent(), artifactName );
 
-            if ( !artifact.exists() )
+            if ( !exists( artifact, listing ) )
             {
                 return null;
             }
@@ -82,4 +93,9 @@ public class ArtifactLocator
             return null;
         }
     }
+
+    private boolean exists( File file, DirectoryListing listing )
+    {
+        return listing != null ? listing.exists( file ) : file.exists();
+    }
 }
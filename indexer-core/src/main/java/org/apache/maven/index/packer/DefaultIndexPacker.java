@@ -27,6 +27,9 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
@@ -60,6 +63,7 @@ import org.apache.maven.index.context.NexusIndexWriter;
 import org.apache.maven.index.context.NexusLegacyAnalyzer;
 import org.apache.maven.index.creator.LegacyDocumentUpdater;
 import org.apache.maven.index.incremental.IncrementalHandler;
+import org.apache.maven.index.packer.IndexPackingRequest.ChecksumAlgorithm;
 import org.apache.maven.index.updater.IndexDataWriter;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
@@ -117,6 +121,10 @@ public class DefaultIndexPacker
 
         Properties info = null;
 
+        List<Integer> chunk = null;
+
+        File chunkFile = null;
+
         try
         {
             // Note that for incremental indexes to work properly, a valid index.properties file
@@ -125,7 +133,7 @@ public class DefaultIndexPacker
 
             if ( request.isCreateIncrementalChunks() )
             {
-                List<Integer> chunk = incrementalHandler.getIncrementalUpdates( request, info );
+                chunk = incrementalHandler.getIncrementalUpdates( request, info );
 
                 if ( chunk == null )
                 {
@@ -138,23 +146,15 @@ public class DefaultIndexPacker
                 }
                 else
                 {
-                    File file =
+                    chunkFile =
                         new File( request.getTargetDir(), //
                             IndexingContext.INDEX_FILE_PREFIX + "."
                                 + info.getProperty( IndexingContext.INDEX_CHUNK_COUNTER ) + ".gz" );
 
-                    writeIndexData( request.getContext(), //
-                        chunk, file );
-
-                    if ( request.isCreateChecksumFiles() )
+                    if ( !request.isConcurrentFormats() )
                     {
-                        FileUtils.fileWrite(
-                            new File( file.getParentFile(), file.getName() + ".sha1" ).getAbsolutePath(),
-                            DigesterUtils.getSha1Digest( file ) );
-
-                        FileUtils.fileWrite(
-                            new File( file.getParentFile(), file.getName() + ".md5" ).getAbsolutePath(),
-                            DigesterUtils.getMd5Digest( file ) );
+                        writeIndexData( request.getContext(), //
+                            chunk, chunkFile, request.getThreads(), getChecksumAlgorithms( request ) );
                     }
                 }
             }
@@ -164,6 +164,7 @@ public class DefaultIndexPacker
             getLogger().info( "Unable to read properties file, will force index regeneration" );
             info = new Properties();
             incrementalHandler.initializeProperties( info );
+            chunkFile = null;
         }
 
         Date timestamp = request.getContext().getTimestamp();
@@ -173,41 +174,269 @@ public class DefaultIndexPacker
             timestamp = new Date( 0 ); // never updated
         }
 
-        if ( request.getFormats().contains( IndexPackingRequest.IndexFormat.FORMAT_LEGACY ) )
+        final boolean legacy = request.getFormats().contains( IndexPackingRequest.IndexFormat.FORMAT_LEGACY );
+
+        final boolean v1 = request.getFormats().contains( IndexPackingRequest.IndexFormat.FORMAT_V1 );
+
+        if ( legacy )
         {
             info.setProperty( IndexingContext.INDEX_LEGACY_TIMESTAMP, format( timestamp ) );
+        }
 
-            writeIndexArchive( request.getContext(), legacyFile, request.getMaxIndexChunks() );
+        if ( v1 )
+        {
+            info.setProperty( IndexingContext.INDEX_TIMESTAMP, format( timestamp ) );
+        }
 
-            if ( request.isCreateChecksumFiles() )
+        if ( request.isConcurrentFormats() )
+        {
+            writeConcurrently( request, chunkFile != null ? chunk : null, chunkFile, legacy ? legacyFile : null,
+                v1 ? v1File : null );
+        }
+        else
+        {
+            if ( legacy )
+            {
+                writeIndexArchive( request.getContext(), legacyFile, request.getMaxIndexChunks(),
+                    getChecksumAlgorithms( request ) );
+            }
+
+            if ( v1 )
             {
-                FileUtils.fileWrite(
-                    new File( legacyFile.getParentFile(), legacyFile.getName() + ".sha1" ).getAbsolutePath(),
-                    DigesterUtils.getSha1Digest( legacyFile ) );
+                writeIndexData( request.getContext(), null, v1File, request.getThreads(),
+                    getChecksumAlgorithms( request ) );
+            }
+        }
+
+        writeIndexProperties( request, info );
+    }
+
+    /**
+     * Writes the incremental chunk and the requested formats in a single pass over the index, each written on its own
+     * thread. Any of the files may be {@code null} if not requested.
+     */
+    void writeConcurrently( IndexPackingRequest request, List<Integer> chunk, File chunkFile, File legacyFile,
+                            File v1File )
+        throws IOException
+    {
+        final IndexingContext context = request.getContext();
 
-                FileUtils.fileWrite(
-                    new File( legacyFile.getParentFile(), legacyFile.getName() + ".md5" ).getAbsolutePath(),
-                    DigesterUtils.getMd5Digest( legacyFile ) );
+        final Collection<ChecksumAlgorithm> checksums = getChecksumAlgorithms( request );
+
+        final List<DocumentFanOut.FormatWriter> writers = new ArrayList<DocumentFanOut.FormatWriter>();
+
+        if ( chunkFile != null )
+        {
+            final BitSet docs = new BitSet();
+            for ( int doc : chunk )
+            {
+                docs.set( doc );
             }
+
+            writers.add( new IndexDataFormatWriter( context, chunkFile, docs, request.getThreads(), checksums ) );
         }
 
-        if ( request.getFormats().contains( IndexPackingRequest.IndexFormat.FORMAT_V1 ) )
+        if ( legacyFile != null )
         {
-            info.setProperty( IndexingContext.INDEX_TIMESTAMP, format( timestamp ) );
+            writers.add( new LegacyFormatWriter( context, legacyFile, request.getMaxIndexChunks(), checksums ) );
+        }
+
+        if ( v1File != null )
+        {
+            writers.add( new IndexDataFormatWriter( context, v1File, null, request.getThreads(), checksums ) );
+        }
+
+        if ( writers.isEmpty() )
+        {
+            return;
+        }
+
+        final IndexSearcher indexSearcher = context.acquireIndexSearcher();
+        try
+        {
+            new DocumentFanOut( indexSearcher.getIndexReader(), writers ).run();
+        }
+        finally
+        {
+            context.releaseIndexSearcher( indexSearcher );
+        }
+    }
+
+    /**
+     * Writes the transfer format, of all documents or only of the given ones.
+     */
+    private static class IndexDataFormatWriter
+        extends DocumentFanOut.FormatWriter
+    {
+        private final IndexingContext context;
+
+        private final File target;
 
-            writeIndexData( request.getContext(), null, v1File );
+        private final BitSet docs;
 
-            if ( request.isCreateChecksumFiles() )
+        private final int threads;
+
+        private final Collection<ChecksumAlgorithm> checksums;
+
+        private DigestingOutputStream os;
+
+        private IndexDataWriter writer;
+
+        IndexDataFormatWriter( IndexingContext context, File target, BitSet docs, int threads,
+                               Collection<ChecksumAlgorithm> checksums )
+        {
+            this.context = context;
+            this.target = target;
+            this.docs = docs;
+            this.threads = threads;
+            this.checksums = checksums;
+        }
+
+        void begin()
+            throws IOException
+        {
+            if ( target.exists() )
             {
-                FileUtils.fileWrite( new File( v1File.getParentFile(), v1File.getName() + ".sha1" ).getAbsolutePath(),
-                    DigesterUtils.getSha1Digest( v1File ) );
+                target.delete();
+            }
+
+            os = new DigestingOutputStream( new FileOutputStream( target ), checksums );
 
-                FileUtils.fileWrite( new File( v1File.getParentFile(), v1File.getName() + ".md5" ).getAbsolutePath(),
-                    DigesterUtils.getMd5Digest( v1File ) );
+            writer = new IndexDataWriter( os, threads );
+            writer.writeHeader( context );
+        }
+
+        void write( int doc, Document document )
+            throws IOException
+        {
+            if ( docs == null || docs.get( doc ) )
+            {
+                writer.writeDocument( document );
             }
         }
 
-        writeIndexProperties( request, info );
+        void end()
+            throws IOException
+        {
+            writer.writeGroupFields();
+            writer.close();
+
+            os.close();
+
+            writeChecksumFiles( target, os );
+        }
+
+        void abort()
+        {
+            IOUtil.close( os );
+        }
+    }
+
+    /**
+     * Writes the legacy format, building its index in a temporary directory and zipping it in the end.
+     */
+    private static class LegacyFormatWriter
+        extends DocumentFanOut.FormatWriter
+    {
+        private final IndexingContext context;
+
+        private final File target;
+
+        private final int maxSegments;
+
+        private final Collection<ChecksumAlgorithm> checksums;
+
+        private File indexArchive;
+
+        private File indexDir;
+
+        private FSDirectory fdir;
+
+        private IndexWriter w;
+
+        LegacyFormatWriter( IndexingContext context, File target, int maxSegments,
+                            Collection<ChecksumAlgorithm> checksums )
+        {
+            this.context = context;
+            this.target = target;
+            this.maxSegments = maxSegments;
+            this.checksums = checksums;
+        }
+
+        void begin()
+            throws IOException
+        {
+            if ( target.exists() )
+            {
+                target.delete();
+            }
+
+            indexArchive = File.createTempFile( "nexus-index", "" );
+
+            indexDir = new File( indexArchive.getAbsoluteFile().getParentFile(), indexArchive.getName() + ".dir" );
+
+            indexDir.mkdirs();
+
+            fdir = FSDirectory.open( indexDir );
+
+            // force the timestamp update
+            IndexUtils.updateTimestamp( context.getIndexDirectory(), context.getTimestamp() );
+            IndexUtils.updateTimestamp( fdir, context.getTimestamp() );
+
+            w = new NexusIndexWriter( fdir, new NexusLegacyAnalyzer(), true );
+        }
+
+        void write( int doc, Document document )
+            throws IOException
+        {
+            w.addDocument( toLegacyDocument( document, context ) );
+        }
+
+        void end()
+            throws IOException
+        {
+            try
+            {
+                w.forceMerge( maxSegments );
+                w.commit();
+                w.close();
+                w = null;
+
+                DigestingOutputStream dos = null;
+
+                OutputStream os = null;
+
+                try
+                {
+                    dos = new DigestingOutputStream( new FileOutputStream( target ), checksums );
+
+                    os = new BufferedOutputStream( dos, 4096 );
+
+                    packDirectory( fdir, os );
+                }
+                finally
+                {
+                    IOUtil.close( os );
+                }
+
+                writeChecksumFiles( target, dos );
+            }
+            finally
+            {
+                abort();
+            }
+        }
+
+        void abort()
+        {
+            IndexUtils.close( w );
+            IndexUtils.close( fdir );
+            if ( indexArchive != null )
+            {
+                indexArchive.delete();
+                IndexUtils.delete( indexDir );
+            }
+        }
     }
 
     private Properties readIndexProperties( IndexPackingRequest request )
@@ -253,17 +482,28 @@ public class DefaultIndexPacker
     
     void writeIndexArchive( IndexingContext context, File targetArchive, int maxSegments )
         throws IOException
+    {
+        writeIndexArchive( context, targetArchive, maxSegments, Collections.<ChecksumAlgorithm> emptyList() );
+    }
+
+    void writeIndexArchive( IndexingContext context, File targetArchive, int maxSegments,
+                            Collection<ChecksumAlgorithm> checksums )
+        throws IOException
     {
         if ( targetArchive.exists() )
         {
             targetArchive.delete();
         }
 
+        DigestingOutputStream dos = null;
+
         OutputStream os = null;
 
         try
         {
-            os = new BufferedOutputStream( new FileOutputStream( targetArchive ), 4096 );
+            dos = new DigestingOutputStream( new FileOutputStream( targetArchive ), checksums );
+
+            os = new BufferedOutputStream( dos, 4096 );
 
             packIndexArchive( context, os );
         }
@@ -271,6 +511,8 @@ public class DefaultIndexPacker
         {
             IOUtil.close( os );
         }
+
+        writeChecksumFiles( targetArchive, dos );
     }
 
     /**
@@ -340,22 +582,7 @@ public class DefaultIndexPacker
             {
                 if ( liveDocs == null || liveDocs.get(i) )
                 {
-                    Document legacyDocument = r.document( i );
-                    Document updatedLegacyDocument = updateLegacyDocument( legacyDocument, context );
-                    
-                    //Lucene does not return metadata for stored documents, so we need to fix that
-                    for (IndexableField indexableField : updatedLegacyDocument.getFields())
-                    {
-                        if(indexableField.name().equals(DefaultIndexingContext.FLD_DESCRIPTOR))
-                        {
-                            updatedLegacyDocument = new Document();
-                            updatedLegacyDocument.add(new StringField(DefaultIndexingContext.FLD_DESCRIPTOR, DefaultIndexingContext.FLD_DESCRIPTOR_CONTENTS, Field.Store.YES));
-                            updatedLegacyDocument.add( new StringField( DefaultIndexingContext.FLD_IDXINFO, DefaultIndexingContext.VERSION + ArtifactInfo.FS + context.getRepositoryId(), Field.Store.YES) );
-                            break;
-                        }
-                    }
-                    
-                    w.addDocument( updatedLegacyDocument );
+                    w.addDocument( toLegacyDocument( r.document( i ), context ) );
                 }
             }
 
@@ -368,6 +595,25 @@ public class DefaultIndexPacker
         }
     }
 
+    static Document toLegacyDocument( Document legacyDocument, IndexingContext context )
+    {
+        Document updatedLegacyDocument = updateLegacyDocument( legacyDocument, context );
+        
+        //Lucene does not return metadata for stored documents, so we need to fix that
+        for (IndexableField indexableField : updatedLegacyDocument.getFields())
+        {
+            if(indexableField.name().equals(DefaultIndexingContext.FLD_DESCRIPTOR))
+            {
+                updatedLegacyDocument = new Document();
+                updatedLegacyDocument.add(new StringField(DefaultIndexingContext.FLD_DESCRIPTOR, DefaultIndexingContext.FLD_DESCRIPTOR_CONTENTS, Field.Store.YES));
+                updatedLegacyDocument.add( new StringField( DefaultIndexingContext.FLD_IDXINFO, DefaultIndexingContext.VERSION + ArtifactInfo.FS + context.getRepositoryId(), Field.Store.YES) );
+                break;
+            }
+        }
+
+        return updatedLegacyDocument;
+    }
+
     static Document updateLegacyDocument( Document doc, IndexingContext context )
     {
         ArtifactInfo ai = IndexUtils.constructArtifactInfo( doc, context );
@@ -464,7 +710,8 @@ public class DefaultIndexPacker
         zos.closeEntry();
     }
 
-    void writeIndexData( IndexingContext context, List<Integer> docIndexes, File targetArchive )
+    void writeIndexData( IndexingContext context, List<Integer> docIndexes, File targetArchive, int threads,
+                         Collection<ChecksumAlgorithm> checksums )
         throws IOException
     {
         if ( targetArchive.exists() )
@@ -472,13 +719,13 @@ public class DefaultIndexPacker
             targetArchive.delete();
         }
 
-        OutputStream os = null;
+        DigestingOutputStream os = null;
 
         try
         {
-            os = new FileOutputStream( targetArchive );
+            os = new DigestingOutputStream( new FileOutputStream( targetArchive ), checksums );
 
-            IndexDataWriter dw = new IndexDataWriter( os );
+            IndexDataWriter dw = new IndexDataWriter( os, threads );
             dw.write( context, docIndexes );
 
             os.flush();
@@ -487,6 +734,8 @@ public class DefaultIndexPacker
         {
             IOUtil.close( os );
         }
+
+        writeChecksumFiles( targetArchive, os );
     }
 
     void writeIndexProperties( IndexPackingRequest request, Properties info )
@@ -511,26 +760,43 @@ public class DefaultIndexPacker
             IOUtil.close( os );
         }
 
+        DigestingOutputStream dos = null;
+
         try
         {
-            os = new FileOutputStream( targetPropertyFile );
+            dos = new DigestingOutputStream( new FileOutputStream( targetPropertyFile ), //
+                getChecksumAlgorithms( request ) );
 
-            info.store( os, null );
+            info.store( dos, null );
         }
         finally
         {
-            IOUtil.close( os );
+            IOUtil.close( dos );
         }
 
+        writeChecksumFiles( targetPropertyFile, dos );
+    }
+
+    private Collection<ChecksumAlgorithm> getChecksumAlgorithms( IndexPackingRequest request )
+    {
         if ( request.isCreateChecksumFiles() )
         {
-            FileUtils.fileWrite(
-                new File( targetPropertyFile.getParentFile(), targetPropertyFile.getName() + ".sha1" ).getAbsolutePath(),
-                DigesterUtils.getSha1Digest( targetPropertyFile ) );
+            return request.getChecksumAlgorithms();
+        }
+        return Collections.emptyList();
+    }
 
+    /**
+     * Writes checksum files of the target file, as digested while it was written.
+     */
+    private static void writeChecksumFiles( File target, DigestingOutputStream dos )
+        throws IOException
+    {
+        for ( ChecksumAlgorithm algorithm : dos.getAlgorithms() )
+        {
             FileUtils.fileWrite(
-                new File( targetPropertyFile.getParentFile(), targetPropertyFile.getName() + ".md5" ).getAbsolutePath(),
-                DigesterUtils.getMd5Digest( targetPropertyFile ) );
+                new File( target.getParentFile(), target.getName() + "." + algorithm.getExtension() ).getAbsolutePath(),
+                dos.getDigest( algorithm ) );
         }
     }
 
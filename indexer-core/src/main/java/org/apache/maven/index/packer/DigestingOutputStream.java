@@ -0,0 +1,110 @@
+package org.apache.maven.index.packer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.index.packer.IndexPackingRequest.ChecksumAlgorithm;
+
+/**
+ * Output stream computing digests of all the data written through it with any count of algorithms at once, so
+ * checksums of written files are known without reading them back.
+ */
+class DigestingOutputStream
+    extends FilterOutputStream
+{
+    private final Map<ChecksumAlgorithm, MessageDigest> digests;
+
+    private final Map<ChecksumAlgorithm, String> results;
+
+    public DigestingOutputStream( final OutputStream out, final Collection<ChecksumAlgorithm> algorithms )
+    {
+        super( out );
+
+        this.digests = new LinkedHashMap<ChecksumAlgorithm, MessageDigest>();
+        this.results = new LinkedHashMap<ChecksumAlgorithm, String>();
+
+        for ( ChecksumAlgorithm algorithm : algorithms )
+        {
+            try
+            {
+                digests.put( algorithm, MessageDigest.getInstance( algorithm.getAlgorithm() ) );
+            }
+            catch ( NoSuchAlgorithmException e )
+            {
+                // all of them are mandatory on every JVM
+                throw new IllegalStateException( e );
+            }
+        }
+    }
+
+    @Override
+    public void write( final int b )
+        throws IOException
+    {
+        out.write( b );
+
+        for ( MessageDigest digest : digests.values() )
+        {
+            digest.update( (byte) b );
+        }
+    }
+
+    @Override
+    public void write( final byte[] b, final int off, final int len )
+        throws IOException
+    {
+        out.write( b, off, len );
+
+        for ( MessageDigest digest : digests.values() )
+        {
+            digest.update( b, off, len );
+        }
+    }
+
+    public Set<ChecksumAlgorithm> getAlgorithms()
+    {
+        return digests.keySet();
+    }
+
+    /**
+     * Returns the hex encoded digest of data written so far, once asked for, no more data may be written.
+     */
+    public String getDigest( final ChecksumAlgorithm algorithm )
+    {
+        String result = results.get( algorithm );
+
+        if ( result == null )
+        {
+            result = new String( DigesterUtils.encodeHex( digests.get( algorithm ).digest() ) );
+            results.put( algorithm, result );
+        }
+
+        return result;
+    }
+}
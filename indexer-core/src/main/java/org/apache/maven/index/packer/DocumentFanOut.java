@@ -0,0 +1,272 @@
+package org.apache.maven.index.packer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.util.Bits;
+
+/**
+ * Reads every live document of an index once, and hands them over in batches to any count of format writers, each
+ * consuming them on its own thread, in document order. Documents are shared by the writers, so they must not modify
+ * them.
+ */
+class DocumentFanOut
+{
+    private static final int BATCH_SIZE = 256;
+
+    private static final Batch END_OF_DATA = new Batch();
+
+    /**
+     * A writer of one packed format.
+     */
+    abstract static class FormatWriter
+    {
+        /**
+         * Invoked before the first document, on the thread of the writer.
+         */
+        abstract void begin()
+            throws IOException;
+
+        abstract void write( int doc, Document document )
+            throws IOException;
+
+        /**
+         * Invoked after the last document, on the thread of the writer, unless reading or any of the writers failed.
+         */
+        abstract void end()
+            throws IOException;
+
+        /**
+         * Invoked instead of {@link #end()} if reading or any of the writers failed, to release resources.
+         */
+        abstract void abort();
+    }
+
+    private static final class Batch
+    {
+        private final int[] docs = new int[BATCH_SIZE];
+
+        private final Document[] documents = new Document[BATCH_SIZE];
+
+        private int size;
+    }
+
+    private final IndexReader reader;
+
+    private final List<FormatWriter> writers;
+
+    DocumentFanOut( final IndexReader reader, final List<FormatWriter> writers )
+    {
+        this.reader = reader;
+        this.writers = writers;
+    }
+
+    void run()
+        throws IOException
+    {
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final List<BlockingQueue<Batch>> queues = new ArrayList<BlockingQueue<Batch>>( writers.size() );
+
+        final ExecutorService executor = Executors.newFixedThreadPool( writers.size(), new ThreadFactory()
+        {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread( final Runnable r )
+            {
+                final Thread thread = new Thread( r, "nexus-indexer-pack-" + count.incrementAndGet() );
+                thread.setDaemon( true );
+                return thread;
+            }
+        } );
+
+        for ( final FormatWriter writer : writers )
+        {
+            final BlockingQueue<Batch> queue = new ArrayBlockingQueue<Batch>( 4 );
+            queues.add( queue );
+
+            executor.execute( new Runnable()
+            {
+                public void run()
+                {
+                    consume( writer, queue, failure );
+                }
+            } );
+        }
+
+        boolean done = false;
+
+        try
+        {
+            final Bits liveDocs = MultiFields.getLiveDocs( reader );
+
+            Batch batch = new Batch();
+
+            for ( int i = 0; i < reader.maxDoc() && failure.get() == null; i++ )
+            {
+                if ( liveDocs == null || liveDocs.get( i ) )
+                {
+                    batch.docs[batch.size] = i;
+                    batch.documents[batch.size] = reader.document( i );
+                    batch.size++;
+
+                    if ( batch.size == BATCH_SIZE )
+                    {
+                        put( queues, batch );
+                        batch = new Batch();
+                    }
+                }
+            }
+
+            if ( batch.size > 0 )
+            {
+                put( queues, batch );
+            }
+
+            put( queues, END_OF_DATA );
+
+            executor.shutdown();
+
+            executor.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
+
+            done = true;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+
+            throw (IOException) new InterruptedIOException( "Interrupted while packing index" ).initCause( e );
+        }
+        finally
+        {
+            if ( !done )
+            {
+                // reading failed: make writers abort once they finish their current batch
+                failure.compareAndSet( null, new IOException( "Reading documents failed" ) );
+
+                for ( BlockingQueue<Batch> queue : queues )
+                {
+                    queue.clear();
+                    queue.offer( END_OF_DATA );
+                }
+
+                executor.shutdown();
+            }
+        }
+
+        final Throwable e = failure.get();
+
+        if ( e instanceof IOException )
+        {
+            throw (IOException) e;
+        }
+        else if ( e instanceof RuntimeException )
+        {
+            throw (RuntimeException) e;
+        }
+        else if ( e instanceof Error )
+        {
+            throw (Error) e;
+        }
+        else if ( e != null )
+        {
+            throw new IOException( "Cannot pack index", e );
+        }
+    }
+
+    private static void put( final List<BlockingQueue<Batch>> queues, final Batch batch )
+        throws InterruptedException
+    {
+        for ( BlockingQueue<Batch> queue : queues )
+        {
+            queue.put( batch );
+        }
+    }
+
+    private static void consume( final FormatWriter writer, final BlockingQueue<Batch> queue,
+                                 final AtomicReference<Throwable> failure )
+    {
+        boolean success = false;
+
+        try
+        {
+            try
+            {
+                writer.begin();
+            }
+            catch ( Throwable e )
+            {
+                failure.compareAndSet( null, e );
+            }
+
+            Batch batch;
+            while ( ( batch = queue.take() ) != END_OF_DATA )
+            {
+                // after a failure keep draining, so reader is never blocked
+                if ( failure.get() == null )
+                {
+                    try
+                    {
+                        for ( int i = 0; i < batch.size; i++ )
+                        {
+                            writer.write( batch.docs[i], batch.documents[i] );
+                        }
+                    }
+                    catch ( Throwable e )
+                    {
+                        failure.compareAndSet( null, e );
+                    }
+                }
+            }
+
+            if ( failure.get() == null )
+            {
+                writer.end();
+
+                success = true;
+            }
+        }
+        catch ( Throwable e )
+        {
+            failure.compareAndSet( null, e );
+        }
+        finally
+        {
+            if ( !success )
+            {
+                writer.abort();
+            }
+        }
+    }
+}
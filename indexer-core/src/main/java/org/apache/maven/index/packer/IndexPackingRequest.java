@@ -46,6 +46,12 @@ public class IndexPackingRequest
 
     private Collection<IndexFormat> formats;
 
+    private int threads;
+
+    private Collection<ChecksumAlgorithm> checksumAlgorithms;
+
+    private boolean concurrentFormats;
+
     public IndexPackingRequest( IndexingContext context, File targetDir )
     {
         this.context = context;
@@ -61,6 +67,10 @@ public class IndexPackingRequest
         this.useTargetProperties = false;
 
         this.formats = Arrays.asList( IndexFormat.FORMAT_LEGACY, IndexFormat.FORMAT_V1 );
+
+        this.threads = 1;
+
+        this.checksumAlgorithms = Arrays.asList( ChecksumAlgorithm.SHA1, ChecksumAlgorithm.MD5 );
     }
 
     public IndexingContext getContext()
@@ -139,6 +149,63 @@ public class IndexPackingRequest
         this.useTargetProperties = useTargetProperties;
     }
 
+    /**
+     * Returns the count of threads serializing and compressing documents while index data is written.
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Sets the count of threads serializing and compressing documents while index data is written, values above 1 make
+     * a parallel GZIP stream be written, still readable by any index reader.
+     * 
+     * @since 5.2
+     */
+    public void setThreads( int threads )
+    {
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the algorithms of checksum files created, if {@link #isCreateChecksumFiles()}.
+     */
+    public Collection<ChecksumAlgorithm> getChecksumAlgorithms()
+    {
+        return checksumAlgorithms;
+    }
+
+    /**
+     * Sets the algorithms of checksum files created, if {@link #isCreateChecksumFiles()}. Defaults to SHA-1 and MD5.
+     * 
+     * @since 5.2
+     */
+    public void setChecksumAlgorithms( Collection<ChecksumAlgorithm> checksumAlgorithms )
+    {
+        this.checksumAlgorithms = checksumAlgorithms;
+    }
+
+    /**
+     * Returns {@code true} if the incremental chunk and the index formats are written concurrently.
+     */
+    public boolean isConcurrentFormats()
+    {
+        return concurrentFormats;
+    }
+
+    /**
+     * Sets whether the incremental chunk and the index formats are written concurrently, reading every document only
+     * once and handing it over to the writers of all formats, each running on its own thread; so requesting more
+     * formats does not multiply the time of packing. Defaults to {@code false}, writing them one after another.
+     * 
+     * @since 5.2
+     */
+    public void setConcurrentFormats( boolean concurrentFormats )
+    {
+        this.concurrentFormats = concurrentFormats;
+    }
+
     /**
      * Index format enumeration.
      */
@@ -146,4 +213,40 @@ public class IndexPackingRequest
     {
         FORMAT_LEGACY, FORMAT_V1;
     }
+
+    /**
+     * Checksum algorithm enumeration.
+     * 
+     * @since 5.2
+     */
+    public static enum ChecksumAlgorithm
+    {
+        SHA1( "SHA-1", "sha1" ), MD5( "MD5", "md5" ), SHA256( "SHA-256", "sha256" ), SHA512( "SHA-512", "sha512" );
+
+        private final String algorithm;
+
+        private final String extension;
+
+        private ChecksumAlgorithm( String algorithm, String extension )
+        {
+            this.algorithm = algorithm;
+            this.extension = extension;
+        }
+
+        /**
+         * Returns the name of the algorithm, as known to {@link java.security.MessageDigest}.
+         */
+        public String getAlgorithm()
+        {
+            return algorithm;
+        }
+
+        /**
+         * Returns the extension of checksum files, without leading dot.
+         */
+        public String getExtension()
+        {
+            return extension;
+        }
+    }
 }
@@ -0,0 +1,217 @@
+package org.apache.maven.index.updater;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.io.RawInputStreamFacade;
+
+/**
+ * Downloads index chunks into a directory ahead of their consumer, with a bounded count of concurrent downloads, while
+ * handing them over in their original order. A chunk already present in the directory (downloaded completely by an
+ * earlier, interrupted update) is not downloaded again; chunks are downloaded into a temporary file, renamed once
+ * complete, so a present chunk is always a complete one. A {@link ConditionalResourceFetcher} resumes the download of
+ * a partially downloaded chunk.
+ */
+class ChunkDownloader
+{
+    static final String PART_SUFFIX = ".part";
+
+    private final ResourceFetcher fetcher;
+
+    private final File dir;
+
+    private final Iterator<String> names;
+
+    private final int depth;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ArrayDeque<Future<File>> pending = new ArrayDeque<Future<File>>();
+
+    /**
+     * @param fetcher the fetcher to retrieve chunks with, used by one thread at a time only if depth is 1
+     * @param dir the directory to download chunks into
+     * @param names the names of chunks, in order of consumption
+     * @param depth the count of chunks downloaded concurrently, ahead of consumption
+     */
+    ChunkDownloader( final ResourceFetcher fetcher, final File dir, final List<String> names, final int depth )
+    {
+        this.fetcher = fetcher;
+        this.dir = dir;
+        this.names = names.iterator();
+        this.depth = Math.max( 1, depth );
+        this.executor =
+            new ThreadPoolExecutor( this.depth, this.depth, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory()
+                {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    public Thread newThread( final Runnable r )
+                    {
+                        final Thread thread = new Thread( r, "nexus-indexer-download-" + count.incrementAndGet() );
+                        thread.setDaemon( true );
+                        return thread;
+                    }
+                } );
+        this.executor.allowCoreThreadTimeOut( true );
+
+        while ( pending.size() < this.depth && this.names.hasNext() )
+        {
+            submit( this.names.next() );
+        }
+    }
+
+    /**
+     * Returns whether there are chunks not handed over yet.
+     */
+    boolean hasNext()
+    {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Waits for the next chunk to be downloaded and returns its file, starting the download of a further one.
+     */
+    File next()
+        throws IOException
+    {
+        final Future<File> future = pending.poll();
+
+        if ( names.hasNext() )
+        {
+            submit( names.next() );
+        }
+
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+
+            throw (IOException) new InterruptedIOException( "Interrupted while downloading chunks" ).initCause( e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof IOException )
+            {
+                throw (IOException) e.getCause();
+            }
+
+            throw new IOException( "Cannot download chunk", e.getCause() );
+        }
+    }
+
+    /**
+     * Abandons downloads not handed over yet, and waits for those in progress, as interrupting them may break the
+     * connection of fetcher, and the fetcher may be disconnected once this method returns.
+     */
+    void close()
+        throws IOException
+    {
+        for ( Future<File> future : pending )
+        {
+            future.cancel( false );
+        }
+
+        pending.clear();
+
+        executor.shutdown();
+
+        try
+        {
+            executor.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+
+            throw (IOException) new InterruptedIOException( "Interrupted while downloading chunks" ).initCause( e );
+        }
+    }
+
+    private void submit( final String name )
+    {
+        pending.add( executor.submit( new Callable<File>()
+        {
+            public File call()
+                throws IOException
+            {
+                return download( name );
+            }
+        } ) );
+    }
+
+    private File download( final String name )
+        throws IOException
+    {
+        final File file = new File( dir, name );
+
+        if ( !file.isFile() )
+        {
+            download( fetcher, name, file );
+        }
+
+        return file;
+    }
+
+    /**
+     * Downloads a resource into the file, through a temporary file that is renamed once complete. A partially
+     * downloaded temporary file is resumed, if fetcher supports it.
+     */
+    static void download( final ResourceFetcher fetcher, final String name, final File file )
+        throws IOException
+    {
+        final File part = new File( file.getPath() + PART_SUFFIX );
+
+        if ( fetcher instanceof ConditionalResourceFetcher )
+        {
+            ( (ConditionalResourceFetcher) fetcher ).retrieve( name, part );
+        }
+        else
+        {
+            FileUtils.copyStreamToFile( new RawInputStreamFacade( fetcher.retrieve( name ) ), part );
+        }
+
+        // a stale file is replaced
+        file.delete();
+
+        if ( !part.renameTo( file ) )
+        {
+            throw new IOException( "Cannot rename " + part + " to " + file );
+        }
+    }
+}
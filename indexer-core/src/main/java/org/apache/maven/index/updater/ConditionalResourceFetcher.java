@@ -0,0 +1,68 @@
+package org.apache.maven.index.updater;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * A resource fetcher able to skip retrieval of resources not modified since retrieved before, and to resume
+ * interrupted retrievals of resources into files.
+ *
+ * @since 5.2
+ */
+public interface ConditionalResourceFetcher
+    extends ResourceFetcher
+{
+    /**
+     * Key of the entity tag in validators.
+     */
+    String ETAG = "etag";
+
+    /**
+     * Key of the modification date (milliseconds since epoch) in validators.
+     */
+    String LAST_MODIFIED = "last-modified";
+
+    /**
+     * Retrieves resource as InputStream, unless it is not modified since retrieved with given validators.
+     *
+     * @param name a name of resource to retrieve
+     * @param validators the validators of the resource retrieved before (may be empty), replaced by those of the
+     *            retrieved resource
+     * @return the resource, or {@code null} if it is not modified
+     */
+    InputStream retrieveIfModified( String name, Properties validators )
+        throws IOException, FileNotFoundException;
+
+    /**
+     * Retrieves resource into the target file. An existing target file is taken as the beginning of the resource, left
+     * by an interrupted retrieval, and only the rest of the resource is retrieved, unless the resource was modified
+     * since, or resuming is not possible, in which case the whole resource is retrieved again.
+     *
+     * @param name a name of resource to retrieve
+     * @param targetFile the file to retrieve resource into
+     */
+    void retrieve( String name, File targetFile )
+        throws IOException, FileNotFoundException;
+}
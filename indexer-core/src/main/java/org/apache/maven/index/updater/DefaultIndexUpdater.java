@@ -35,31 +35,39 @@ import java.io.Writer;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.TimeZone;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.CorruptIndexException;
-import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LogByteSizeMergePolicy;
 import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.store.LockObtainFailedException;
 import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.Version;
 import org.apache.maven.index.ArtifactInfo;
 import org.apache.maven.index.context.DefaultIndexingContext;
 import org.apache.maven.index.context.DocumentFilter;
+import org.apache.maven.index.context.DocumentSource;
 import org.apache.maven.index.context.IndexUtils;
 import org.apache.maven.index.context.IndexingContext;
 import org.apache.maven.index.context.NexusAnalyzer;
@@ -73,7 +81,6 @@ import org.codehaus.plexus.component.annotations.Requirement;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
-import org.codehaus.plexus.util.io.RawInputStreamFacade;
 
 /**
  * A default index updater implementation
@@ -86,6 +93,10 @@ public class DefaultIndexUpdater
     extends AbstractLogEnabled
     implements IndexUpdater
 {
+    /**
+     * Prefix of the validators of retrieved remote properties, stored along with them.
+     */
+    private static final String VALIDATOR_PREFIX = IndexingContext.INDEX_PROPERTY_PREFIX + "remote-";
 
     @Requirement( role = IncrementalHandler.class )
     IncrementalHandler incrementalHandler;
@@ -134,7 +145,7 @@ public class DefaultIndexUpdater
         {
             if ( cacheDir != null )
             {
-                LocalCacheIndexAdaptor cache = new LocalCacheIndexAdaptor( cacheDir, result );
+                LocalCacheIndexAdaptor cache = new LocalCacheIndexAdaptor( cacheDir, updateRequest, result );
 
                 if ( !updateRequest.isOffline() )
                 {
@@ -190,9 +201,15 @@ public class DefaultIndexUpdater
     }
 
     private Date loadIndexDirectory( final IndexUpdateRequest updateRequest, final ResourceFetcher fetcher,
-                                     final boolean merge, final String remoteIndexFile )
+                                     final String remoteIndexFile )
         throws IOException
     {
+        // side effects need the downloaded index as a directory
+        if ( remoteIndexFile.endsWith( ".gz" ) && ( sideEffects == null || sideEffects.isEmpty() ) )
+        {
+            return replaceIndex( updateRequest, fetcher, remoteIndexFile );
+        }
+
         File indexDir = File.createTempFile( remoteIndexFile, ".dir" );
         indexDir.delete();
         indexDir.mkdirs();
@@ -210,7 +227,7 @@ public class DefaultIndexUpdater
             if ( remoteIndexFile.endsWith( ".gz" ) )
             {
                 timestamp = unpackIndexData( is, directory, //
-                    updateRequest.getIndexingContext() );
+                    updateRequest.getIndexingContext(), updateRequest.getThreads(), updateRequest.getDocumentFilter() );
             }
             else
             {
@@ -218,50 +235,216 @@ public class DefaultIndexUpdater
                 throw new IllegalArgumentException("The legacy format is no longer supported by this version of maven-indexer.");
             }
 
-            if ( updateRequest.getDocumentFilter() != null )
+            updateRequest.getIndexingContext().replace( directory );
+
+            applySideEffects( updateRequest, directory, false );
+
+            return timestamp;
+        }
+        finally
+        {
+            IOUtil.close( is );
+
+            if ( directory != null )
             {
-                filterDirectory( directory, updateRequest.getDocumentFilter() );
+                directory.close();
             }
 
-            if ( merge )
+            try
             {
-                updateRequest.getIndexingContext().merge( directory );
+                FileUtils.deleteDirectory( indexDir );
             }
-            else
+            catch ( IOException ex )
             {
-                updateRequest.getIndexingContext().replace( directory );
+                // ignore
             }
-            if ( sideEffects != null && sideEffects.size() > 0 )
+        }
+    }
+
+    /**
+     * Merges incremental chunks into the context. Chunks are downloaded ahead (see {@link ChunkDownloader}) while the
+     * downloaded ones are folded, in order, into a single delta (see {@link FoldingIndexWriter}), that is merged into
+     * the context at once, so the context is committed once, however many chunks there are.
+     */
+    private void mergeIndexChunks( final IndexUpdateRequest updateRequest, final ResourceFetcher fetcher,
+                                   final List<String> filenames )
+        throws IOException
+    {
+        final IndexingContext context = updateRequest.getIndexingContext();
+
+        final File chunksDir = File.createTempFile( IndexingContext.INDEX_FILE_PREFIX, ".chunks" );
+        chunksDir.delete();
+        chunksDir.mkdirs();
+
+        final File indexDir = File.createTempFile( IndexingContext.INDEX_FILE_PREFIX, ".dir" );
+        indexDir.delete();
+        indexDir.mkdirs();
+
+        final Directory directory = updateRequest.getFSDirectoryFactory().open( indexDir );
+
+        final ChunkDownloader downloader =
+            new ChunkDownloader( fetcher, chunksDir, filenames, updateRequest.getConcurrentDownloads() );
+
+        try
+        {
+            // merging adjacent segments only keeps documents of later chunks after those of earlier ones
+            final IndexWriterConfig config = new IndexWriterConfig( Version.LUCENE_46, new NexusAnalyzer() );
+            config.setMergePolicy( new LogByteSizeMergePolicy() );
+
+            final NexusIndexWriter w = new FoldingIndexWriter( directory, config );
+
+            try
             {
-                getLogger().info( IndexUpdateSideEffect.class.getName() + " extensions found: " + sideEffects.size() );
-                for ( IndexUpdateSideEffect sideeffect : sideEffects )
+                while ( downloader.hasNext() )
                 {
-                    sideeffect.updateIndex( directory, updateRequest.getIndexingContext(), merge );
+                    final File chunk = downloader.next();
+
+                    final InputStream is = new BufferedInputStream( new FileInputStream( chunk ) );
+
+                    try
+                    {
+                        // read by a single thread, as folding relies on documents written in order; commits each
+                        // chunk, and leaves the timestamp of the last one in directory
+                        new IndexDataReader( is ).readIndex( w, context, updateRequest.getDocumentFilter() );
+                    }
+                    finally
+                    {
+                        IOUtil.close( is );
+                    }
+
+                    chunk.delete();
                 }
             }
+            finally
+            {
+                IndexUtils.close( w );
+            }
 
-            return timestamp;
+            // segments are merged once, after all chunks are merged
+            context.merge( directory, null, false );
+
+            applySideEffects( updateRequest, directory, true );
         }
         finally
         {
-            IOUtil.close( is );
+            downloader.close();
 
-            if ( directory != null )
+            directory.close();
+
+            IndexUtils.delete( indexDir );
+            IndexUtils.delete( chunksDir );
+        }
+    }
+
+    /**
+     * Index writer folding incremental chunks, written one after another, into a single delta keyed by UINFO: an
+     * artifact document replaces the one of same UINFO written before (the last writer wins), and a deletion marker
+     * removes it, while kept itself to delete the artifact from the context. Documents changed by several chunks are
+     * merged into the context once, in their latest state. Descriptor and group documents of chunks are kept only once
+     * as well. Documents must be written in their order in the chunks.
+     */
+    private static class FoldingIndexWriter
+        extends NexusIndexWriter
+    {
+        private static final String[] KEYS = { ArtifactInfo.UINFO, DefaultIndexingContext.FLD_DESCRIPTOR,
+            ArtifactInfo.ALL_GROUPS, ArtifactInfo.ROOT_GROUPS };
+
+        FoldingIndexWriter( final Directory directory, final IndexWriterConfig config )
+            throws IOException
+        {
+            super( directory, config );
+        }
+
+        @Override
+        public void addDocument( final Iterable<? extends IndexableField> doc, final Analyzer analyzer )
+            throws IOException
+        {
+            for ( String key : KEYS )
             {
-                directory.close();
+                final String value = getValue( doc, key );
+
+                if ( value != null )
+                {
+                    updateDocument( new Term( key, value ), doc, analyzer );
+                    return;
+                }
             }
 
-            try
+            final String deleted = getValue( doc, ArtifactInfo.DELETED );
+
+            if ( deleted != null )
             {
-                FileUtils.deleteDirectory( indexDir );
+                deleteDocuments( new Term( ArtifactInfo.UINFO, deleted ) );
             }
-            catch ( IOException ex )
+
+            super.addDocument( doc, analyzer );
+        }
+
+        private static String getValue( final Iterable<? extends IndexableField> doc, final String name )
+        {
+            for ( IndexableField field : doc )
             {
-                // ignore
+                if ( name.equals( field.name() ) )
+                {
+                    return field.stringValue();
+                }
+            }
+
+            return null;
+        }
+    }
+
+    private void applySideEffects( final IndexUpdateRequest updateRequest, final Directory directory,
+                                   final boolean merge )
+        throws IOException
+    {
+        if ( sideEffects != null && sideEffects.size() > 0 )
+        {
+            getLogger().info( IndexUpdateSideEffect.class.getName() + " extensions found: " + sideEffects.size() );
+            for ( IndexUpdateSideEffect sideeffect : sideEffects )
+            {
+                sideeffect.updateIndex( directory, updateRequest.getIndexingContext(), merge );
             }
         }
     }
 
+    /**
+     * Streams the downloaded index data straight into the context, replacing its content, without unpacking it into an
+     * intermediate directory first. The document filter is applied while reading.
+     */
+    private Date replaceIndex( final IndexUpdateRequest updateRequest, final ResourceFetcher fetcher,
+                               final String remoteIndexFile )
+        throws IOException
+    {
+        final IndexingContext context = updateRequest.getIndexingContext();
+
+        final BufferedInputStream is = new BufferedInputStream( fetcher.retrieve( remoteIndexFile ) );
+
+        try
+        {
+            final IndexDataReader dr = new IndexDataReader( is, updateRequest.getThreads() );
+
+            final IndexDataReadResult[] result = new IndexDataReadResult[1];
+
+            context.replace( new DocumentSource()
+            {
+                public Date addDocuments( final IndexWriter writer )
+                    throws IOException
+                {
+                    result[0] = dr.readDocuments( writer, context, updateRequest.getDocumentFilter() );
+
+                    return result[0].getTimestamp();
+                }
+            } );
+
+            return result[0] != null ? result[0].getTimestamp() : null;
+        }
+        finally
+        {
+            IOUtil.close( is );
+        }
+    }
+
     /**
      * Unpack legacy index archive into a specified Lucene <code>Directory</code>
      * 
@@ -374,7 +557,6 @@ public class DefaultIndexUpdater
                 }
             }
 
-            w.forceMerge(1);
             w.commit();
         }
         finally
@@ -384,58 +566,6 @@ public class DefaultIndexUpdater
         }
     }
 
-    private static void filterDirectory( final Directory directory, final DocumentFilter filter )
-        throws IOException
-    {
-        IndexReader r = null;
-        IndexWriter w = null;
-        try
-        {
-            r = IndexReader.open( directory );
-            w = new NexusIndexWriter( directory, new NexusAnalyzer(), false );
-            
-            Bits liveDocs = MultiFields.getLiveDocs(r);
-
-            int numDocs = r.maxDoc();
-
-            for ( int i = 0; i < numDocs; i++ )
-            {
-                if (liveDocs != null && ! liveDocs.get(i) )
-                {
-                    continue;
-                }
-
-                Document d = r.document( i );
-
-                if ( !filter.accept( d ) )
-                {
-                    boolean success = w.tryDeleteDocument(r, i);
-                    //FIXME handle deletion failure
-                }
-            }
-            w.commit();
-        }
-        finally
-        {
-            IndexUtils.close( r );
-            IndexUtils.close( w );
-        }
-
-        w = null;
-        try
-        {
-            // analyzer is unimportant, since we are not adding/searching to/on index, only reading/deleting
-            w = new NexusIndexWriter( directory, new NexusAnalyzer(), false );
-
-            w.forceMerge(4);
-            w.commit();
-        }
-        finally
-        {
-            IndexUtils.close( w );
-        }
-    }
-
     private Properties loadIndexProperties( final File indexDirectoryFile, final String remoteIndexPropertiesName )
     {
         File indexProperties = new File( indexDirectoryFile, remoteIndexPropertiesName );
@@ -487,10 +617,47 @@ public class DefaultIndexUpdater
         }
     }
 
-    private Properties downloadIndexProperties( final ResourceFetcher fetcher )
+    /**
+     * Downloads remote properties. A {@link ConditionalResourceFetcher} downloads them only if modified since the
+     * given local ones were downloaded, and the local ones are returned otherwise.
+     */
+    private Properties downloadIndexProperties( final ResourceFetcher fetcher, final Properties localProperties )
         throws IOException
     {
-        InputStream fis = fetcher.retrieve( IndexingContext.INDEX_REMOTE_PROPERTIES_FILE );
+        final Properties validators = new Properties();
+
+        InputStream fis;
+
+        if ( fetcher instanceof ConditionalResourceFetcher )
+        {
+            if ( localProperties != null )
+            {
+                for ( String key : new String[] { ConditionalResourceFetcher.ETAG,
+                    ConditionalResourceFetcher.LAST_MODIFIED } )
+                {
+                    if ( localProperties.getProperty( VALIDATOR_PREFIX + key ) != null )
+                    {
+                        validators.setProperty( key, localProperties.getProperty( VALIDATOR_PREFIX + key ) );
+                    }
+                }
+            }
+
+            final ConditionalResourceFetcher conditionalFetcher = (ConditionalResourceFetcher) fetcher;
+
+            fis = conditionalFetcher.retrieveIfModified( IndexingContext.INDEX_REMOTE_PROPERTIES_FILE, validators );
+
+            if ( fis == null )
+            {
+                // not modified since the local ones were downloaded
+                final Properties properties = new Properties();
+                properties.putAll( localProperties );
+                return properties;
+            }
+        }
+        else
+        {
+            fis = fetcher.retrieve( IndexingContext.INDEX_REMOTE_PROPERTIES_FILE );
+        }
 
         try
         {
@@ -498,6 +665,11 @@ public class DefaultIndexUpdater
 
             properties.load( fis );
 
+            for ( String key : validators.stringPropertyNames() )
+            {
+                properties.setProperty( VALIDATOR_PREFIX + key, validators.getProperty( key ) );
+            }
+
             return properties;
         }
         finally
@@ -534,13 +706,31 @@ public class DefaultIndexUpdater
      */
     public static Date unpackIndexData( final InputStream is, final Directory d, final IndexingContext context )
         throws IOException
+    {
+        return unpackIndexData( is, d, context, 1, null );
+    }
+
+    /**
+     * Unpack index data using specified Lucene Index writer, rebuilding and indexing documents on given count of
+     * threads, and leaving out documents not accepted by the filter.
+     * 
+     * @param is an input stream to unpack index data from
+     * @param d the directory to unpack index data into
+     * @param context the context whose index creators update unpacked documents
+     * @param threads the count of threads rebuilding and indexing documents
+     * @param filter the filter of unpacked documents, may be {@code null}
+     * @since 5.2
+     */
+    public static Date unpackIndexData( final InputStream is, final Directory d, final IndexingContext context,
+                                        final int threads, final DocumentFilter filter )
+        throws IOException
     {
         NexusIndexWriter w = new NexusIndexWriter( d, new NexusAnalyzer(), true );
         try
         {
-            IndexDataReader dr = new IndexDataReader( is );
+            IndexDataReader dr = new IndexDataReader( is, threads );
 
-            IndexDataReadResult result = dr.readIndex( w, context );
+            IndexDataReadResult result = dr.readIndex( w, context, filter );
 
             return result.getTimestamp();
         }
@@ -611,7 +801,10 @@ public class DefaultIndexUpdater
         public abstract void storeProperties()
             throws IOException;
 
-        public abstract void addIndexChunk( ResourceFetcher source, String filename )
+        /**
+         * Adds the chunks to the index, in order.
+         */
+        public abstract void addIndexChunks( ResourceFetcher source, List<String> filenames )
             throws IOException;
 
         public abstract Date setIndexFile( ResourceFetcher source, String string )
@@ -620,7 +813,7 @@ public class DefaultIndexUpdater
         public Properties setProperties( ResourceFetcher source )
             throws IOException
         {
-            this.properties = downloadIndexProperties( source );
+            this.properties = downloadIndexProperties( source, getProperties() );
             return properties;
         }
 
@@ -638,6 +831,8 @@ public class DefaultIndexUpdater
     {
         private final IndexUpdateRequest updateRequest;
 
+        private boolean updated;
+
         public LuceneIndexAdaptor( IndexUpdateRequest updateRequest )
         {
             super( updateRequest.getIndexingContext().getIndexDirectoryFile() );
@@ -664,16 +859,25 @@ public class DefaultIndexUpdater
             return updateRequest.getIndexingContext().getTimestamp();
         }
 
-        public void addIndexChunk( ResourceFetcher source, String filename )
+        public void addIndexChunks( ResourceFetcher source, List<String> filenames )
             throws IOException
         {
-            loadIndexDirectory( updateRequest, source, true, filename );
+            if ( !filenames.isEmpty() )
+            {
+                mergeIndexChunks( updateRequest, source, filenames );
+
+                updated = true;
+            }
         }
 
         public Date setIndexFile( ResourceFetcher source, String filename )
             throws IOException
         {
-            return loadIndexDirectory( updateRequest, source, false, filename );
+            final Date timestamp = loadIndexDirectory( updateRequest, source, filename );
+
+            updated = true;
+
+            return timestamp;
         }
 
         public void commit()
@@ -681,6 +885,12 @@ public class DefaultIndexUpdater
         {
             super.commit();
 
+            if ( updated && updateRequest.getMaxSegments() > 0 )
+            {
+                updateRequest.getIndexingContext().getIndexWriter().forceMerge( updateRequest.getMaxSegments(),
+                    !updateRequest.isMergeInBackground() );
+            }
+
             updateRequest.getIndexingContext().commit();
         }
 
@@ -693,13 +903,16 @@ public class DefaultIndexUpdater
 
         private static final String CHUNKS_FILE_ENCODING = "UTF-8";
 
+        private final IndexUpdateRequest updateRequest;
+
         private final IndexUpdateResult result;
 
         private final ArrayList<String> newChunks = new ArrayList<String>();
 
-        public LocalCacheIndexAdaptor( File dir, IndexUpdateResult result )
+        public LocalCacheIndexAdaptor( File dir, IndexUpdateRequest updateRequest, IndexUpdateResult result )
         {
             super( dir );
+            this.updateRequest = updateRequest;
             this.result = result;
         }
 
@@ -736,23 +949,35 @@ public class DefaultIndexUpdater
             return timestamp;
         }
 
-        public void addIndexChunk( ResourceFetcher source, String filename )
+        public void addIndexChunks( ResourceFetcher source, List<String> filenames )
             throws IOException
         {
-            File chunk = new File( dir, filename );
-            FileUtils.copyStreamToFile( new RawInputStreamFacade( source.retrieve( filename ) ), chunk );
-            newChunks.add( filename );
+            // chunks downloaded by an interrupted update are present already, but not listed yet
+            final ChunkDownloader downloader =
+                new ChunkDownloader( source, dir, filenames, updateRequest.getConcurrentDownloads() );
+            try
+            {
+                for ( String filename : filenames )
+                {
+                    downloader.next();
+                    newChunks.add( filename );
+                }
+            }
+            finally
+            {
+                downloader.close();
+            }
         }
 
         public Date setIndexFile( ResourceFetcher source, String filename )
             throws IOException
         {
-            cleanCacheDirectory( dir );
+            // partially downloaded files are kept, to resume their download
+            cleanCacheDirectory( dir, true );
 
             result.setFullUpdate( true );
 
-            File target = new File( dir, filename );
-            FileUtils.copyStreamToFile( new RawInputStreamFacade( source.retrieve( filename ) ), target );
+            ChunkDownloader.download( source, filename, new File( dir, filename ) );
 
             return null;
         }
@@ -760,13 +985,195 @@ public class DefaultIndexUpdater
         @Override
         public void commit()
             throws IOException
+        {
+            writeChunks( newChunks, true );
+
+            super.commit();
+
+            final int threshold = updateRequest.getLocalIndexCacheCompactionThreshold();
+
+            if ( threshold > 0 )
+            {
+                final List<String> chunks = getChunks();
+
+                if ( chunks.size() >= threshold )
+                {
+                    compact( chunks );
+                }
+            }
+        }
+
+        /**
+         * Folds the index file and the listed chunks into a new index file, and empties the list of chunks, so
+         * restoring from the cache replays a single file however many updates the cache received. Records are folded
+         * as they are, without rebuilding documents, so no remote data is lost whatever the index creators of the
+         * updated context: the last record of an artifact (keyed by UINFO) wins, and a deletion marker removes the
+         * artifact, while kept itself (see {@link FoldingIndexWriter}). Only the records of chunks are held in memory,
+         * the index file is streamed. The new index file has the timestamp of the newest of the folded files. Chunk
+         * files are kept, as contexts updated from the cache incrementally retrieve them by name. Should the list not
+         * be emptied, its chunks are folded into the new index file once more, leaving the same content.
+         */
+        private void compact( final List<String> chunks )
+            throws IOException
+        {
+            final String filename = IndexingContext.INDEX_FILE_PREFIX + ".gz";
+
+            final File indexFile = new File( dir, filename );
+
+            if ( !indexFile.isFile() )
+            {
+                // legacy index file
+                return;
+            }
+
+            // records of chunks by artifact, in order of their last change
+            final Map<String, Document> folded = new LinkedHashMap<String, Document>();
+            // descriptor and group records of chunks
+            final List<Document> others = new ArrayList<Document>();
+
+            long timestamp = -1;
+
+            for ( String chunk : chunks )
+            {
+                final InputStream is = new FileInputStream( new File( dir, chunk ) );
+                try
+                {
+                    final IndexDataReader reader = new IndexDataReader( is );
+
+                    timestamp = Math.max( timestamp, reader.readHeader() );
+
+                    Document doc;
+                    while ( ( doc = reader.readDocument() ) != null )
+                    {
+                        fold( folded, others, doc );
+                    }
+                }
+                finally
+                {
+                    IOUtil.close( is );
+                }
+            }
+
+            final File compactedFile = new File( dir, filename + ".compact" );
+
+            try
+            {
+                final OutputStream os = new FileOutputStream( compactedFile );
+                final InputStream is = new FileInputStream( indexFile );
+                try
+                {
+                    final IndexDataReader reader = new IndexDataReader( is );
+                    final IndexDataWriter writer = new IndexDataWriter( os, updateRequest.getThreads() );
+
+                    timestamp = Math.max( timestamp, reader.readHeader() );
+
+                    writer.writeHeader( timestamp == -1 ? null : new Date( timestamp ) );
+
+                    // group records are not written, but collected by the writer into its own
+                    Document doc;
+                    while ( ( doc = reader.readDocument() ) != null )
+                    {
+                        if ( !isReplaced( folded, doc ) )
+                        {
+                            writer.writeDocument( doc );
+                        }
+                    }
+
+                    // the descriptor of the index file is written already, those of chunks are skipped
+                    for ( Document other : others )
+                    {
+                        writer.writeDocument( other );
+                    }
+
+                    for ( Document record : folded.values() )
+                    {
+                        writer.writeDocument( record );
+                    }
+
+                    writer.writeGroupFields();
+
+                    writer.close();
+                }
+                finally
+                {
+                    IOUtil.close( is );
+                    IOUtil.close( os );
+                }
+
+                indexFile.delete();
+
+                if ( !compactedFile.renameTo( indexFile ) )
+                {
+                    throw new IOException( "Cannot rename " + compactedFile + " to " + indexFile );
+                }
+
+                writeChunks( Collections.<String> emptyList(), false );
+            }
+            finally
+            {
+                compactedFile.delete();
+            }
+        }
+
+        private void fold( final Map<String, Document> folded, final List<Document> others, final Document doc )
+        {
+            final String uinfo = doc.get( ArtifactInfo.UINFO );
+            final String deleted = doc.get( ArtifactInfo.DELETED );
+
+            if ( uinfo != null )
+            {
+                // moved last, as the latest change
+                folded.remove( artifactKey( uinfo ) );
+                folded.put( artifactKey( uinfo ), doc );
+            }
+            else if ( deleted != null )
+            {
+                folded.remove( artifactKey( deleted ) );
+                folded.remove( deletionKey( deleted ) );
+                folded.put( deletionKey( deleted ), doc );
+            }
+            else
+            {
+                others.add( doc );
+            }
+        }
+
+        /**
+         * Returns true if a record of the index file is replaced by the folded records of chunks.
+         */
+        private boolean isReplaced( final Map<String, Document> folded, final Document doc )
+        {
+            final String uinfo = doc.get( ArtifactInfo.UINFO );
+
+            if ( uinfo != null )
+            {
+                return folded.containsKey( artifactKey( uinfo ) ) || folded.containsKey( deletionKey( uinfo ) );
+            }
+
+            final String deleted = doc.get( ArtifactInfo.DELETED );
+
+            return deleted != null && folded.containsKey( deletionKey( deleted ) );
+        }
+
+        private String artifactKey( final String uinfo )
+        {
+            return ArtifactInfo.UINFO + ArtifactInfo.FS + uinfo;
+        }
+
+        private String deletionKey( final String uinfo )
+        {
+            return ArtifactInfo.DELETED + ArtifactInfo.FS + uinfo;
+        }
+
+        private void writeChunks( final List<String> chunks, final boolean append )
+            throws IOException
         {
             File chunksFile = new File( dir, CHUNKS_FILENAME );
-            BufferedOutputStream os = new BufferedOutputStream( new FileOutputStream( chunksFile, true ) );
+            BufferedOutputStream os = new BufferedOutputStream( new FileOutputStream( chunksFile, append ) );
             Writer w = new OutputStreamWriter( os, CHUNKS_FILE_ENCODING );
             try
             {
-                for ( String filename : newChunks )
+                for ( String filename : chunks )
                 {
                     w.write( filename + "\n" );
                 }
@@ -777,7 +1184,6 @@ public class DefaultIndexUpdater
                 IOUtil.close( w );
                 IOUtil.close( os );
             }
-            super.commit();
         }
 
         public List<String> getChunks()
@@ -860,10 +1266,7 @@ public class DefaultIndexUpdater
                 // if we have some incremental files, merge them in
                 if ( filenames != null )
                 {
-                    for ( String filename : filenames )
-                    {
-                        target.addIndexChunk( source, filename );
-                    }
+                    target.addIndexChunks( source, filenames );
 
                     result.setTimestamp(updateTimestamp);
                     result.setSuccessful(true);
@@ -907,10 +1310,7 @@ public class DefaultIndexUpdater
                 {
                     // local cache has inverse organization compared to remote indexes,
                     // i.e. initial index file and delta chunks to apply on top of it
-                    for ( String filename : ( (LocalIndexCacheFetcher) source ).getChunks() )
-                    {
-                        target.addIndexChunk( source, filename );
-                    }
+                    target.addIndexChunks( source, ( (LocalIndexCacheFetcher) source ).getChunks() );
                 }
             }
             catch ( IOException ex )
@@ -941,6 +1341,12 @@ public class DefaultIndexUpdater
      */
     protected void cleanCacheDirectory( File dir )
         throws IOException
+    {
+        cleanCacheDirectory( dir, false );
+    }
+
+    private void cleanCacheDirectory( File dir, boolean keepPartial )
+        throws IOException
     {
         File[] members = dir.listFiles();
         if ( members == null )
@@ -950,7 +1356,8 @@ public class DefaultIndexUpdater
 
         for ( File member : members )
         {
-            if ( !Locker.LOCK_FILE.equals( member.getName() ) )
+            if ( !Locker.LOCK_FILE.equals( member.getName() )
+                && !( keepPartial && member.getName().endsWith( ChunkDownloader.PART_SUFFIX ) ) )
             {
                 FileUtils.forceDelete( member );
             }
@@ -0,0 +1,230 @@
+package org.apache.maven.index.updater;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TimeZone;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * HTTP resource fetcher using the JDK {@link HttpURLConnection}, supporting conditional requests (If-None-Match,
+ * If-Modified-Since) and resuming of interrupted retrievals into files using range requests. A partially retrieved
+ * file is given the modification date of the resource, which is sent as If-Range when resuming, so the rest of a
+ * modified resource is never appended to it.
+ *
+ * @since 5.2
+ */
+public class HttpResourceFetcher
+    implements ConditionalResourceFetcher
+{
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+    private int connectTimeout = 30000;
+
+    private int readTimeout = 60000;
+
+    private String url;
+
+    public HttpResourceFetcher setConnectTimeout( final int connectTimeout )
+    {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    public HttpResourceFetcher setReadTimeout( final int readTimeout )
+    {
+        this.readTimeout = readTimeout;
+        return this;
+    }
+
+    public void connect( final String id, final String url )
+        throws IOException
+    {
+        this.url = url.endsWith( "/" ) ? url : url + "/";
+    }
+
+    public void disconnect()
+        throws IOException
+    {
+        // connections are not kept by this fetcher
+    }
+
+    public InputStream retrieve( final String name )
+        throws IOException, FileNotFoundException
+    {
+        return getInputStream( open( name ), name );
+    }
+
+    public InputStream retrieveIfModified( final String name, final Properties validators )
+        throws IOException, FileNotFoundException
+    {
+        final HttpURLConnection conn = open( name );
+
+        final String etag = validators.getProperty( ETAG );
+        if ( etag != null )
+        {
+            conn.setRequestProperty( "If-None-Match", etag );
+        }
+
+        final String lastModified = validators.getProperty( LAST_MODIFIED );
+        if ( lastModified != null )
+        {
+            conn.setIfModifiedSince( Long.parseLong( lastModified ) );
+        }
+
+        if ( conn.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED )
+        {
+            conn.disconnect();
+            return null;
+        }
+
+        final InputStream is = getInputStream( conn, name );
+
+        validators.clear();
+        if ( conn.getHeaderField( "ETag" ) != null )
+        {
+            validators.setProperty( ETAG, conn.getHeaderField( "ETag" ) );
+        }
+        if ( conn.getLastModified() > 0 )
+        {
+            validators.setProperty( LAST_MODIFIED, String.valueOf( conn.getLastModified() ) );
+        }
+
+        return is;
+    }
+
+    public void retrieve( final String name, final File targetFile )
+        throws IOException, FileNotFoundException
+    {
+        final long offset = targetFile.isFile() ? targetFile.length() : 0;
+
+        final HttpURLConnection conn = open( name );
+
+        if ( offset > 0 )
+        {
+            conn.setRequestProperty( "Range", "bytes=" + offset + "-" );
+            conn.setRequestProperty( "If-Range", formatDate( targetFile.lastModified() ) );
+        }
+
+        if ( conn.getResponseCode() == HTTP_RANGE_NOT_SATISFIABLE )
+        {
+            // the file is not shorter than the resource, start over
+            conn.disconnect();
+            targetFile.delete();
+            retrieve( name, targetFile );
+            return;
+        }
+
+        final boolean append = conn.getResponseCode() == HttpURLConnection.HTTP_PARTIAL;
+
+        if ( append )
+        {
+            final String range = conn.getHeaderField( "Content-Range" );
+
+            if ( range == null || !range.startsWith( "bytes " + offset + "-" ) )
+            {
+                conn.disconnect();
+                throw new IOException( "Unexpected range " + range + " retrieving " + name );
+            }
+        }
+
+        final InputStream is = append ? conn.getInputStream() : getInputStream( conn, name );
+        final long lastModified = conn.getLastModified();
+        final long length = conn.getContentLengthLong();
+
+        OutputStream os = null;
+        try
+        {
+            os = new FileOutputStream( targetFile, append );
+            IOUtil.copy( is, os );
+        }
+        finally
+        {
+            IOUtil.close( os );
+            IOUtil.close( is );
+
+            // also when interrupted, so the retrieval may be resumed
+            if ( lastModified > 0 )
+            {
+                targetFile.setLastModified( lastModified );
+            }
+        }
+
+        if ( length >= 0 && targetFile.length() != ( append ? offset : 0 ) + length )
+        {
+            throw new IOException( "Premature end of " + name );
+        }
+    }
+
+    // ==
+
+    private HttpURLConnection open( final String name )
+        throws IOException
+    {
+        if ( url == null )
+        {
+            throw new IOException( "Fetcher is not connected" );
+        }
+
+        final HttpURLConnection conn = (HttpURLConnection) new URL( url + name ).openConnection();
+        conn.setConnectTimeout( connectTimeout );
+        conn.setReadTimeout( readTimeout );
+        conn.setUseCaches( false );
+        return conn;
+    }
+
+    private InputStream getInputStream( final HttpURLConnection conn, final String name )
+        throws IOException
+    {
+        final int code = conn.getResponseCode();
+
+        if ( code == HttpURLConnection.HTTP_NOT_FOUND )
+        {
+            conn.disconnect();
+            throw new FileNotFoundException( "Resource " + name + " does not exist" );
+        }
+        else if ( code != HttpURLConnection.HTTP_OK )
+        {
+            conn.disconnect();
+            throw new IOException( "Cannot retrieve " + name + ": " + code + " " + conn.getResponseMessage() );
+        }
+
+        return conn.getInputStream();
+    }
+
+    private static String formatDate( final long date )
+    {
+        final SimpleDateFormat df = new SimpleDateFormat( "EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US );
+        df.setTimeZone( TimeZone.getTimeZone( "GMT" ) );
+        return df.format( new Date( date ) );
+    }
+}
@@ -20,19 +20,31 @@ package org.apache.maven.index.updater;
  */
 
 import java.io.BufferedInputStream;
-import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.UTFDataFormatException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.GZIPInputStream;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Index;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.maven.index.context.DocumentFilter;
 import org.apache.maven.index.context.IndexUtils;
 import org.apache.maven.index.context.IndexingContext;
 
@@ -43,11 +55,34 @@ import org.apache.maven.index.context.IndexingContext;
  */
 public class IndexDataReader
 {
+    private static final int BATCH_SIZE = 256;
+
     private final DataInputStream dis;
 
+    private final int threads;
+
+    // scratch buffers of UTF decoding, reused across fields and documents
+    private byte[] bytearr = new byte[1024];
+
+    private char[] chararr = new char[1024];
+
     public IndexDataReader( InputStream is )
         throws IOException
     {
+        this( is, 1 );
+    }
+
+    /**
+     * Creates a reader that, when reading into an {@link IndexWriter}, rebuilds and adds documents using given count of
+     * worker threads, while the calling thread keeps inflating and parsing the input.
+     * 
+     * @since 5.2
+     */
+    public IndexDataReader( InputStream is, int threads )
+        throws IOException
+    {
+        this.threads = threads;
+
         BufferedInputStream bis = new BufferedInputStream( is, 1024 * 8 );
 
         // MINDEXER-13
@@ -71,6 +106,46 @@ public class IndexDataReader
 
     public IndexDataReadResult readIndex( IndexWriter w, IndexingContext context )
         throws IOException
+    {
+        return readIndex( w, context, null );
+    }
+
+    /**
+     * Reads index data into the writer, skipping documents not accepted by the filter, and commits the writer.
+     * 
+     * @param w the writer to add documents to
+     * @param context the context whose index creators update read documents
+     * @param filter the filter of documents to add, may be {@code null}
+     * @since 5.2
+     */
+    public IndexDataReadResult readIndex( IndexWriter w, IndexingContext context, DocumentFilter filter )
+        throws IOException
+    {
+        IndexDataReadResult result = readDocuments( w, context, filter );
+
+        if ( result.getTimestamp() != null )
+        {
+            IndexUtils.updateTimestamp( w.getDirectory(), result.getTimestamp() );
+        }
+
+        // no force merge here, segments are merged (if at all) once index data reached its final place
+        w.commit();
+
+        return result;
+    }
+
+    /**
+     * Reads index data into the writer, skipping documents not accepted by the filter. Unlike
+     * {@link #readIndex(IndexWriter, IndexingContext, DocumentFilter)} it neither commits the writer, nor stores the
+     * timestamp into its directory, so it may be used to stream documents into a live index.
+     * 
+     * @param w the writer to add documents to
+     * @param context the context whose index creators update read documents
+     * @param filter the filter of documents to add, may be {@code null}
+     * @since 5.2
+     */
+    public IndexDataReadResult readDocuments( IndexWriter w, IndexingContext context, DocumentFilter filter )
+        throws IOException
     {
         long timestamp = readHeader();
 
@@ -79,24 +154,26 @@ public class IndexDataReader
         if ( timestamp != -1 )
         {
             date = new Date( timestamp );
-
-            IndexUtils.updateTimestamp( w.getDirectory(), date );
         }
 
-        int n = 0;
+        int n;
 
-        Document doc;
-        while ( ( doc = readDocument() ) != null )
+        if ( threads > 1 )
         {
-            w.addDocument( IndexUtils.updateDocument( doc, context, false ) );
-
-            n++;
+            n = addDocumentsInParallel( w, context, filter );
         }
+        else
+        {
+            n = 0;
 
-        w.commit();
-        
-        w.forceMerge(1);
-        w.commit();
+            Document doc;
+            while ( ( doc = readDocument( filter ) ) != null )
+            {
+                w.addDocument( IndexUtils.updateDocument( doc, context, false ) );
+
+                n++;
+            }
+        }
 
         IndexDataReadResult result = new IndexDataReadResult();
         result.setDocumentCount( n );
@@ -104,6 +181,151 @@ public class IndexDataReader
         return result;
     }
 
+    /**
+     * Parses documents on the calling thread and hands them over in batches to worker threads, that rebuild them using
+     * index creators and add them to the (thread safe) index writer concurrently. Order of documents in the resulting
+     * index is not preserved.
+     */
+    private int addDocumentsInParallel( final IndexWriter w, final IndexingContext context,
+                                        final DocumentFilter filter )
+        throws IOException
+    {
+        final BlockingQueue<List<Document>> queue = new ArrayBlockingQueue<List<Document>>( threads * 2 );
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final List<Document> endOfData = Collections.emptyList();
+
+        final ExecutorService executor = Executors.newFixedThreadPool( threads, new ThreadFactory()
+        {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread( final Runnable r )
+            {
+                final Thread thread = new Thread( r, "nexus-indexer-import-" + count.incrementAndGet() );
+                thread.setDaemon( true );
+                return thread;
+            }
+        } );
+
+        for ( int i = 0; i < threads; i++ )
+        {
+            executor.execute( new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        List<Document> batch;
+                        while ( ( batch = queue.take() ) != endOfData )
+                        {
+                            // after a failure keep draining, so reader is never blocked
+                            if ( failure.get() == null )
+                            {
+                                try
+                                {
+                                    for ( Document doc : batch )
+                                    {
+                                        w.addDocument( IndexUtils.updateDocument( doc, context, false ) );
+                                    }
+                                }
+                                catch ( Throwable e )
+                                {
+                                    failure.compareAndSet( null, e );
+                                }
+                            }
+                        }
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        failure.compareAndSet( null, e );
+                    }
+                }
+            } );
+        }
+
+        int n = 0;
+
+        boolean done = false;
+
+        try
+        {
+            List<Document> batch = new ArrayList<Document>( BATCH_SIZE );
+
+            Document doc;
+            while ( failure.get() == null && ( doc = readDocument( filter ) ) != null )
+            {
+                batch.add( doc );
+
+                n++;
+
+                if ( batch.size() == BATCH_SIZE )
+                {
+                    queue.put( batch );
+
+                    batch = new ArrayList<Document>( BATCH_SIZE );
+                }
+            }
+
+            if ( !batch.isEmpty() )
+            {
+                queue.put( batch );
+            }
+
+            for ( int i = 0; i < threads; i++ )
+            {
+                queue.put( endOfData );
+            }
+
+            executor.shutdown();
+
+            executor.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
+
+            done = true;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+
+            throw (IOException) new InterruptedIOException( "Interrupted while reading index data" ).initCause( e );
+        }
+        finally
+        {
+            if ( !done )
+            {
+                // reader failed: drop pending batches and stop workers once they finish their current one, they are
+                // not interrupted, as that would close the files of the index writer
+                queue.clear();
+
+                for ( int i = 0; i < threads; i++ )
+                {
+                    queue.offer( endOfData );
+                }
+
+                executor.shutdown();
+            }
+        }
+
+        final Throwable e = failure.get();
+
+        if ( e instanceof IOException )
+        {
+            throw (IOException) e;
+        }
+        else if ( e instanceof RuntimeException )
+        {
+            throw (RuntimeException) e;
+        }
+        else if ( e instanceof Error )
+        {
+            throw (Error) e;
+        }
+        else if ( e != null )
+        {
+            throw new IOException( "Cannot add documents to index", e );
+        }
+
+        return n;
+    }
+
     public long readHeader()
         throws IOException
     {
@@ -118,6 +340,25 @@ public class IndexDataReader
         return dis.readLong();
     }
 
+    /**
+     * Reads the next document accepted by the filter, or returns {@code null} if there are no more documents.
+     */
+    private Document readDocument( final DocumentFilter filter )
+        throws IOException
+    {
+        Document doc;
+
+        while ( ( doc = readDocument() ) != null )
+        {
+            if ( filter == null || filter.accept( doc ) )
+            {
+                return doc;
+            }
+        }
+
+        return null;
+    }
+
     public Document readDocument()
         throws IOException
     {
@@ -159,24 +400,23 @@ public class IndexDataReader
             store = Store.YES;
         }
 
-        String name = dis.readUTF();
-        String value = readUTF( dis );
+        String name = readUTF( dis.readUnsignedShort() );
+        String value = readUTF( dis.readInt() );
 
         return new Field( name, value, store, index );
     }
 
-    private static String readUTF( DataInput in )
+    private String readUTF( final int utflen )
         throws IOException
     {
-        int utflen = in.readInt();
-
-        byte[] bytearr;
-        char[] chararr;
-
         try
         {
-            bytearr = new byte[utflen];
-            chararr = new char[utflen];
+            if ( bytearr.length < utflen )
+            {
+                final int size = Math.max( utflen, bytearr.length * 2 );
+                bytearr = new byte[size];
+                chararr = new char[size];
+            }
         }
         catch ( OutOfMemoryError e )
         {
@@ -191,7 +431,7 @@ public class IndexDataReader
         int count = 0;
         int chararr_count = 0;
 
-        in.readFully( bytearr, 0, utflen );
+        dis.readFully( bytearr, 0, utflen );
 
         while ( count < utflen )
         {
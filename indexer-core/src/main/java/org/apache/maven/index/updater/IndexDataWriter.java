@@ -20,20 +20,33 @@ package org.apache.maven.index.updater;
  */
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.GZIPOutputStream;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.MultiFields;
@@ -42,6 +55,7 @@ import org.apache.lucene.util.Bits;
 import org.apache.maven.index.ArtifactInfo;
 import org.apache.maven.index.context.DefaultIndexingContext;
 import org.apache.maven.index.context.IndexingContext;
+import org.apache.maven.index.util.zip.ParallelGZIPOutputStream;
 
 /**
  * An index data writer used to write transfer index format.
@@ -60,12 +74,16 @@ public class IndexDataWriter
 
     static final int F_COMPRESSED = 8;
 
+    private static final int BLOCK_DOCS = 1024;
+
     private final DataOutputStream dos;
 
-    private final GZIPOutputStream gos;
+    private final OutputStream gos;
 
     private final BufferedOutputStream bos;
 
+    private final int threads;
+
     private final Set<String> allGroups;
 
     private final Set<String> rootGroups;
@@ -74,11 +92,42 @@ public class IndexDataWriter
 
     public IndexDataWriter( OutputStream os )
         throws IOException
+    {
+        this( os, 1 );
+    }
+
+    /**
+     * Creates a writer serializing documents and compressing on given count of threads. Values above 1 make documents
+     * be loaded and serialized in blocks by worker threads, and compressed by a {@link ParallelGZIPOutputStream}; the
+     * written data is identical to the data written by a single threaded writer, only compressed differently.
+     * 
+     * @param os the stream to write to
+     * @param threads the count of threads serializing documents, and the count of threads compressing them
+     * @since 5.2
+     */
+    public IndexDataWriter( OutputStream os, int threads )
+        throws IOException
     {
         bos = new BufferedOutputStream( os, 1024 * 8 );
-        gos = new GZIPOutputStream( bos, 1024 * 2 );
+        gos = threads > 1 ? new ParallelGZIPOutputStream( bos, threads ) : new GZIPOutputStream( bos, 1024 * 2 );
         dos = new DataOutputStream( gos );
 
+        this.threads = threads;
+        this.allGroups = new HashSet<String>();
+        this.rootGroups = new HashSet<String>();
+        this.descriptorWritten = false;
+    }
+
+    /**
+     * Writer of a single block of documents, see {@link #writeDocumentsInParallel(IndexReader, List)}.
+     */
+    private IndexDataWriter( DataOutputStream dos )
+    {
+        this.bos = null;
+        this.gos = null;
+        this.dos = dos;
+
+        this.threads = 1;
         this.allGroups = new HashSet<String>();
         this.rootGroups = new HashSet<String>();
         this.descriptorWritten = false;
@@ -113,17 +162,34 @@ public class IndexDataWriter
         dos.flush();
 
         gos.flush();
-        gos.finish();
+        if ( gos instanceof ParallelGZIPOutputStream )
+        {
+            ( (ParallelGZIPOutputStream) gos ).finish();
+        }
+        else
+        {
+            ( (GZIPOutputStream) gos ).finish();
+        }
 
         bos.flush();
     }
 
     public void writeHeader( IndexingContext context )
         throws IOException
+    {
+        writeHeader( context.getTimestamp() );
+    }
+
+    /**
+     * Writes the header with given timestamp, or with none if {@code null}.
+     * 
+     * @since 5.2
+     */
+    public void writeHeader( Date timestamp )
+        throws IOException
     {
         dos.writeByte( VERSION );
 
-        Date timestamp = context.getTimestamp();
         dos.writeLong( timestamp == null ? -1 : timestamp.getTime() );
     }
 
@@ -148,6 +214,11 @@ public class IndexDataWriter
     public int writeDocuments( IndexReader r, List<Integer> docIndexes )
         throws IOException
     {
+        if ( threads > 1 )
+        {
+            return writeDocumentsInParallel( r, docIndexes );
+        }
+
         int n = 0;
         Bits liveDocs = MultiFields.getLiveDocs(r);
 
@@ -181,6 +252,223 @@ public class IndexDataWriter
         return n;
     }
 
+    /**
+     * Loads and serializes documents in blocks on worker threads, reading all documents segment by segment, or the
+     * given documents in list order. Blocks are written in order on the calling thread, skipping the descriptor of
+     * blocks other than the first one having it, so the written data is the same as written by
+     * {@link #writeDocument(Document)} one by one.
+     */
+    private int writeDocumentsInParallel( final IndexReader r, final List<Integer> docIndexes )
+        throws IOException
+    {
+        final List<BlockWriter> blocks = new ArrayList<BlockWriter>();
+
+        if ( docIndexes == null )
+        {
+            for ( AtomicReaderContext leaf : r.leaves() )
+            {
+                final AtomicReader reader = leaf.reader();
+
+                for ( int from = 0; from < reader.maxDoc(); from += BLOCK_DOCS )
+                {
+                    blocks.add( new BlockWriter( reader, reader.getLiveDocs(), null, from,
+                        Math.min( from + BLOCK_DOCS, reader.maxDoc() ) ) );
+                }
+            }
+        }
+        else
+        {
+            final Bits liveDocs = MultiFields.getLiveDocs( r );
+
+            for ( int from = 0; from < docIndexes.size(); from += BLOCK_DOCS )
+            {
+                blocks.add( new BlockWriter( r, liveDocs, docIndexes, from,
+                    Math.min( from + BLOCK_DOCS, docIndexes.size() ) ) );
+            }
+        }
+
+        final ThreadPoolExecutor executor =
+            new ThreadPoolExecutor( threads, threads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory()
+                {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    public Thread newThread( final Runnable r )
+                    {
+                        final Thread thread = new Thread( r, "nexus-indexer-export-" + count.incrementAndGet() );
+                        thread.setDaemon( true );
+                        return thread;
+                    }
+                } );
+
+        final ArrayDeque<Future<Block>> pending = new ArrayDeque<Future<Block>>();
+
+        try
+        {
+            int n = 0;
+
+            for ( BlockWriter block : blocks )
+            {
+                pending.add( executor.submit( block ) );
+
+                // bound the count of serialized blocks held in memory
+                if ( pending.size() > threads * 2 )
+                {
+                    n += writeBlock( pending.poll() );
+                }
+            }
+
+            while ( !pending.isEmpty() )
+            {
+                n += writeBlock( pending.poll() );
+            }
+
+            return n;
+        }
+        finally
+        {
+            // workers are not interrupted, as that would close the files of the shared index reader
+            for ( Future<Block> future : pending )
+            {
+                future.cancel( false );
+            }
+
+            executor.shutdown();
+        }
+    }
+
+    private int writeBlock( final Future<Block> future )
+        throws IOException
+    {
+        final Block block;
+        try
+        {
+            block = future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+
+            throw (IOException) new InterruptedIOException( "Interrupted while writing index data" ).initCause( e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof IOException )
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException( "Cannot write index data", e.getCause() );
+        }
+
+        allGroups.addAll( block.writer.allGroups );
+        rootGroups.addAll( block.writer.rootGroups );
+
+        final byte[] data = block.data;
+
+        if ( block.descriptorStart < 0 )
+        {
+            dos.write( data );
+            return block.count;
+        }
+        else if ( !descriptorWritten )
+        {
+            descriptorWritten = true;
+            dos.write( data );
+            return block.count;
+        }
+        else
+        {
+            dos.write( data, 0, block.descriptorStart );
+            dos.write( data, block.descriptorEnd, data.length - block.descriptorEnd );
+            return block.count - 1;
+        }
+    }
+
+    private static class Block
+    {
+        private final IndexDataWriter writer;
+
+        private final byte[] data;
+
+        private final int count;
+
+        private final int descriptorStart;
+
+        private final int descriptorEnd;
+
+        Block( final IndexDataWriter writer, final byte[] data, final int count, final int descriptorStart,
+               final int descriptorEnd )
+        {
+            this.writer = writer;
+            this.data = data;
+            this.count = count;
+            this.descriptorStart = descriptorStart;
+            this.descriptorEnd = descriptorEnd;
+        }
+    }
+
+    private static class BlockWriter
+        implements Callable<Block>
+    {
+        private final IndexReader reader;
+
+        private final Bits liveDocs;
+
+        private final List<Integer> docIndexes;
+
+        private final int from;
+
+        private final int to;
+
+        BlockWriter( final IndexReader reader, final Bits liveDocs, final List<Integer> docIndexes, final int from,
+                     final int to )
+        {
+            this.reader = reader;
+            this.liveDocs = liveDocs;
+            this.docIndexes = docIndexes;
+            this.from = from;
+            this.to = to;
+        }
+
+        public Block call()
+            throws IOException
+        {
+            final ByteArrayOutputStream buf = new ByteArrayOutputStream( 64 * 1024 );
+            final DataOutputStream out = new DataOutputStream( buf );
+            final IndexDataWriter writer = new IndexDataWriter( out );
+
+            int n = 0;
+            int descriptorStart = -1;
+            int descriptorEnd = -1;
+
+            for ( int i = from; i < to; i++ )
+            {
+                final int doc = docIndexes == null ? i : docIndexes.get( i );
+
+                if ( liveDocs == null || liveDocs.get( doc ) )
+                {
+                    final boolean hadDescriptor = writer.descriptorWritten;
+                    final int start = out.size();
+
+                    if ( writer.writeDocument( reader.document( doc ) ) )
+                    {
+                        n++;
+                    }
+
+                    if ( !hadDescriptor && writer.descriptorWritten )
+                    {
+                        descriptorStart = start;
+                        descriptorEnd = out.size();
+                    }
+                }
+            }
+
+            out.flush();
+
+            return new Block( writer, buf.toByteArray(), n, descriptorStart, descriptorEnd );
+        }
+    }
+
     public boolean writeDocument( final Document document )
         throws IOException
     {
@@ -45,6 +45,8 @@ public class IndexUpdateRequest
 
     private File localIndexCacheDir;
 
+    private int localIndexCacheCompactionThreshold;
+
     private Locker locker;
 
     private boolean offline;
@@ -53,6 +55,14 @@ public class IndexUpdateRequest
 
     private FSDirectoryFactory directoryFactory;
 
+    private int threads = 1;
+
+    private int concurrentDownloads = 1;
+
+    private int maxSegments;
+
+    private boolean mergeInBackground;
+
     public IndexUpdateRequest( final IndexingContext context, final ResourceFetcher resourceFetcher )
     {
         assert context != null : "Context to be updated cannot be null!";
@@ -114,6 +124,28 @@ public class IndexUpdateRequest
         this.localIndexCacheDir = dir;
     }
 
+    /**
+     * Returns the count of chunks listed by the local index cache at which they are folded into its index file, or 0 if
+     * the cache is never compacted.
+     */
+    public int getLocalIndexCacheCompactionThreshold()
+    {
+        return localIndexCacheCompactionThreshold;
+    }
+
+    /**
+     * Sets the count of incremental chunks the local index cache accumulates before they are folded, with its index
+     * file, into a new index file, so restoring an index from the cache does not get slower with every update. The
+     * cache is compacted under its lock (see {@link #setLocker(Locker)}) when committing an update. Zero (the default)
+     * never compacts the cache.
+     * 
+     * @since 5.2
+     */
+    public void setLocalIndexCacheCompactionThreshold( int localIndexCacheCompactionThreshold )
+    {
+        this.localIndexCacheCompactionThreshold = localIndexCacheCompactionThreshold;
+    }
+
     public Locker getLocker()
     {
         return locker;
@@ -153,4 +185,80 @@ public class IndexUpdateRequest
     {
         return directoryFactory != null ? directoryFactory : FSDirectoryFactory.DEFAULT;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the count of threads rebuilding and indexing documents while a downloaded full index is unpacked.
+     * Incremental chunks are always read by a single thread, as their documents are applied in order.
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Sets the count of threads rebuilding and indexing documents while a downloaded full index is unpacked, values
+     * above 1 make unpacking run in parallel with download and decompression. Does not apply to incremental chunks.
+     * 
+     * @since 5.2
+     */
+    public void setThreads( int threads )
+    {
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the count of incremental chunks downloaded concurrently.
+     */
+    public int getConcurrentDownloads()
+    {
+        return concurrentDownloads;
+    }
+
+    /**
+     * Sets the count of incremental chunks downloaded concurrently, ahead of being merged in order. With the default of
+     * 1, chunks are still downloaded ahead of merging, but one at a time. Values above 1 require the resource fetcher
+     * to support concurrent retrieval.
+     * 
+     * @since 5.2
+     */
+    public void setConcurrentDownloads( int concurrentDownloads )
+    {
+        this.concurrentDownloads = concurrentDownloads;
+    }
+
+    /**
+     * Returns the count of segments the index is force merged into after an update, or 0 if segment merging is left
+     * to the merge policy of the index writer.
+     */
+    public int getMaxSegments()
+    {
+        return maxSegments;
+    }
+
+    /**
+     * Sets the count of segments the index is force merged into after an update. Zero (the default) skips the force
+     * merge, leaving segment merging to the merge policy of the index writer, and saves rewriting the whole index.
+     * 
+     * @since 5.2
+     */
+    public void setMaxSegments( int maxSegments )
+    {
+        this.maxSegments = maxSegments;
+    }
+
+    public boolean isMergeInBackground()
+    {
+        return mergeInBackground;
+    }
+
+    /**
+     * Sets whether the force merge after an update (see {@link #setMaxSegments(int)}) runs in background, so the update
+     * returns without waiting for it. Merged segments are committed with the next commit of the context.
+     * 
+     * @since 5.2
+     */
+    public void setMergeInBackground( boolean mergeInBackground )
+    {
+        this.mergeInBackground = mergeInBackground;
+    }
+}
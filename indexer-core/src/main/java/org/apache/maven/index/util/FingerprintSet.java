@@ -0,0 +1,149 @@
+package org.apache.maven.index.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Thread safe set of strings that keeps only a 128 bit (MD5) fingerprint of every member, in a primitive open
+ * addressing table. The table is kept at most half full, and doubles when it is not, so it costs 32 bytes per member
+ * right before it doubles, and 64 bytes right after, regardless of member length. As members are not retained, they
+ * cannot be enumerated; and while fingerprint collisions are theoretically possible, for sets of UINFOs their
+ * probability is negligible.
+ *
+ * @since 5.2
+ */
+public class FingerprintSet
+{
+    private static final Charset UTF8 = Charset.forName( "UTF-8" );
+
+    // pairs of longs, both zero means empty slot
+    private long[] table = new long[2 * 1024];
+
+    private int size;
+
+    /**
+     * Adds the value to the set.
+     *
+     * @return {@code true} if value was not member of this set.
+     */
+    public boolean add( final String value )
+    {
+        final byte[] digest = digest( value );
+
+        long hi = toLong( digest, 0 );
+        long lo = toLong( digest, 8 );
+        if ( hi == 0 && lo == 0 )
+        {
+            lo = 1;
+        }
+
+        synchronized ( this )
+        {
+            if ( insert( table, hi, lo ) )
+            {
+                size++;
+
+                if ( size * 4 > table.length )
+                {
+                    rehash();
+                }
+
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    public synchronized int size()
+    {
+        return size;
+    }
+
+    // ==
+
+    private void rehash()
+    {
+        final long[] newTable = new long[table.length * 2];
+
+        for ( int i = 0; i < table.length; i += 2 )
+        {
+            if ( table[i] != 0 || table[i + 1] != 0 )
+            {
+                insert( newTable, table[i], table[i + 1] );
+            }
+        }
+
+        table = newTable;
+    }
+
+    private static boolean insert( final long[] table, final long hi, final long lo )
+    {
+        final int mask = ( table.length >> 1 ) - 1;
+
+        int slot = (int) lo & mask;
+
+        while ( true )
+        {
+            final int i = slot << 1;
+
+            if ( table[i] == 0 && table[i + 1] == 0 )
+            {
+                table[i] = hi;
+                table[i + 1] = lo;
+                return true;
+            }
+            else if ( table[i] == hi && table[i + 1] == lo )
+            {
+                return false;
+            }
+
+            slot = ( slot + 1 ) & mask;
+        }
+    }
+
+    private static byte[] digest( final String value )
+    {
+        try
+        {
+            return MessageDigest.getInstance( "MD5" ).digest( value.getBytes( UTF8 ) );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            // MD5 is mandatory on every JVM
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static long toLong( final byte[] b, final int off )
+    {
+        long result = 0;
+
+        for ( int i = off; i < off + 8; i++ )
+        {
+            result = ( result << 8 ) | ( b[i] & 0xFF );
+        }
+
+        return result;
+    }
+}
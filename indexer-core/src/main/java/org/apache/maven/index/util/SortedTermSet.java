@@ -0,0 +1,176 @@
+package org.apache.maven.index.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.PagedBytes;
+import org.apache.lucene.util.packed.MonotonicAppendingLongBuffer;
+
+/**
+ * Compact, read-mostly set of terms, meant to hold huge amounts of index terms (like all the UINFOs of an index). Terms
+ * are kept as UTF-8 bytes in paged blocks and located by binary search, so the set costs roughly the terms' byte size
+ * instead of a {@code String} and a hash entry per term. Terms must be added in ascending (unsigned byte) order, which
+ * is the order a Lucene {@code TermsEnum} delivers them in. Once {@link #freeze() frozen}, the set is safe for use by
+ * multiple threads, and members may be {@link #mark(String) marked} (for example as "seen").
+ *
+ * @since 5.2
+ */
+public class SortedTermSet
+{
+    private static final int BLOCK_BITS = 15;
+
+    private final PagedBytes bytes = new PagedBytes( BLOCK_BITS );
+
+    private final MonotonicAppendingLongBuffer pointers = new MonotonicAppendingLongBuffer();
+
+    private final BytesRef last = new BytesRef();
+
+    private PagedBytes.Reader reader;
+
+    private FixedBitSet marked;
+
+    private int size;
+
+    /**
+     * Adds a term. Terms must be added in strictly ascending order, and only before the set is frozen.
+     */
+    public void add( final BytesRef term )
+    {
+        if ( reader != null )
+        {
+            throw new IllegalStateException( "Set is frozen" );
+        }
+        if ( size > 0 && last.compareTo( term ) >= 0 )
+        {
+            throw new IllegalArgumentException( "Terms must be added in ascending order: " + term.utf8ToString()
+                + " after " + last.utf8ToString() );
+        }
+
+        pointers.add( bytes.copyUsingLengthPrefix( term ) );
+        last.copyBytes( term );
+        size++;
+    }
+
+    /**
+     * Freezes the set, no more terms may be added after this call.
+     */
+    public void freeze()
+    {
+        if ( reader == null )
+        {
+            reader = bytes.freeze( true );
+            pointers.freeze();
+            marked = new FixedBitSet( size );
+        }
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Marks the given term if it is member of this set.
+     *
+     * @return {@code true} if term is member of this set (whether it was marked already or not).
+     */
+    public boolean mark( final String term )
+    {
+        final int index = indexOf( new BytesRef( term ) );
+
+        if ( index < 0 )
+        {
+            return false;
+        }
+
+        synchronized ( marked )
+        {
+            marked.set( index );
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the member at given position, filling in the passed in scratch.
+     */
+    public BytesRef get( final int index, final BytesRef scratch )
+    {
+        checkFrozen();
+
+        reader.fill( scratch, pointers.get( index ) );
+        return scratch;
+    }
+
+    /**
+     * Returns true if member at given position is marked.
+     */
+    public boolean isMarked( final int index )
+    {
+        checkFrozen();
+
+        synchronized ( marked )
+        {
+            return marked.get( index );
+        }
+    }
+
+    // ==
+
+    private int indexOf( final BytesRef term )
+    {
+        checkFrozen();
+
+        final BytesRef scratch = new BytesRef();
+
+        int low = 0;
+        int high = size - 1;
+
+        while ( low <= high )
+        {
+            final int mid = ( low + high ) >>> 1;
+            final int cmp = get( mid, scratch ).compareTo( term );
+
+            if ( cmp < 0 )
+            {
+                low = mid + 1;
+            }
+            else if ( cmp > 0 )
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                return mid;
+            }
+        }
+
+        return -1;
+    }
+
+    private void checkFrozen()
+    {
+        if ( reader == null )
+        {
+            throw new IllegalStateException( "Set is not frozen yet" );
+        }
+    }
+}
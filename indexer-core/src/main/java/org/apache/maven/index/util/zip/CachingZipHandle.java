@@ -0,0 +1,100 @@
+package org.apache.maven.index.util.zip;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0    
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A {@link ZipHandle} wrapper that reads the entry list of the wrapped handle only once, and answers
+ * {@link #hasEntry(String)} and {@link #getEntries()} calls from that in-memory index. Meant to be shared by all the
+ * consumers of the same archive (ie. all index creators processing one artifact).
+ * 
+ * @since 5.2
+ */
+public class CachingZipHandle
+    implements ZipHandle
+{
+    private final ZipHandle delegate;
+
+    private final List<String> entries;
+
+    private final Set<String> entrySet;
+
+    public CachingZipHandle( final ZipHandle delegate )
+    {
+        this.delegate = delegate;
+        this.entries = Collections.unmodifiableList( delegate.getEntries() );
+        this.entrySet = new HashSet<String>( entries );
+    }
+
+    public boolean hasEntry( String path )
+        throws IOException
+    {
+        return entrySet.contains( path );
+    }
+
+    public List<String> getEntries()
+    {
+        return entries;
+    }
+
+    public List<String> getEntries( EntryNameFilter filter )
+    {
+        if ( filter == null )
+        {
+            return entries;
+        }
+
+        ArrayList<String> result = new ArrayList<String>();
+
+        for ( String name : entries )
+        {
+            if ( filter.accepts( name ) )
+            {
+                result.add( name );
+            }
+        }
+
+        return result;
+    }
+
+    public InputStream getEntryContent( String path )
+        throws IOException
+    {
+        if ( !entrySet.contains( path ) )
+        {
+            return null;
+        }
+
+        return delegate.getEntryContent( path );
+    }
+
+    public void close()
+        throws IOException
+    {
+        delegate.close();
+    }
+}
@@ -0,0 +1,310 @@
+package org.apache.maven.index.util.zip;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Output stream writing a standard GZIP stream, readable by any {@link java.util.zip.GZIPInputStream}, while
+ * compressing on multiple threads. Written data is cut into fixed size blocks that are deflated concurrently, each
+ * primed with the last 32KB of its predecessor as dictionary (so compression ratio stays close to a single threaded
+ * deflate), and ended on a byte boundary using a sync flush, so compressed blocks can simply be concatenated in order.
+ * The CRC of the data is computed on the writing thread. The last block is finished, followed by the GZIP trailer, when
+ * {@link #finish()} or {@link #close()} is invoked.
+ *
+ * @since 5.2
+ */
+public class ParallelGZIPOutputStream
+    extends OutputStream
+{
+    private static final int BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final byte[] HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+
+    private final OutputStream out;
+
+    private final ThreadPoolExecutor executor;
+
+    private final int maxPending;
+
+    private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>();
+
+    private final CRC32 crc = new CRC32();
+
+    private byte[] block = new byte[BLOCK_SIZE];
+
+    private int count;
+
+    private byte[] previous;
+
+    private long size;
+
+    private boolean finished;
+
+    public ParallelGZIPOutputStream( final OutputStream out, final int threads )
+        throws IOException
+    {
+        this.out = out;
+        this.maxPending = threads * 2;
+        this.executor =
+            new ThreadPoolExecutor( threads, threads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory()
+                {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    public Thread newThread( final Runnable r )
+                    {
+                        final Thread thread = new Thread( r, "nexus-indexer-gzip-" + count.incrementAndGet() );
+                        thread.setDaemon( true );
+                        return thread;
+                    }
+                } );
+        // do not keep idle threads of an abandoned stream around
+        this.executor.allowCoreThreadTimeOut( true );
+
+        out.write( HEADER );
+    }
+
+    @Override
+    public void write( final int b )
+        throws IOException
+    {
+        write( new byte[] { (byte) b }, 0, 1 );
+    }
+
+    @Override
+    public void write( final byte[] b, int off, int len )
+        throws IOException
+    {
+        if ( finished )
+        {
+            throw new IOException( "Stream is already finished" );
+        }
+
+        crc.update( b, off, len );
+        size += len;
+
+        while ( len > 0 )
+        {
+            final int n = Math.min( len, BLOCK_SIZE - count );
+
+            System.arraycopy( b, off, block, count, n );
+            count += n;
+            off += n;
+            len -= n;
+
+            if ( count == BLOCK_SIZE )
+            {
+                submit( false );
+            }
+        }
+    }
+
+    /**
+     * Writes out all the blocks compressed so far and flushes the underlying stream. Data of the current, partially
+     * filled block is not compressed before the block is full or the stream is finished.
+     */
+    @Override
+    public void flush()
+        throws IOException
+    {
+        while ( !pending.isEmpty() )
+        {
+            writePending();
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Compresses remaining data and writes the GZIP trailer, without closing the underlying stream.
+     */
+    public void finish()
+        throws IOException
+    {
+        if ( finished )
+        {
+            return;
+        }
+
+        try
+        {
+            submit( true );
+
+            while ( !pending.isEmpty() )
+            {
+                writePending();
+            }
+
+            writeInt( (int) crc.getValue() );
+            writeInt( (int) size );
+
+            finished = true;
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public void close()
+        throws IOException
+    {
+        try
+        {
+            finish();
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    // ==
+
+    private void submit( final boolean last )
+        throws IOException
+    {
+        pending.add( executor.submit( new Compressor( block, count, previous, last ) ) );
+
+        // blocks are never reused, the submitted one is the dictionary of the next one
+        previous = block;
+        block = new byte[BLOCK_SIZE];
+        count = 0;
+
+        while ( pending.size() > maxPending )
+        {
+            writePending();
+        }
+    }
+
+    private void writePending()
+        throws IOException
+    {
+        final Future<byte[]> future = pending.poll();
+
+        try
+        {
+            out.write( future.get() );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+
+            throw (IOException) new InterruptedIOException( "Interrupted while compressing" ).initCause( e );
+        }
+        catch ( ExecutionException e )
+        {
+            throw new IOException( "Cannot compress data", e.getCause() );
+        }
+    }
+
+    private void writeInt( final int i )
+        throws IOException
+    {
+        // little endian, as mandated by GZIP
+        out.write( i & 0xff );
+        out.write( ( i >> 8 ) & 0xff );
+        out.write( ( i >> 16 ) & 0xff );
+        out.write( ( i >> 24 ) & 0xff );
+    }
+
+    private static class Compressor
+        implements Callable<byte[]>
+    {
+        private final byte[] input;
+
+        private final int length;
+
+        private final byte[] dictionary;
+
+        private final boolean last;
+
+        Compressor( final byte[] input, final int length, final byte[] dictionary, final boolean last )
+        {
+            this.input = input;
+            this.length = length;
+            this.dictionary = dictionary;
+            this.last = last;
+        }
+
+        public byte[] call()
+        {
+            final Deflater deflater = new Deflater( Deflater.DEFAULT_COMPRESSION, true );
+
+            try
+            {
+                if ( dictionary != null )
+                {
+                    deflater.setDictionary( dictionary, dictionary.length - DICTIONARY_SIZE, DICTIONARY_SIZE );
+                }
+
+                deflater.setInput( input, 0, length );
+
+                final ByteArrayOutputStream result = new ByteArrayOutputStream( length / 2 + 64 );
+                final byte[] buf = new byte[8 * 1024];
+
+                if ( last )
+                {
+                    deflater.finish();
+
+                    while ( !deflater.finished() )
+                    {
+                        result.write( buf, 0, deflater.deflate( buf ) );
+                    }
+                }
+                else
+                {
+                    // output filling the whole buffer means there may be more pending
+                    int n;
+                    do
+                    {
+                        n = deflater.deflate( buf, 0, buf.length, Deflater.SYNC_FLUSH );
+                        result.write( buf, 0, n );
+                    }
+                    while ( n == buf.length );
+                }
+
+                return result.toByteArray();
+            }
+            finally
+            {
+                deflater.end();
+            }
+        }
+    }
+}
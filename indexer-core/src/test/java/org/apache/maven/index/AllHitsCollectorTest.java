@@ -0,0 +1,97 @@
+package org.apache.maven.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+
+public class AllHitsCollectorTest
+    extends AbstractNexusIndexerTest
+{
+    protected File repo = new File( getBasedir(), "src/test/repo" );
+
+    @Override
+    protected void prepareNexusIndexer( NexusIndexer nexusIndexer )
+        throws Exception
+    {
+        context = nexusIndexer.addIndexingContext( "test-all-hits", "test", repo, indexDir, null, null, MIN_CREATORS );
+
+        nexusIndexer.scan( context );
+    }
+
+    public void testSameOrderAsTopScoreDocCollector()
+        throws Exception
+    {
+        Query q = nexusIndexer.constructQuery( MAVEN.GROUP_ID, "org", SearchType.SCORED );
+
+        final IndexSearcher searcher = context.acquireIndexSearcher();
+        try
+        {
+            AllHitsCollector all = new AllHitsCollector( true );
+            searcher.search( q, all );
+            TopDocs allDocs = all.topDocs();
+
+            TopScoreDocCollector top = TopScoreDocCollector.create( searcher.getIndexReader().maxDoc(), true );
+            searcher.search( q, top );
+            TopDocs topDocs = top.topDocs();
+
+            assertTrue( topDocs.totalHits > 1 );
+            assertEquals( topDocs.totalHits, allDocs.totalHits );
+            assertEquals( topDocs.getMaxScore(), allDocs.getMaxScore() );
+            for ( int i = 0; i < topDocs.scoreDocs.length; i++ )
+            {
+                assertEquals( topDocs.scoreDocs[i].doc, allDocs.scoreDocs[i].doc );
+                assertEquals( topDocs.scoreDocs[i].score, allDocs.scoreDocs[i].score );
+            }
+        }
+        finally
+        {
+            context.releaseIndexSearcher( searcher );
+        }
+    }
+
+    public void testWithoutScores()
+        throws Exception
+    {
+        Query q = nexusIndexer.constructQuery( MAVEN.GROUP_ID, "org", SearchType.SCORED );
+
+        final IndexSearcher searcher = context.acquireIndexSearcher();
+        try
+        {
+            AllHitsCollector all = new AllHitsCollector( false );
+            searcher.search( q, all );
+            TopDocs allDocs = all.topDocs();
+
+            assertTrue( allDocs.totalHits > 1 );
+            for ( int i = 1; i < allDocs.scoreDocs.length; i++ )
+            {
+                assertTrue( "index order", allDocs.scoreDocs[i - 1].doc < allDocs.scoreDocs[i].doc );
+            }
+        }
+        finally
+        {
+            context.releaseIndexSearcher( searcher );
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.apache.maven.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.index.ArtifactContext.ModelReader;
+import org.apache.maven.model.Model;
+
+public class ArtifactContextTest
+    extends TestCase
+{
+    public void testModelReader()
+    {
+        Model model =
+            read( "<project><modelVersion>4.0.0</modelVersion><parent><name>parent</name></parent>"
+                + "<packaging>\n  maven-plugin \n</packaging><name>Some &amp; name</name>"
+                + "<description>  one <!-- comment --> two </description><build/></project>" );
+
+        assertEquals( "maven-plugin", model.getPackaging() );
+        assertEquals( "Some & name", model.getName() );
+        assertEquals( "one  two", model.getDescription() );
+    }
+
+    public void testModelReaderMissingAndEmptyElements()
+    {
+        Model model = read( "<project><name/><description></description></project>" );
+
+        assertNull( "Packaging should be null if not set in POM", model.getPackaging() );
+        assertNull( model.getName() );
+        assertEquals( "", model.getDescription() );
+    }
+
+    public void testModelReaderBrokenPom()
+    {
+        assertNull( read( "<project><name>foo" ) );
+        assertNull( read( "" ) );
+    }
+
+    public void testPomModelIsReadOnce()
+    {
+        File pom =
+            new File( System.getProperty( "basedir", "." ),
+                "src/test/repo/org/slf4j/slf4j-api/1.4.2/slf4j-api-1.4.2.pom" );
+
+        ArtifactContext ac =
+            new ArtifactContext( pom, null, null, new ArtifactInfo( "test", "org.slf4j", "slf4j-api", "1.4.2", null ),
+                null );
+
+        Model model = ac.getPomModel();
+
+        assertNotNull( model );
+        assertSame( model, ac.getPomModel() );
+    }
+
+    private Model read( String pom )
+    {
+        return new ModelReader().readModel( new ByteArrayInputStream( pom.getBytes() ) );
+    }
+}
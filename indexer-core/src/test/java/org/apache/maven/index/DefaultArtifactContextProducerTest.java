@@ -0,0 +1,84 @@
+package org.apache.maven.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.index.context.IndexingContext;
+import org.apache.maven.index.fs.DirectoryListing;
+
+public class DefaultArtifactContextProducerTest
+    extends AbstractNexusIndexerTest
+{
+    protected File repo = new File( getBasedir(), "src/test/repo" );
+
+    @Override
+    protected void prepareNexusIndexer( NexusIndexer nexusIndexer )
+        throws Exception
+    {
+        context = nexusIndexer.addIndexingContext( "producer-ctx", "test", repo, indexDir, null, null, MIN_CREATORS );
+    }
+
+    public void testListingGoesThroughOverride()
+        throws Exception
+    {
+        final List<String> calls = new ArrayList<String>();
+        final List<DirectoryListing> listings = new ArrayList<DirectoryListing>();
+
+        DefaultArtifactContextProducer producer = new DefaultArtifactContextProducer()
+        {
+            @Override
+            public ArtifactContext getArtifactContext( IndexingContext context, File file )
+            {
+                calls.add( file.getName() );
+                return super.getArtifactContext( context, file );
+            }
+
+            @Override
+            protected ArtifactContext createArtifactContext( IndexingContext context, File file,
+                                                             DirectoryListing listing )
+            {
+                listings.add( listing );
+                return super.createArtifactContext( context, file, listing );
+            }
+        };
+
+        File jar = new File( repo, "qdox/qdox/1.5/qdox-1.5.jar" );
+        DirectoryListing listing =
+            new DirectoryListing( jar.getParentFile(), Collections.<String, BasicFileAttributes> emptyMap() );
+
+        ArtifactContext ac = producer.getArtifactContext( context, jar, listing );
+
+        assertNotNull( ac );
+        assertEquals( "qdox", ac.getArtifactInfo().artifactId );
+        assertEquals( Collections.singletonList( "qdox-1.5.jar" ), calls );
+        assertEquals( Collections.singletonList( listing ), listings );
+
+        // the listing is not kept past the call
+        producer.getArtifactContext( context, jar );
+
+        assertEquals( 2, listings.size() );
+        assertNull( listings.get( 1 ) );
+    }
+}
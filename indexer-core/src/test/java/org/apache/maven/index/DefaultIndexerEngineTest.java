@@ -0,0 +1,201 @@
+package org.apache.maven.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.maven.index.context.DefaultIndexingContext;
+import org.apache.maven.index.context.ExistingLuceneIndexMismatchException;
+import org.apache.maven.index.context.IndexCreator;
+import org.apache.maven.index.context.IndexingContext;
+import org.apache.maven.index.util.zip.ZipHandle;
+
+public class DefaultIndexerEngineTest
+    extends AbstractNexusIndexerTest
+{
+    private static class CommitCountingIndexingContext
+        extends DefaultIndexingContext
+    {
+        public int commits;
+
+        public CommitCountingIndexingContext( String id, String repositoryId, File repository,
+                                              Directory indexDirectory, List<? extends IndexCreator> indexCreators )
+            throws IOException, ExistingLuceneIndexMismatchException
+        {
+            super( id, repositoryId, repository, indexDirectory, null, null, indexCreators, false );
+        }
+
+        @Override
+        public void commit()
+            throws IOException
+        {
+            commits++;
+            super.commit();
+        }
+    }
+
+    protected File repo = new File( getBasedir(), "src/test/repo" );
+
+    private CommitCountingIndexingContext countingContext;
+
+    @Override
+    protected void prepareNexusIndexer( NexusIndexer nexusIndexer )
+        throws Exception
+    {
+        countingContext = new CommitCountingIndexingContext( "test-batch", "test", repo, indexDir, MIN_CREATORS );
+        context = countingContext;
+    }
+
+    @Override
+    protected void unprepareNexusIndexer( NexusIndexer nexusIndexer )
+        throws Exception
+    {
+        context.close( false );
+    }
+
+    public void testBatchUpdateAndRemove()
+        throws Exception
+    {
+        List<ArtifactContext> acs = new ArrayList<ArtifactContext>();
+        acs.add( artifactContext( "org/slf4j/slf4j-api/1.4.1/slf4j-api-1.4.1.jar" ) );
+        acs.add( artifactContext( "org/slf4j/slf4j-api/1.4.2/slf4j-api-1.4.2.jar" ) );
+        acs.add( artifactContext( "org/slf4j/slf4j-log4j12/1.4.1/slf4j-log4j12-1.4.1.jar" ) );
+        acs.add( artifactContext( "junit/junit/4.4/junit-4.4.jar" ) );
+
+        countingContext.commits = 0;
+        nexusIndexer.addArtifactsToIndex( acs, context );
+
+        // one commit for each group document and one for the batch itself
+        assertEquals( 3, countingContext.commits );
+        assertTrue( context.getRootGroups().contains( "org" ) );
+        assertTrue( context.getRootGroups().contains( "junit" ) );
+        assertTrue( context.getAllGroups().contains( "org.slf4j" ) );
+        assertTrue( context.getAllGroups().contains( "junit" ) );
+        assertEquals( 3, search( "org.slf4j" ) );
+        assertEquals( 1, search( "junit" ) );
+
+        // same artifacts again: no new groups, no changed documents, one commit
+        countingContext.commits = 0;
+        nexusIndexer.addArtifactsToIndex( acs, context );
+
+        assertEquals( 1, countingContext.commits );
+        assertEquals( 3, search( "org.slf4j" ) );
+
+        countingContext.commits = 0;
+        nexusIndexer.deleteArtifactsFromIndex( acs.subList( 0, 2 ), context );
+
+        assertEquals( 1, countingContext.commits );
+        assertEquals( 1, search( "org.slf4j" ) );
+        assertEquals( 1, search( "junit" ) );
+    }
+
+    public void testEngineClosesArtifactArchive()
+        throws Exception
+    {
+        final IndexerEngine engine = lookup( IndexerEngine.class );
+
+        // not obeying repository layout, hence skipped, but its archive was opened by someone else already
+        ArtifactInfo ai = new ArtifactInfo( "test", "junit", "junit", "4.4", null );
+        ArtifactContext ac =
+            new ArtifactContext( null, new File( repo, "junit/junit/4.4/junit-4.4.jar" ), null, ai, null );
+        ZipHandle handle = ac.getArtifactZipHandle();
+
+        engine.index( context, ac );
+
+        try
+        {
+            assertNotSame( "Archive must be closed by engine", handle, ac.getArtifactZipHandle() );
+        }
+        finally
+        {
+            ac.close();
+        }
+    }
+
+    public void testBatchingForeignEngine()
+        throws Exception
+    {
+        final IndexerEngine engine = lookup( IndexerEngine.class );
+        final List<String> calls = new ArrayList<String>();
+
+        // an engine implementing the per artifact operations only
+        IndexerEngine foreign = new IndexerEngine()
+        {
+            public void index( IndexingContext context, ArtifactContext ac )
+                throws IOException
+            {
+                calls.add( "index" );
+                engine.index( context, ac );
+            }
+
+            public void update( IndexingContext context, ArtifactContext ac )
+                throws IOException
+            {
+                calls.add( "update" );
+                engine.update( context, ac );
+            }
+
+            public void remove( IndexingContext context, ArtifactContext ac )
+                throws IOException
+            {
+                calls.add( "remove" );
+                engine.remove( context, ac );
+            }
+        };
+
+        List<ArtifactContext> acs = new ArrayList<ArtifactContext>();
+        acs.add( artifactContext( "org/slf4j/slf4j-api/1.4.1/slf4j-api-1.4.1.jar" ) );
+        acs.add( artifactContext( "org/slf4j/slf4j-api/1.4.2/slf4j-api-1.4.2.jar" ) );
+
+        AbstractIndexerEngine.batching( foreign ).update( context, acs );
+        context.commit();
+        assertEquals( Arrays.asList( "update", "update" ), calls );
+        assertEquals( 2, search( "org.slf4j" ) );
+
+        calls.clear();
+        AbstractIndexerEngine.batching( foreign ).removeUinfos( context,
+            Collections.singletonList( acs.get( 0 ).getArtifactInfo().getUinfo() ) );
+        context.commit();
+        assertEquals( Arrays.asList( "remove" ), calls );
+        assertEquals( 1, search( "org.slf4j" ) );
+    }
+
+    private ArtifactContext artifactContext( String path )
+        throws Exception
+    {
+        return lookup( ArtifactContextProducer.class ).getArtifactContext( context, new File( repo, path ) );
+    }
+
+    private int search( String groupId )
+        throws IOException
+    {
+        TermQuery q = new TermQuery( new Term( ArtifactInfo.GROUP_ID, groupId ) );
+
+        return nexusIndexer.searchFlat( new FlatSearchRequest( q, context ) ).getTotalHitsCount();
+    }
+}
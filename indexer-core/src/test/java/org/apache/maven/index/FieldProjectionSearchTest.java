@@ -0,0 +1,142 @@
+package org.apache.maven.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.search.Query;
+import org.apache.maven.index.expr.SourcedSearchExpression;
+import org.apache.maven.index.expr.UserInputSearchExpression;
+
+public class FieldProjectionSearchTest
+    extends AbstractNexusIndexerTest
+{
+    protected File repo = new File( getBasedir(), "src/test/repo" );
+
+    @Override
+    protected void prepareNexusIndexer( NexusIndexer nexusIndexer )
+        throws Exception
+    {
+        context = nexusIndexer.addIndexingContext( "test-default", "test", repo, indexDir, null, null, FULL_CREATORS );
+
+        nexusIndexer.scan( context );
+    }
+
+    public void testStoredFieldsOfProjection()
+    {
+        ArtifactInfoProjection projection =
+            new ArtifactInfoProjection( context, Collections.singleton( MAVEN.PACKAGING ) );
+
+        assertTrue( projection.getStoredFields().contains( ArtifactInfo.UINFO ) );
+        assertTrue( projection.getStoredFields().contains( ArtifactInfo.INFO ) );
+        assertFalse( projection.getStoredFields().contains( ArtifactInfo.NAMES ) );
+        assertFalse( projection.getStoredFields().contains( ArtifactInfo.BUNDLE_EXPORT_PACKAGE ) );
+        assertTrue( projection.contains( MAVEN.VERSION ) );
+        assertTrue( projection.contains( MAVEN.REPOSITORY_ID ) );
+        assertFalse( projection.contains( MAVEN.CLASSNAMES ) );
+    }
+
+    public void testFlatSearchWithProjection()
+        throws Exception
+    {
+        FlatSearchRequest request = new FlatSearchRequest( query() );
+        request.setFieldProjection( Collections.singleton( MAVEN.PACKAGING ) );
+
+        FlatSearchResponse response = nexusIndexer.searchFlat( request );
+        FlatSearchResponse full = nexusIndexer.searchFlat( new FlatSearchRequest( query() ) );
+
+        assertEquals( full.getResults().size(), response.getResults().size() );
+
+        ArtifactInfo ai = find( response.getResults(), "slf4j-api", "1.4.2", null );
+        ArtifactInfo fullAi = find( full.getResults(), "slf4j-api", "1.4.2", null );
+
+        assertTrue( ai.isProjected() );
+        assertEquals( fullAi.packaging, ai.packaging );
+        assertEquals( "test", ai.repository );
+        assertNull( ai.classNames );
+        assertNotNull( fullAi.classNames );
+
+        // lazily loaded
+        assertEquals( fullAi.classNames, ai.getFieldValue( MAVEN.CLASSNAMES ) );
+        assertFalse( ai.isProjected() );
+        assertEquals( fullAi.sha1, ai.sha1 );
+    }
+
+    public void testIteratorSearchWithProjectionAndHighlight()
+        throws Exception
+    {
+        Query q = nexusIndexer.constructQuery( MAVEN.CLASSNAMES, new UserInputSearchExpression( "Logger" ) );
+
+        IteratorSearchRequest request = new IteratorSearchRequest( q );
+        request.setFieldProjection( new HashSet<Field>( Collections.singleton( MAVEN.GROUP_ID ) ) );
+        request.getMatchHighlightRequests().add( new MatchHighlightRequest( MAVEN.CLASSNAMES, q,
+            MatchHighlightMode.HTML ) );
+
+        IteratorSearchResponse response = nexusIndexer.searchIterator( request );
+        try
+        {
+            int count = 0;
+
+            for ( ArtifactInfo ai : response )
+            {
+                count++;
+
+                assertNotNull( ai.groupId );
+                // highlighted field is loaded, the rest is not
+                assertNotNull( ai.classNames );
+                assertFalse( ai.getMatchHighlights().isEmpty() );
+                assertTrue( ai.isProjected() );
+
+                ai.materialize();
+
+                assertFalse( ai.isProjected() );
+            }
+
+            assertTrue( count > 0 );
+        }
+        finally
+        {
+            response.close();
+        }
+    }
+
+    private Query query()
+    {
+        return nexusIndexer.constructQuery( MAVEN.GROUP_ID, new SourcedSearchExpression( "org.slf4j" ) );
+    }
+
+    private ArtifactInfo find( Set<ArtifactInfo> ais, String artifactId, String version, String classifier )
+    {
+        for ( ArtifactInfo ai : ais )
+        {
+            if ( artifactId.equals( ai.artifactId ) && version.equals( ai.version )
+                && ( classifier == null ? ai.classifier == null : classifier.equals( ai.classifier ) ) )
+            {
+                return ai;
+            }
+        }
+
+        fail( "No " + artifactId + ":" + version + " in results" );
+        return null;
+    }
+}
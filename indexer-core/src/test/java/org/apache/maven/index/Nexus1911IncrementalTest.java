@@ -19,8 +19,10 @@ package org.apache.maven.index;
  * under the License.
  */
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Properties;
 import java.util.Set;
@@ -29,7 +31,10 @@ import junit.framework.Assert;
 import org.apache.maven.index.context.IndexingContext;
 import org.apache.maven.index.packer.IndexPacker;
 import org.apache.maven.index.packer.IndexPackingRequest;
+import org.apache.maven.index.updater.IndexDataReader;
+import org.apache.maven.index.updater.IndexDataWriter;
 import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
 
 //FIXME - hardcoded assumptions in test that break with lucene 4, or bugs?
 //@Ignore("Segment merge may work differently in Lucene 4")
@@ -141,6 +146,42 @@ public class Nexus1911IncrementalTest
         Assert.assertNotNull( props.getProperty( IndexingContext.INDEX_CHAIN_ID ) );
     }
 
+    public void test1IncrementalConcurrentFormats()
+        throws Exception
+    {
+        IndexPackingRequest request = new IndexPackingRequest( context, indexPackDir );
+        request.setCreateIncrementalChunks( true );
+        request.setConcurrentFormats( true );
+        packer.packIndex( request );
+
+        copyRepoContentsAndReindex( new File( getBasedir(), "src/test/nexus-1911/repo-inc-1" ), request );
+
+        Set<String> filenames = getFilenamesFromFiles( indexPackDir.listFiles() );
+        Properties props = getPropertiesFromFiles( indexPackDir.listFiles() );
+
+        Assert.assertTrue( filenames.contains( IndexingContext.INDEX_FILE_PREFIX + ".zip" ) );
+        Assert.assertTrue( filenames.contains( IndexingContext.INDEX_FILE_PREFIX + ".gz" ) );
+        Assert.assertTrue( filenames.contains( IndexingContext.INDEX_FILE_PREFIX + ".properties" ) );
+        Assert.assertTrue( filenames.contains( IndexingContext.INDEX_FILE_PREFIX + ".1.gz" ) );
+        Assert.assertFalse( filenames.contains( IndexingContext.INDEX_FILE_PREFIX + ".2.gz" ) );
+
+        Assert.assertEquals( props.getProperty( IndexingContext.INDEX_CHUNK_PREFIX + "0" ), "1" );
+        Assert.assertEquals( props.getProperty( IndexingContext.INDEX_CHUNK_COUNTER ), "1" );
+        Assert.assertNotNull( props.getProperty( IndexingContext.INDEX_TIMESTAMP ) );
+        Assert.assertNotNull( props.getProperty( IndexingContext.INDEX_LEGACY_TIMESTAMP ) );
+
+        // full data is the same as written by a sequential pack
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        new IndexDataWriter( bos ).write( context, null );
+
+        Assert.assertTrue( Arrays.equals( bos.toByteArray(),
+            readFile( IndexingContext.INDEX_FILE_PREFIX + ".gz" ) ) );
+
+        // chunk holds less documents than full data
+        Assert.assertTrue( countDocuments( IndexingContext.INDEX_FILE_PREFIX + ".1.gz" ) < countDocuments(
+            IndexingContext.INDEX_FILE_PREFIX + ".gz" ) );
+    }
+
     public void test2Incremental()
         throws Exception
     {
@@ -257,6 +298,42 @@ public class Nexus1911IncrementalTest
         packer.packIndex( request );
     }
 
+    private byte[] readFile( String name )
+        throws Exception
+    {
+        FileInputStream fis = new FileInputStream( new File( indexPackDir, name ) );
+        try
+        {
+            return IOUtil.toByteArray( fis );
+        }
+        finally
+        {
+            fis.close();
+        }
+    }
+
+    private int countDocuments( String name )
+        throws Exception
+    {
+        FileInputStream fis = new FileInputStream( new File( indexPackDir, name ) );
+        try
+        {
+            IndexDataReader reader = new IndexDataReader( fis );
+            reader.readHeader();
+
+            int n = 0;
+            while ( reader.readDocument() != null )
+            {
+                n++;
+            }
+            return n;
+        }
+        finally
+        {
+            fis.close();
+        }
+    }
+
     private Set<String> getFilenamesFromFiles( File[] files )
     {
         Set<String> filenames = new HashSet<String>();
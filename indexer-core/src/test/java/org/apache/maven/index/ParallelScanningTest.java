@@ -0,0 +1,149 @@
+package org.apache.maven.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.maven.index.context.IndexingContext;
+
+public class ParallelScanningTest
+    extends AbstractNexusIndexerTest
+{
+    protected File repo = new File( getBasedir(), "src/test/repo" );
+
+    protected IndexingContext parallelContext;
+
+    protected Directory parallelDir = new RAMDirectory();
+
+    @Override
+    protected void prepareNexusIndexer( NexusIndexer nexusIndexer )
+        throws Exception
+    {
+        context = nexusIndexer.addIndexingContext( "seq-ctx", "test", repo, indexDir, null, null, FULL_CREATORS );
+        parallelContext =
+            nexusIndexer.addIndexingContext( "par-ctx", "test", repo, parallelDir, null, null, FULL_CREATORS );
+
+        nexusIndexer.scan( context );
+    }
+
+    @Override
+    protected void unprepareNexusIndexer( NexusIndexer nexusIndexer )
+        throws Exception
+    {
+        nexusIndexer.removeIndexingContext( parallelContext, false );
+        super.unprepareNexusIndexer( nexusIndexer );
+    }
+
+    public void testParallelScanMatchesSequentialScan()
+        throws Exception
+    {
+        ScanningRequest request =
+            new ScanningRequest( parallelContext, new DefaultScannerListener( parallelContext,
+                lookup( IndexerEngine.class ), false, null ) );
+        request.setThreads( 4 );
+
+        ScanningResult result = lookup( Scanner.class ).scan( request );
+
+        assertTrue( result.getTotalFiles() > 0 );
+        assertEquals( context.getRootGroups(), parallelContext.getRootGroups() );
+        assertEquals( context.getAllGroups(), parallelContext.getAllGroups() );
+        assertEquals( loadArtifacts( context ), loadArtifacts( parallelContext ) );
+    }
+
+    public void testParallelScanWithProvidedPool()
+        throws Exception
+    {
+        ForkJoinPool pool = new ForkJoinPool( 2 );
+        try
+        {
+            ScanningRequest request =
+                new ScanningRequest( parallelContext, new DefaultScannerListener( parallelContext,
+                    lookup( IndexerEngine.class ), false, null ) );
+            request.setPool( pool );
+
+            lookup( Scanner.class ).scan( request );
+
+            assertFalse( "Provided pool must not be shut down by scanner", pool.isShutdown() );
+            assertEquals( loadArtifacts( context ), loadArtifacts( parallelContext ) );
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    private Map<String, Map<String, String>> loadArtifacts( IndexingContext ctx )
+        throws IOException
+    {
+        Map<String, Map<String, String>> result = new HashMap<String, Map<String, String>>();
+
+        IndexSearcher s = ctx.acquireIndexSearcher();
+        try
+        {
+            IndexReader r = s.getIndexReader();
+            Bits liveDocs = MultiFields.getLiveDocs( r );
+
+            for ( int i = 0; i < r.maxDoc(); i++ )
+            {
+                if ( liveDocs != null && !liveDocs.get( i ) )
+                {
+                    continue;
+                }
+
+                Document d = r.document( i );
+
+                String uinfo = d.get( ArtifactInfo.UINFO );
+
+                if ( uinfo != null )
+                {
+                    Map<String, String> fields = new HashMap<String, String>();
+
+                    for ( IndexableField f : d.getFields() )
+                    {
+                        if ( !ArtifactInfo.LAST_MODIFIED.equals( f.name() ) )
+                        {
+                            fields.put( f.name(), f.stringValue() );
+                        }
+                    }
+
+                    result.put( uinfo, fields );
+                }
+            }
+        }
+        finally
+        {
+            ctx.releaseIndexSearcher( s );
+        }
+
+        return result;
+    }
+}
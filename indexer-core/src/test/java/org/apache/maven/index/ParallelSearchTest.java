@@ -0,0 +1,202 @@
+package org.apache.maven.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.maven.index.context.IndexingContext;
+import org.apache.maven.index.expr.SourcedSearchExpression;
+import org.apache.maven.index.search.grouping.GAGrouping;
+
+public class ParallelSearchTest
+    extends AbstractNexusIndexerTest
+{
+    protected File repo = new File( getBasedir(), "src/test/repo" );
+
+    protected IndexingContext context1;
+
+    protected Directory contextDir1 = new RAMDirectory();
+
+    protected IndexingContext context2;
+
+    protected Directory contextDir2 = new RAMDirectory();
+
+    @Override
+    protected void prepareNexusIndexer( NexusIndexer nexusIndexer )
+        throws Exception
+    {
+        context = nexusIndexer.addIndexingContext( "repo1-ctx", "repo1", repo, indexDir, null, null, FULL_CREATORS );
+        context1 = nexusIndexer.addIndexingContext( "repo2-ctx", "repo2", repo, contextDir1, null, null, FULL_CREATORS );
+        context2 = nexusIndexer.addIndexingContext( "repo3-ctx", "repo3", repo, contextDir2, null, null, FULL_CREATORS );
+
+        nexusIndexer.scan( context );
+        nexusIndexer.scan( context1 );
+        nexusIndexer.scan( context2 );
+    }
+
+    public void testParallelFlatSearchMatchesSequential()
+        throws Exception
+    {
+        FlatSearchRequest sequential = flatRequest();
+        FlatSearchResponse expected = nexusIndexer.searchFlat( sequential );
+
+        FlatSearchRequest parallel = flatRequest();
+        parallel.setThreads( 2 );
+        FlatSearchResponse actual = nexusIndexer.searchFlat( parallel );
+
+        assertEquals( 30, expected.getResults().size() );
+        assertEquals( expected.getTotalHitsCount(), actual.getTotalHitsCount() );
+        assertEquals( describe( expected.getResults() ), describe( actual.getResults() ) );
+    }
+
+    public void testParallelGroupedSearchMatchesSequential()
+        throws Exception
+    {
+        GroupedSearchRequest sequential = groupedRequest();
+        GroupedSearchResponse expected = nexusIndexer.searchGrouped( sequential );
+
+        GroupedSearchRequest parallel = groupedRequest();
+        parallel.setThreads( 3 );
+        GroupedSearchResponse actual = nexusIndexer.searchGrouped( parallel );
+
+        assertEquals( 3, expected.getResults().size() );
+        assertEquals( expected.getTotalHitsCount(), actual.getTotalHitsCount() );
+        assertEquals( expected.getResults().keySet(), actual.getResults().keySet() );
+
+        for ( Map.Entry<String, ArtifactInfoGroup> entry : expected.getResults().entrySet() )
+        {
+            assertEquals( describe( entry.getValue().getArtifactInfos() ),
+                describe( actual.getResults().get( entry.getKey() ).getArtifactInfos() ) );
+        }
+    }
+
+    public void testParallelSearchWithProvidedExecutor()
+        throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( 2 );
+        try
+        {
+            FlatSearchRequest request = flatRequest();
+            request.setThreads( 2 );
+            request.setExecutor( executor );
+            request.setContextTimeout( 60000 );
+
+            FlatSearchResponse response = nexusIndexer.searchFlat( request );
+
+            assertEquals( 30, response.getResults().size() );
+            assertFalse( "Provided executor must not be shut down by search", executor.isShutdown() );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    public void testStatefulFilterSeesContextsInOrder()
+        throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( 3 );
+        try
+        {
+            final UniqueArtifactFilterPostprocessor unique = new UniqueArtifactFilterPostprocessor();
+            unique.addField( MAVEN.GROUP_ID );
+            unique.addField( MAVEN.ARTIFACT_ID );
+            unique.addField( MAVEN.VERSION );
+
+            final Thread caller = Thread.currentThread();
+            final List<Thread> threads = new ArrayList<Thread>();
+
+            // executor alone makes the search parallel
+            FlatSearchRequest request = flatRequest();
+            request.setExecutor( executor );
+            request.setArtifactInfoFilter( new ArtifactInfoFilter()
+            {
+                public boolean accepts( IndexingContext ctx, ArtifactInfo ai )
+                {
+                    threads.add( Thread.currentThread() );
+                    return unique.accepts( ctx, ai );
+                }
+            } );
+
+            assertTrue( request.isParallel() );
+
+            FlatSearchResponse response = nexusIndexer.searchFlat( request );
+
+            assertEquals( 4, response.getResults().size() );
+            for ( ArtifactInfo ai : response.getResults() )
+            {
+                assertEquals( "The first context wins", context.getId(), ai.context );
+            }
+            assertEquals( 30, threads.size() );
+            for ( Thread thread : threads )
+            {
+                assertSame( "Filter must run on the calling thread", caller, thread );
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private FlatSearchRequest flatRequest()
+    {
+        FlatSearchRequest request = new FlatSearchRequest( query() );
+        request.setArtifactInfoComparator( ArtifactInfo.CONTEXT_VERSION_COMPARATOR );
+        request.getContexts().add( context );
+        request.getContexts().add( context1 );
+        request.getContexts().add( context2 );
+        return request;
+    }
+
+    private GroupedSearchRequest groupedRequest()
+    {
+        GroupedSearchRequest request = new GroupedSearchRequest( query(), new GAGrouping() );
+        request.getContexts().add( context );
+        request.getContexts().add( context1 );
+        request.getContexts().add( context2 );
+        return request;
+    }
+
+    private Query query()
+    {
+        return nexusIndexer.constructQuery( MAVEN.GROUP_ID, new SourcedSearchExpression( "org.slf4j" ) );
+    }
+
+    private List<String> describe( Iterable<ArtifactInfo> artifactInfos )
+    {
+        List<String> result = new ArrayList<String>();
+
+        for ( ArtifactInfo ai : artifactInfos )
+        {
+            result.add( ai.context + ":" + ai.repository + ":" + ai.getUinfo() );
+        }
+
+        return result;
+    }
+}
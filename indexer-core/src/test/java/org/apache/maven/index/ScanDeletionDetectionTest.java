@@ -0,0 +1,87 @@
+package org.apache.maven.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.TermQuery;
+import org.codehaus.plexus.util.FileUtils;
+
+public class ScanDeletionDetectionTest
+    extends AbstractNexusIndexerTest
+{
+    protected File repo = new File( getBasedir(), "target/repos/scan-deletion" );
+
+    @Override
+    protected void prepareNexusIndexer( NexusIndexer nexusIndexer )
+        throws Exception
+    {
+        FileUtils.deleteDirectory( repo );
+        FileUtils.copyDirectoryStructure( new File( getBasedir(), "src/test/repo/org/slf4j" ), new File( repo,
+            "org/slf4j" ) );
+
+        context = nexusIndexer.addIndexingContext( "test-deletion", "test", repo, indexDir, null, null, MIN_CREATORS );
+
+        nexusIndexer.scan( context );
+    }
+
+    public void testDeletedArtifactsAreRemoved()
+        throws Exception
+    {
+        final int slf4jApi = count( "slf4j-api" );
+        final int log4j12 = count( "slf4j-log4j12" );
+        assertTrue( slf4jApi > 0 );
+        assertTrue( log4j12 > 0 );
+
+        FileUtils.deleteDirectory( new File( repo, "org/slf4j/slf4j-api/1.4.1" ) );
+        FileUtils.deleteDirectory( new File( repo, "org/slf4j/slf4j-log4j12" ) );
+
+        // only the slf4j-api subtree is swept
+        ScanningResult result = rescan( "/org/slf4j/slf4j-api" );
+
+        assertTrue( result.getDeletedFiles() > 0 );
+        assertTrue( count( "slf4j-api" ) > 0 );
+        assertTrue( count( "slf4j-api" ) < slf4jApi );
+        assertEquals( log4j12, count( "slf4j-log4j12" ) );
+
+        // whole repository is swept
+        result = rescan( null );
+
+        assertEquals( log4j12, result.getDeletedFiles() );
+        assertEquals( 0, count( "slf4j-log4j12" ) );
+    }
+
+    private ScanningResult rescan( String fromPath )
+        throws Exception
+    {
+        return lookup( Scanner.class ).scan(
+            new ScanningRequest( context, new DefaultScannerListener( context, lookup( IndexerEngine.class ), true,
+                null ), fromPath ) );
+    }
+
+    private int count( String artifactId )
+        throws Exception
+    {
+        TermQuery q = new TermQuery( new Term( ArtifactInfo.ARTIFACT_ID, artifactId ) );
+
+        return nexusIndexer.searchFlat( new FlatSearchRequest( q, context ) ).getTotalHitsCount();
+    }
+}
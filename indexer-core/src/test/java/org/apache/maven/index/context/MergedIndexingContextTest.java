@@ -0,0 +1,119 @@
+package org.apache.maven.index.context;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.maven.index.AbstractIndexCreatorHelper;
+
+public class MergedIndexingContextTest
+    extends AbstractIndexCreatorHelper
+{
+    private DefaultIndexingContext member1;
+
+    private DefaultIndexingContext member2;
+
+    private MergedIndexingContext merged;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        File repo = new File( getBasedir(), "src/test/repo" );
+
+        member1 =
+            new DefaultIndexingContext( "member1", "test1", repo, new RAMDirectory(), null, null, MIN_CREATORS,
+                false );
+        member2 =
+            new DefaultIndexingContext( "member2", "test2", repo, new RAMDirectory(), null, null, MIN_CREATORS,
+                false );
+
+        member1.setAllGroups( Collections.singleton( "org.foo" ) );
+        member2.setAllGroups( Collections.singleton( "org.bar" ) );
+
+        merged =
+            new MergedIndexingContext( "merged", "merged", repo, new RAMDirectory(), true,
+                new StaticContextMemberProvider( Arrays.<IndexingContext> asList( member1, member2 ) ) );
+    }
+
+    @Override
+    protected void tearDown()
+        throws Exception
+    {
+        merged.close( false );
+        member1.close( false );
+        member2.close( false );
+
+        super.tearDown();
+    }
+
+    public void testSearcherIsSharedUntilMemberChanges()
+        throws Exception
+    {
+        IndexSearcher s1 = merged.acquireIndexSearcher();
+        IndexSearcher s2 = merged.acquireIndexSearcher();
+        try
+        {
+            assertSame( s1, s2 );
+        }
+        finally
+        {
+            merged.releaseIndexSearcher( s1 );
+            merged.releaseIndexSearcher( s2 );
+        }
+
+        member2.setAllGroups( Arrays.asList( "org.bar", "org.baz" ) );
+
+        IndexSearcher s3 = merged.acquireIndexSearcher();
+        try
+        {
+            assertNotSame( s1, s3 );
+            // released composite is not usable anymore
+            assertFalse( ( (NexusIndexMultiSearcher) s1 ).tryIncRef() );
+        }
+        finally
+        {
+            merged.releaseIndexSearcher( s3 );
+        }
+    }
+
+    public void testGroupsAreCachedUntilMemberChanges()
+        throws Exception
+    {
+        Set<String> groups = merged.getAllGroups();
+
+        assertEquals( 2, groups.size() );
+        assertSame( groups, merged.getAllGroups() );
+
+        member1.setAllGroups( Arrays.asList( "org.foo", "com.foo" ) );
+
+        groups = merged.getAllGroups();
+
+        assertEquals( 3, groups.size() );
+        assertTrue( groups.contains( "com.foo" ) );
+    }
+}
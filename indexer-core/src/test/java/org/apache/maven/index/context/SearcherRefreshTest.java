@@ -0,0 +1,254 @@
+package org.apache.maven.index.context;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.maven.index.AbstractIndexCreatorHelper;
+import org.apache.maven.index.ArtifactInfo;
+
+public class SearcherRefreshTest
+    extends AbstractIndexCreatorHelper
+{
+    private DefaultIndexingContext context;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        context =
+            new DefaultIndexingContext( "refresh", "test", new File( getBasedir(), "src/test/repo" ),
+                new RAMDirectory(), null, null, MIN_CREATORS, false );
+    }
+
+    @Override
+    protected void tearDown()
+        throws Exception
+    {
+        context.close( false );
+
+        super.tearDown();
+    }
+
+    public void testRefreshOnAcquire()
+        throws Exception
+    {
+        addDocument( "g|a|1|NA|jar" );
+
+        assertEquals( 1, count( "g|a|1|NA|jar" ) );
+    }
+
+    public void testBackgroundRefreshWithWaitForGeneration()
+        throws Exception
+    {
+        // never refresh on its own while test runs, only when somebody waits
+        context.setSearcherRefresh( 600, 0.01 );
+
+        addDocument( "g|a|1|NA|jar" );
+
+        assertEquals( "acquire must not refresh", 0, count( "g|a|1|NA|jar" ) );
+
+        context.waitForGeneration( context.getIndexGeneration() );
+
+        assertEquals( 1, count( "g|a|1|NA|jar" ) );
+
+        // disabling it brings back refresh on acquire
+        context.setSearcherRefresh( 0, 0 );
+
+        addDocument( "g|a|2|NA|jar" );
+
+        assertEquals( 1, count( "g|a|2|NA|jar" ) );
+    }
+
+    public void testGenerationsSurviveReopenedWriter()
+        throws Exception
+    {
+        context.setSearcherRefresh( 600, 0.01 );
+
+        addDocument( "g|a|1|NA|jar" );
+        for ( int i = 0; i < 5; i++ )
+        {
+            context.getIndexGeneration();
+        }
+        final long before = context.getIndexGeneration();
+
+        // reopens the writer
+        context.purge();
+
+        // reached by the previous writer already
+        context.waitForGeneration( before );
+
+        addDocument( "g|a|2|NA|jar" );
+        final long after = context.getIndexGeneration();
+        assertTrue( after > before );
+
+        context.waitForGeneration( after );
+        assertEquals( 1, count( "g|a|2|NA|jar" ) );
+
+        context.close( false );
+
+        assertTrue( context.getIndexGeneration() >= after );
+        context.waitForGeneration( after );
+    }
+
+    public void testReplaceIsAtomic()
+        throws Exception
+    {
+        addDocument( "g|a|1|NA|jar" );
+        context.commit();
+        assertEquals( 1, count( "g|a|1|NA|jar" ) );
+
+        final int[] counts = new int[2];
+        final CountDownLatch searched = new CountDownLatch( 1 );
+        final Thread other = new Thread()
+        {
+            public void run()
+            {
+                try
+                {
+                    counts[0] = count( "g|a|1|NA|jar" );
+                    counts[1] = count( "g|a|2|NA|jar" );
+                    searched.countDown();
+
+                    context.commit();
+                }
+                catch ( Exception e )
+                {
+                    throw new RuntimeException( e );
+                }
+            }
+        };
+
+        context.replace( new DocumentSource()
+        {
+            public Date addDocuments( IndexWriter writer )
+                throws IOException
+            {
+                Document doc = new Document();
+                doc.add( new Field( ArtifactInfo.UINFO, "g|a|2|NA|jar", Field.Store.YES, Field.Index.NOT_ANALYZED ) );
+                writer.addDocument( doc );
+
+                try
+                {
+                    // searchers of other threads see the previous content, and their commits wait
+                    other.start();
+                    searched.await();
+                    other.join( 200 );
+                    assertTrue( "Commit must wait for the replacement", other.isAlive() );
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new IOException( e );
+                }
+
+                // nor does a searcher of the replacing thread see a partial replacement
+                try
+                {
+                    assertEquals( 1, count( "g|a|1|NA|jar" ) );
+                    assertEquals( 0, count( "g|a|2|NA|jar" ) );
+                }
+                catch ( Exception e )
+                {
+                    throw new IOException( e );
+                }
+
+                return null;
+            }
+        } );
+
+        other.join();
+
+        assertEquals( 1, counts[0] );
+        assertEquals( 0, counts[1] );
+        assertEquals( 0, count( "g|a|1|NA|jar" ) );
+        assertEquals( 1, count( "g|a|2|NA|jar" ) );
+    }
+
+    public void testFailedReplaceKeepsContent()
+        throws Exception
+    {
+        addDocument( "g|a|1|NA|jar" );
+        context.commit();
+
+        try
+        {
+            context.replace( new DocumentSource()
+            {
+                public Date addDocuments( IndexWriter writer )
+                    throws IOException
+                {
+                    Document doc = new Document();
+                    doc.add( new Field( ArtifactInfo.UINFO, "g|a|2|NA|jar", Field.Store.YES,
+                        Field.Index.NOT_ANALYZED ) );
+                    writer.addDocument( doc );
+
+                    throw new IOException( "Broken on purpose" );
+                }
+            } );
+            fail();
+        }
+        catch ( IOException e )
+        {
+            assertEquals( "Broken on purpose", e.getMessage() );
+        }
+
+        assertEquals( 1, count( "g|a|1|NA|jar" ) );
+        assertEquals( 0, count( "g|a|2|NA|jar" ) );
+
+        // the context is still usable
+        addDocument( "g|a|3|NA|jar" );
+
+        assertEquals( 1, count( "g|a|3|NA|jar" ) );
+    }
+
+    private void addDocument( String uinfo )
+        throws Exception
+    {
+        Document doc = new Document();
+        doc.add( new Field( ArtifactInfo.UINFO, uinfo, Field.Store.YES, Field.Index.NOT_ANALYZED ) );
+        context.getIndexWriter().addDocument( doc );
+    }
+
+    private int count( String uinfo )
+        throws Exception
+    {
+        final IndexSearcher searcher = context.acquireIndexSearcher();
+        try
+        {
+            return searcher.search( new TermQuery( new Term( ArtifactInfo.UINFO, uinfo ) ), 10 ).totalHits;
+        }
+        finally
+        {
+            context.releaseIndexSearcher( searcher );
+        }
+    }
+}
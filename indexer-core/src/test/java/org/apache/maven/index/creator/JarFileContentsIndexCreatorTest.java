@@ -24,6 +24,7 @@ import java.io.File;
 import org.apache.maven.index.ArtifactContext;
 import org.apache.maven.index.ArtifactInfo;
 import org.apache.maven.index.context.IndexCreator;
+import org.apache.maven.index.util.zip.ZipHandle;
 import org.codehaus.plexus.PlexusTestCase;
 
 /**
@@ -99,4 +100,31 @@ public class JarFileContentsIndexCreatorTest
         assertEquals( "WebappClass should have proper package",
             "/org/apache/maven/indexer/samples/webapp/WebappClass", artifactContext.getArtifactInfo().classNames );
     }
+
+    public void testSharedArtifactZipHandle()
+        throws Exception
+    {
+        File artifact = new File( getBasedir(), "src/test/nexus-2318/aopalliance/aopalliance/1.0/aopalliance-1.0.jar" );
+
+        File pom = new File( getBasedir(), "src/test/nexus-2318/aopalliance/aopalliance/1.0/aopalliance-1.0.pom" );
+
+        ArtifactInfo artifactInfo = new ArtifactInfo( "test", "aopalliance", "aopalliance", "1.0", null );
+
+        ArtifactContext artifactContext = new ArtifactContext( pom, artifact, null, artifactInfo, null );
+
+        try
+        {
+            ZipHandle handle = artifactContext.getArtifactZipHandle();
+
+            indexCreator.populateArtifactInfo( artifactContext );
+
+            assertNotNull( "Classes should not be null", artifactContext.getArtifactInfo().classNames );
+            assertSame( "Archive should be opened only once", handle, artifactContext.getArtifactZipHandle() );
+            assertTrue( handle.hasEntry( "org/aopalliance/intercept/Joinpoint.class" ) );
+        }
+        finally
+        {
+            artifactContext.close();
+        }
+    }
 }
@@ -23,10 +23,19 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
 import java.util.Properties;
 
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.maven.index.AbstractIndexCreatorHelper;
+import org.apache.maven.index.ArtifactContext;
+import org.apache.maven.index.ArtifactContextProducer;
+import org.apache.maven.index.ArtifactInfo;
 import org.apache.maven.index.NexusIndexer;
 import org.apache.maven.index.context.IndexingContext;
 import org.apache.maven.index.packer.IndexPackingRequest;
@@ -113,6 +122,73 @@ public class DefaultIncrementalHandlerTest
         assertEquals( updates.size(), 1 );
     }
 
+    public void testUpdateOnlyChanges()
+        throws Exception
+    {
+        FileUtils.copyDirectoryStructure( new File( getBasedir(), "src/test/repo/ch" ), new File( repoDir, "ch" ) );
+
+        indexer.scan( context );
+
+        final IndexSearcher indexSearcher = context.acquireIndexSearcher();
+        try
+        {
+            assertNotNull( "last modified is indexed",
+                MultiFields.getTerms( indexSearcher.getIndexReader(), ArtifactInfo.LAST_MODIFIED_NUMERIC ) );
+        }
+        finally
+        {
+            context.releaseIndexSearcher( indexSearcher );
+        }
+
+        Thread.sleep( 10 );
+
+        SimpleDateFormat df = new SimpleDateFormat( IndexingContext.INDEX_TIME_FORMAT );
+        Properties properties = new Properties();
+        properties.setProperty( IndexingContext.INDEX_TIMESTAMP, df.format( new Date() ) );
+
+        IndexPackingRequest request = new IndexPackingRequest( context, indexDir );
+
+        assertEquals( 0, handler.getIncrementalUpdates( request, properties ).size() );
+
+        Thread.sleep( 10 );
+
+        ArtifactContext ac =
+            lookup( ArtifactContextProducer.class ).getArtifactContext( context, new File( repoDir,
+                "ch/marcus-schulte/maven/hivedoc-plugin/1.0.0/hivedoc-plugin-1.0.0.jar" ) );
+        indexer.deleteArtifactFromIndex( ac, context );
+
+        // the deletion marker
+        assertEquals( 1, handler.getIncrementalUpdates( request, properties ).size() );
+    }
+
+    public void testUpdateIndexUpgradedInPlace()
+        throws Exception
+    {
+        FileUtils.copyDirectoryStructure( new File( getBasedir(), "src/test/repo/ch" ), new File( repoDir, "ch" ) );
+
+        indexer.scan( context );
+
+        Thread.sleep( 10 );
+
+        SimpleDateFormat df = new SimpleDateFormat( IndexingContext.INDEX_TIME_FORMAT );
+        Properties properties = new Properties();
+        properties.setProperty( IndexingContext.INDEX_TIMESTAMP, df.format( new Date() ) );
+
+        Thread.sleep( 10 );
+
+        // a document changed by a version not indexing last modified yet
+        Document doc = new Document();
+        doc.add( new Field( ArtifactInfo.UINFO, "g|a|1|NA|jar", Field.Store.YES, Field.Index.NOT_ANALYZED ) );
+        doc.add( new Field( ArtifactInfo.LAST_MODIFIED, Long.toString( System.currentTimeMillis() ), Field.Store.YES,
+            Field.Index.NO ) );
+        context.getIndexWriter().addDocument( doc );
+        context.commit();
+
+        IndexPackingRequest request = new IndexPackingRequest( context, indexDir );
+
+        assertEquals( 1, handler.getIncrementalUpdates( request, properties ).size() );
+    }
+
     public void testRemoteUpdatesInvalidProperties()
         throws Exception
     {
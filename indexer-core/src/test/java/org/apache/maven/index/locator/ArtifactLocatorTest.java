@@ -20,6 +20,10 @@ package org.apache.maven.index.locator;
  */
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.maven.index.AbstractNexusIndexerTest;
 import org.apache.maven.index.ArtifactContext;
@@ -28,6 +32,7 @@ import org.apache.maven.index.NexusIndexer;
 import org.apache.maven.index.artifact.ArtifactPackagingMapper;
 import org.apache.maven.index.artifact.Gav;
 import org.apache.maven.index.artifact.M2GavCalculator;
+import org.apache.maven.index.fs.DirectoryListing;
 
 public class ArtifactLocatorTest
     extends AbstractNexusIndexerTest
@@ -79,4 +84,38 @@ public class ArtifactLocatorTest
         assertTrue( "Artifact file was not located!", artifactFile != null );
         assertTrue( "Artifact file was not located!", artifactFile.exists() );
     }
+
+    public void testArtifactLocatorWithDirectoryListing()
+        throws Exception
+    {
+        ArtifactLocator al = new ArtifactLocator( artifactPackagingMapper );
+
+        final M2GavCalculator gavCalculator = new M2GavCalculator();
+
+        final File pomFile =
+            getTestFile( "src/test/repo/ch/marcus-schulte/maven/hivedoc-plugin/1.0.0/hivedoc-plugin-1.0.0.pom" );
+
+        final Gav gav =
+            gavCalculator.pathToGav( "/ch/marcus-schulte/maven/hivedoc-plugin/1.0.0/hivedoc-plugin-1.0.0.pom" );
+
+        // listing with the POM only: the listing is authoritative, so artifact is not located
+        final Map<String, BasicFileAttributes> entries = new HashMap<String, BasicFileAttributes>();
+        entries.put( pomFile.getName(), Files.readAttributes( pomFile.toPath(), BasicFileAttributes.class ) );
+
+        assertNull( al.locate( pomFile, gavCalculator, gav, new DirectoryListing( pomFile.getParentFile(), entries ) ) );
+
+        // complete listing
+        for ( File file : pomFile.getParentFile().listFiles() )
+        {
+            entries.put( file.getName(), Files.readAttributes( file.toPath(), BasicFileAttributes.class ) );
+        }
+
+        final DirectoryListing listing = new DirectoryListing( pomFile.getParentFile(), entries );
+
+        File artifactFile = al.locate( pomFile, gavCalculator, gav, listing );
+
+        assertNotNull( "Artifact file was not located!", artifactFile );
+        assertEquals( artifactFile.length(), listing.length( artifactFile ) );
+        assertEquals( artifactFile.lastModified(), listing.lastModified( artifactFile ) );
+    }
 }
@@ -22,6 +22,7 @@ package org.apache.maven.index.packer;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.List;
 
@@ -33,8 +34,11 @@ import org.apache.maven.index.ArtifactInfo;
 import org.apache.maven.index.NexusIndexer;
 import org.apache.maven.index.context.IndexingContext;
 import org.apache.maven.index.context.MergedIndexingContext;
+import org.apache.maven.index.packer.IndexPackingRequest.ChecksumAlgorithm;
 import org.apache.maven.index.packer.IndexPackingRequest.IndexFormat;
 import org.apache.maven.index.updater.IndexDataReader;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.StringUtils;
 
 public class NEXUS4149TransferFormatTest
@@ -188,6 +192,49 @@ public class NEXUS4149TransferFormatTest
         }
     }
 
+    public void testChecksumFiles()
+        throws Exception
+    {
+        File packTargetDir = new File( getBasedir(), "target/nexus-4149/checksums" );
+
+        IndexPacker packer = lookup( IndexPacker.class );
+
+        IndexPackingRequest request = new IndexPackingRequest( context, packTargetDir );
+        request.setCreateIncrementalChunks( false );
+        request.setFormats( Arrays.asList( IndexFormat.FORMAT_V1 ) );
+        request.setCreateChecksumFiles( true );
+        request.setChecksumAlgorithms( Arrays.asList( ChecksumAlgorithm.SHA1, ChecksumAlgorithm.SHA256 ) );
+
+        packer.packIndex( request );
+
+        for ( String name : Arrays.asList( "nexus-maven-repository-index.gz",
+            "nexus-maven-repository-index.properties" ) )
+        {
+            File file = new File( packTargetDir, name );
+
+            Assert.assertEquals( DigesterUtils.getSha1Digest( file ),
+                FileUtils.fileRead( new File( packTargetDir, name + ".sha1" ) ) );
+            Assert.assertEquals( sha256( file ), FileUtils.fileRead( new File( packTargetDir, name + ".sha256" ) ) );
+            Assert.assertFalse( new File( packTargetDir, name + ".md5" ).exists() );
+        }
+    }
+
+    private static String sha256( File file )
+        throws Exception
+    {
+        FileInputStream fis = new FileInputStream( file );
+        try
+        {
+            MessageDigest md = MessageDigest.getInstance( "SHA-256" );
+            md.update( IOUtil.toByteArray( fis ) );
+            return new String( DigesterUtils.encodeHex( md.digest() ) );
+        }
+        finally
+        {
+            fis.close();
+        }
+    }
+
     protected void checkListOfStringDoesNotContainEmptyString( List<String> lst )
     {
         if ( lst != null )
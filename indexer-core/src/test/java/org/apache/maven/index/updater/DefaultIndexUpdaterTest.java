@@ -26,10 +26,15 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Properties;
 import java.util.Set;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
@@ -41,8 +46,11 @@ import org.apache.maven.index.FlatSearchRequest;
 import org.apache.maven.index.FlatSearchResponse;
 import org.apache.maven.index.MAVEN;
 import org.apache.maven.index.SearchType;
+import org.apache.maven.index.context.DocumentFilter;
+import org.apache.maven.index.context.DocumentSource;
 import org.apache.maven.index.context.IndexUtils;
 import org.apache.maven.index.context.IndexingContext;
+import org.apache.maven.index.context.MergeResult;
 import org.codehaus.plexus.util.IOUtil;
 import org.jmock.Expectations;
 import org.jmock.Mockery;
@@ -112,6 +120,82 @@ public class DefaultIndexUpdaterTest
         assertEquals( content2.toString(), 2, content2.size() );
     }
 
+    public void testReplaceIndexFromDocumentSource()
+        throws Exception
+    {
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.2", null ),
+            context );
+
+        Query q = indexer.constructQuery( MAVEN.ARTIFACT_ID, "commons-lang", SearchType.SCORED );
+
+        // updated index, packed as transferred
+
+        IndexingContext tempContext =
+            indexer.addIndexingContext( repositoryId + "temp", repositoryId, null, new RAMDirectory(), repositoryUrl,
+                null, MIN_CREATORS );
+
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.3", null ),
+            tempContext );
+
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.4", null ),
+            tempContext );
+
+        tempContext.updateTimestamp( true );
+
+        Date newIndexTimestamp = tempContext.getTimestamp();
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        new IndexDataWriter( bos ).write( tempContext, null );
+
+        indexer.removeIndexingContext( tempContext, false );
+
+        // failing source leaves the context untouched
+        try
+        {
+            context.replace( new DocumentSource()
+            {
+                public Date addDocuments( IndexWriter writer )
+                    throws IOException
+                {
+                    writer.deleteAll();
+                    throw new IOException( "broken transfer" );
+                }
+            } );
+            fail( "IOException expected" );
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+
+        assertEquals( 1, indexer.searchFlat( new FlatSearchRequest( q ) ).getResults().size() );
+
+        final IndexDataReader dr = new IndexDataReader( new ByteArrayInputStream( bos.toByteArray() ) );
+        final DocumentFilter filter = new DocumentFilter()
+        {
+            public boolean accept( Document doc )
+            {
+                String uinfo = doc.get( ArtifactInfo.UINFO );
+                return uinfo == null || !uinfo.contains( "|2.3|" );
+            }
+        };
+
+        context.replace( new DocumentSource()
+        {
+            public Date addDocuments( IndexWriter writer )
+                throws IOException
+            {
+                return dr.readDocuments( writer, context, filter ).getTimestamp();
+            }
+        } );
+
+        assertEquals( newIndexTimestamp, context.getTimestamp() );
+
+        Collection<ArtifactInfo> content = indexer.searchFlat( new FlatSearchRequest( q ) ).getResults();
+        assertEquals( content.toString(), 1, content.size() );
+        assertEquals( "2.4", content.iterator().next().version );
+    }
+
     public void testMergeIndex()
         throws Exception
     {
@@ -208,6 +292,48 @@ public class DefaultIndexUpdaterTest
         assertEquals( content2.toString(), 1, content2.size() );
     }
 
+    public void testMergeIndexStatistics()
+        throws Exception
+    {
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.2", null ),
+            context );
+
+        Directory tempIndexDirectory = new RAMDirectory();
+
+        IndexingContext tempContext =
+            indexer.addIndexingContext( repositoryId + "temp", repositoryId, null, tempIndexDirectory, repositoryUrl,
+                null, MIN_CREATORS );
+
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.2", null ),
+            tempContext );
+
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.3", null ),
+            tempContext );
+
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.4", null ),
+            tempContext );
+
+        indexer.deleteArtifactFromIndex(
+            createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.3", null ), tempContext );
+
+        RAMDirectory tempDir2 = new RAMDirectory( tempContext.getIndexDirectory(), IOContext.DEFAULT );
+
+        indexer.removeIndexingContext( tempContext, false );
+
+        MergeResult result = context.merge( tempDir2, null, false );
+
+        assertEquals( result.toString(), 1, result.getDocumentsExisting() );
+        assertEquals( result.toString(), 1, result.getDocumentsAdded() );
+        assertEquals( result.toString(), 1, result.getDocumentsDeleted() );
+
+        Query q = indexer.constructQuery( MAVEN.ARTIFACT_ID, "commons-lang", SearchType.SCORED );
+
+        FlatSearchResponse response = indexer.searchFlat( new FlatSearchRequest( q ) );
+        Collection<ArtifactInfo> content = response.getResults();
+
+        assertEquals( content.toString(), 2, content.size() );
+    }
+
     public void testMergeSearch()
         throws Exception
     {
@@ -283,6 +409,48 @@ public class DefaultIndexUpdaterTest
         assertEquals( allGroups.toString(), 5, allGroups.size() );
     }
 
+    public void testMergeGroupsDeletes()
+        throws Exception
+    {
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.2", null ),
+            context );
+
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "org.slf4j", "slf4j-api", "1.4.2", null ),
+            context );
+
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "org.slf4j", "slf4j-log4j12", "1.4.2", null ),
+            context );
+
+        {
+            Directory tempIndexDirectory = new RAMDirectory();
+
+            IndexingContext tempContext =
+                indexer.addIndexingContext( repositoryId + "temp", repositoryId, null, tempIndexDirectory,
+                    repositoryUrl, null, MIN_CREATORS );
+
+            indexer.addArtifactToIndex( createArtifactContext( repositoryId, "junit", "junit", "3.8", null ),
+                tempContext );
+
+            // last artifact of its group
+            indexer.deleteArtifactFromIndex(
+                createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.2", null ), tempContext );
+
+            // group still has another artifact
+            indexer.deleteArtifactFromIndex(
+                createArtifactContext( repositoryId, "org.slf4j", "slf4j-api", "1.4.2", null ), tempContext );
+
+            RAMDirectory tempDir2 = new RAMDirectory( tempContext.getIndexDirectory(), IOContext.DEFAULT );
+
+            indexer.removeIndexingContext( tempContext, false );
+
+            context.merge( tempDir2, null, false );
+        }
+
+        assertEquals( new HashSet<String>( Arrays.asList( "junit", "org" ) ), context.getRootGroups() );
+
+        assertEquals( new HashSet<String>( Arrays.asList( "junit", "org.slf4j" ) ), context.getAllGroups() );
+    }
+
     public void testNoIndexUpdate()
         throws Exception
     {
@@ -408,7 +576,7 @@ public class DefaultIndexUpdaterTest
                     with( IndexingContext.INDEX_FILE_PREFIX + ".gz" ) );
                 will( returnValue( newInputStream( "/index-updater/server-root/nexus-maven-repository-index.gz" ) ) );
 
-                oneOf( tempContext ).replace( with( any( Directory.class ) ) );
+                oneOf( tempContext ).replace( with( any( DocumentSource.class ) ) );
 
                 oneOf( mockFetcher ).disconnect();
             }
@@ -440,6 +608,8 @@ public class DefaultIndexUpdaterTest
         localProps.setProperty( IndexingContext.INDEX_CHUNK_COUNTER, "1" );
         localProps.setProperty( IndexingContext.INDEX_CHAIN_ID, "someid" );
 
+        final int[] deltaDocs = new int[1];
+
         mockery.checking( new Expectations()
         {
             {
@@ -489,9 +659,27 @@ public class DefaultIndexUpdaterTest
                 will( returnValue( newInputStream( "/index-updater/server-root/nexus-maven-repository-index.gz" ) ) );
                 // could create index archive there and verify that it is merged correctly
 
-                oneOf( tempContext ).merge( with( any( Directory.class ) ) );
-
-                oneOf( tempContext ).merge( with( any( Directory.class ) ) );
+                // both chunks are merged at once, folded into a single delta
+                oneOf( tempContext ).merge( with( any( Directory.class ) ), with( aNull( DocumentFilter.class ) ),
+                    with( equal( false ) ) );
+                will( new VoidAction()
+                {
+                    @Override
+                    public Object invoke( Invocation invocation )
+                        throws Throwable
+                    {
+                        final DirectoryReader reader = DirectoryReader.open( (Directory) invocation.getParameter( 0 ) );
+                        try
+                        {
+                            deltaDocs[0] = reader.numDocs();
+                        }
+                        finally
+                        {
+                            reader.close();
+                        }
+                        return new MergeResult();
+                    }
+                } );
 
                 oneOf( mockFetcher ).disconnect();
             }
@@ -506,6 +694,21 @@ public class DefaultIndexUpdaterTest
 
         mockery.assertIsSatisfied();
         assertIndexUpdateSucceeded(updateResult);
+
+        // both chunks have the same content, the delta has it once
+        RAMDirectory chunkDirectory = new RAMDirectory();
+        DefaultIndexUpdater.unpackIndexData(
+            newInputStream( "/index-updater/server-root/nexus-maven-repository-index.gz" ), chunkDirectory, context );
+        DirectoryReader chunkReader = DirectoryReader.open( chunkDirectory );
+        try
+        {
+            assertTrue( deltaDocs[0] > 0 );
+            assertEquals( chunkReader.numDocs(), deltaDocs[0] );
+        }
+        finally
+        {
+            chunkReader.close();
+        }
     }
 
     public void testIncrementalIndexUpdateNoCounter()
@@ -566,12 +769,13 @@ public class DefaultIndexUpdaterTest
                 will( returnValue( newInputStream( "/index-updater/server-root/nexus-maven-repository-index.gz" ) ) );
                 // could create index archive there and verify that it is merged correctly
 
-                oneOf( tempContext ).replace( with( any( Directory.class ) ) );
+                oneOf( tempContext ).replace( with( any( DocumentSource.class ) ) );
 
                 never( mockFetcher ).retrieve( //
                     with( IndexingContext.INDEX_FILE_PREFIX + ".2.gz" ) );
 
-                never( tempContext ).merge( with( any( Directory.class ) ) );
+                never( tempContext ).merge( with( any( Directory.class ) ), with( any( DocumentFilter.class ) ),
+                    with( any( Boolean.class ) ) );
 
                 oneOf( mockFetcher ).disconnect();
             }
@@ -721,9 +925,10 @@ public class DefaultIndexUpdaterTest
                 never( mockFetcher ).retrieve( //
                     with( IndexingContext.INDEX_FILE_PREFIX + ".3.gz" ) );
 
-                never( tempContext ).merge( with( any( Directory.class ) ) );
+                never( tempContext ).merge( with( any( Directory.class ) ), with( any( DocumentFilter.class ) ),
+                    with( any( Boolean.class ) ) );
 
-                never( tempContext ).replace( with( any( Directory.class ) ) );
+                never( tempContext ).replace( with( any( DocumentSource.class ) ) );
 
                 oneOf( mockFetcher ).disconnect();
             }
@@ -806,11 +1011,13 @@ public class DefaultIndexUpdaterTest
                 oneOf( mockFetcher ).retrieve( with( IndexingContext.INDEX_FILE_PREFIX + ".gz" ) );
                 will( returnValue( newInputStream( "/index-updater/server-root/nexus-maven-repository-index.gz" ) ) );
 
-                never( tempContext ).merge( with( any( Directory.class ) ) );
+                never( tempContext ).merge( with( any( Directory.class ) ), with( any( DocumentFilter.class ) ),
+                    with( any( Boolean.class ) ) );
 
-                never( tempContext ).merge( with( any( Directory.class ) ) );
+                never( tempContext ).merge( with( any( Directory.class ) ), with( any( DocumentFilter.class ) ),
+                    with( any( Boolean.class ) ) );
 
-                oneOf( tempContext ).replace( with( any( Directory.class ) ) );
+                oneOf( tempContext ).replace( with( any( DocumentSource.class ) ) );
 
                 oneOf( mockFetcher ).disconnect();
             }
@@ -887,11 +1094,13 @@ public class DefaultIndexUpdaterTest
 
                 will( returnValue( newInputStream( "/index-updater/server-root/legacy/nexus-maven-repository-index.zip" ) ) );
 
-                never( tempContext ).merge( with( any( Directory.class ) ) );
+                never( tempContext ).merge( with( any( Directory.class ) ), with( any( DocumentFilter.class ) ),
+                    with( any( Boolean.class ) ) );
 
-                never( tempContext ).merge( with( any( Directory.class ) ) );
+                never( tempContext ).merge( with( any( Directory.class ) ), with( any( DocumentFilter.class ) ),
+                    with( any( Boolean.class ) ) );
 
-                oneOf( tempContext ).replace( with( any( Directory.class ) ) );
+                oneOf( tempContext ).replace( with( any( DocumentSource.class ) ) );
 
                 oneOf( mockFetcher ).disconnect();
             }
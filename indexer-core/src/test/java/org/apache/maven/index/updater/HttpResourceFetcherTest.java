@@ -0,0 +1,427 @@
+package org.apache.maven.index.updater;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.maven.index.context.IndexingContext;
+import org.apache.maven.index.packer.IndexPackingRequest;
+import org.apache.maven.index.packer.IndexPackingRequest.IndexFormat;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import org.mortbay.jetty.Server;
+import org.mortbay.jetty.servlet.Context;
+import org.mortbay.jetty.servlet.ServletHolder;
+
+public class HttpResourceFetcherTest
+    extends AbstractIndexUpdaterTest
+{
+    private File remoteRepo;
+
+    private File localCacheDir;
+
+    private File indexDir;
+
+    private FileServlet servlet;
+
+    private Server server;
+
+    private String url;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        remoteRepo = new File( "target/http/remoterepo" ).getCanonicalFile();
+        FileUtils.deleteDirectory( remoteRepo );
+        remoteRepo.mkdirs();
+
+        localCacheDir = new File( "target/http/cache" ).getCanonicalFile();
+        FileUtils.deleteDirectory( localCacheDir );
+        localCacheDir.mkdirs();
+
+        indexDir = new File( "target/http/index" ).getCanonicalFile();
+        FileUtils.deleteDirectory( indexDir );
+
+        servlet = new FileServlet( remoteRepo );
+
+        server = new Server( 0 );
+        Context ctx = new Context( server, "/" );
+        ctx.addServlet( new ServletHolder( servlet ), "/*" );
+        server.start();
+
+        url = "http://localhost:" + server.getConnectors()[0].getLocalPort() + "/";
+    }
+
+    @Override
+    protected void tearDown()
+        throws Exception
+    {
+        server.stop();
+
+        super.tearDown();
+    }
+
+    public void testRetrieveIfModified()
+        throws Exception
+    {
+        File file = createFile( "resource", 1000 );
+
+        HttpResourceFetcher fetcher = new HttpResourceFetcher();
+        fetcher.connect( repositoryId, url );
+
+        Properties validators = new Properties();
+        assertContent( file, fetcher.retrieveIfModified( "resource", validators ) );
+        assertNotNull( validators.getProperty( ConditionalResourceFetcher.ETAG ) );
+        assertNotNull( validators.getProperty( ConditionalResourceFetcher.LAST_MODIFIED ) );
+
+        assertNull( fetcher.retrieveIfModified( "resource", validators ) );
+        assertEquals( 304, servlet.getLastStatus() );
+
+        file = createFile( "resource", 1001 );
+        file.setLastModified( file.lastModified() + 10000 );
+        assertContent( file, fetcher.retrieveIfModified( "resource", validators ) );
+        assertEquals( 200, servlet.getLastStatus() );
+    }
+
+    public void testResumeRetrieve()
+        throws Exception
+    {
+        File file = createFile( "resource", 100000 );
+
+        HttpResourceFetcher fetcher = new HttpResourceFetcher();
+        fetcher.connect( repositoryId, url );
+
+        File target = new File( localCacheDir, "resource" );
+
+        servlet.failAfter( 30000 );
+        try
+        {
+            fetcher.retrieve( "resource", target );
+            fail();
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+        assertTrue( target.length() > 0 );
+        assertTrue( target.length() < file.length() );
+
+        fetcher.retrieve( "resource", target );
+        assertEquals( 206, servlet.getLastStatus() );
+        assertContent( file, new FileInputStream( target ) );
+
+        // a partial file of a modified resource is not resumed
+        servlet.failAfter( 30000 );
+        try
+        {
+            fetcher.retrieve( "resource", target );
+            fail();
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+
+        file = createFile( "resource", 100000 );
+        file.setLastModified( file.lastModified() + 10000 );
+
+        fetcher.retrieve( "resource", target );
+        assertEquals( 200, servlet.getLastStatus() );
+        assertContent( file, new FileInputStream( target ) );
+    }
+
+    public void testUpdateThroughCache()
+        throws Exception
+    {
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.2", null ),
+            context );
+        packIndexV1( context );
+
+        IndexingContext testContext =
+            indexer.addIndexingContext( repositoryId + "temp", repositoryId, repoDir, indexDir, repositoryUrl, url,
+                MIN_CREATORS );
+        try
+        {
+            // interrupted download of index file
+            servlet.failAfter( IndexingContext.INDEX_FILE_PREFIX + ".gz", 100 );
+            IndexUpdateRequest updateRequest = new IndexUpdateRequest( testContext, new HttpResourceFetcher() );
+            updateRequest.setLocalIndexCacheDir( localCacheDir );
+            try
+            {
+                updater.fetchAndUpdateIndex( updateRequest );
+                fail();
+            }
+            catch ( IOException e )
+            {
+                // expected
+            }
+
+            // resumed
+            servlet.clear();
+            updateRequest = new IndexUpdateRequest( testContext, new HttpResourceFetcher() );
+            updateRequest.setLocalIndexCacheDir( localCacheDir );
+            updater.fetchAndUpdateIndex( updateRequest );
+            assertEquals( Collections.singletonList( 206 ),
+                servlet.getStatuses( IndexingContext.INDEX_FILE_PREFIX + ".gz" ) );
+
+            // unchanged remote
+            servlet.clear();
+            updateRequest = new IndexUpdateRequest( testContext, new HttpResourceFetcher() );
+            updateRequest.setLocalIndexCacheDir( localCacheDir );
+            updater.fetchAndUpdateIndex( updateRequest );
+            assertEquals( Collections.singletonList( 304 ), servlet.getStatuses( null ) );
+
+            // changed remote
+            indexer.addArtifactToIndex(
+                createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.3", null ), context );
+            packIndexV1( context );
+            servlet.clear();
+            updateRequest = new IndexUpdateRequest( testContext, new HttpResourceFetcher() );
+            updateRequest.setLocalIndexCacheDir( localCacheDir );
+            updater.fetchAndUpdateIndex( updateRequest );
+            assertEquals( Collections.singletonList( 200 ),
+                servlet.getStatuses( IndexingContext.INDEX_REMOTE_PROPERTIES_FILE ) );
+            assertEquals( Collections.singletonList( 200 ),
+                servlet.getStatuses( IndexingContext.INDEX_FILE_PREFIX + ".1.gz" ) );
+        }
+        finally
+        {
+            indexer.removeIndexingContext( testContext, true );
+        }
+    }
+
+    private void packIndexV1( IndexingContext context )
+        throws IOException
+    {
+        // no legacy format to fall back to once retrieving the index file fails
+        IndexPackingRequest request = new IndexPackingRequest( context, remoteRepo );
+        request.setUseTargetProperties( true );
+        request.setFormats( Collections.singletonList( IndexFormat.FORMAT_V1 ) );
+        packer.packIndex( request );
+    }
+
+    private File createFile( String name, int length )
+        throws IOException
+    {
+        byte[] data = new byte[length];
+        new Random().nextBytes( data );
+
+        File file = new File( remoteRepo, name );
+        OutputStream os = new FileOutputStream( file );
+        try
+        {
+            os.write( data );
+        }
+        finally
+        {
+            os.close();
+        }
+        return file;
+    }
+
+    private void assertContent( File expected, InputStream is )
+        throws IOException
+    {
+        try
+        {
+            assertTrue( Arrays.equals( IOUtil.toByteArray( new FileInputStream( expected ) ), IOUtil.toByteArray( is ) ) );
+        }
+        finally
+        {
+            is.close();
+        }
+    }
+
+    /**
+     * Serves files supporting conditional and range requests, optionally breaking the connection after some bytes, and
+     * records response statuses.
+     */
+    private static class FileServlet
+        extends HttpServlet
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final File basedir;
+
+        private final List<String[]> statuses = new ArrayList<String[]>();
+
+        private String failName;
+
+        private int failAfter = -1;
+
+        FileServlet( File basedir )
+        {
+            this.basedir = basedir;
+        }
+
+        synchronized void failAfter( int bytes )
+        {
+            failAfter( null, bytes );
+        }
+
+        synchronized void failAfter( String name, int bytes )
+        {
+            this.failName = name;
+            this.failAfter = bytes;
+        }
+
+        synchronized void clear()
+        {
+            statuses.clear();
+            failAfter = -1;
+        }
+
+        synchronized int getLastStatus()
+        {
+            return Integer.parseInt( statuses.get( statuses.size() - 1 )[1] );
+        }
+
+        synchronized List<Integer> getStatuses( String name )
+        {
+            List<Integer> result = new ArrayList<Integer>();
+            for ( String[] status : statuses )
+            {
+                if ( name == null || name.equals( status[0] ) )
+                {
+                    result.add( Integer.valueOf( status[1] ) );
+                }
+            }
+            return result;
+        }
+
+        private synchronized void record( String name, int status )
+        {
+            statuses.add( new String[] { name, String.valueOf( status ) } );
+        }
+
+        private synchronized int takeFailAfter( String name )
+        {
+            int result = -1;
+            if ( failAfter >= 0 && ( failName == null || failName.equals( name ) ) )
+            {
+                result = failAfter;
+                failAfter = -1;
+            }
+            return result;
+        }
+
+        @Override
+        protected void doGet( HttpServletRequest req, HttpServletResponse resp )
+            throws ServletException, IOException
+        {
+            String name = req.getPathInfo().substring( 1 );
+            File file = new File( basedir, name );
+
+            if ( !file.isFile() )
+            {
+                record( name, 404 );
+                resp.sendError( 404 );
+                return;
+            }
+
+            long lastModified = file.lastModified() / 1000 * 1000;
+            String etag = "\"" + file.length() + "-" + lastModified + "\"";
+
+            resp.setDateHeader( "Last-Modified", lastModified );
+            resp.setHeader( "ETag", etag );
+
+            String ifNoneMatch = req.getHeader( "If-None-Match" );
+            if ( ifNoneMatch != null ? ifNoneMatch.equals( etag )
+                            : req.getDateHeader( "If-Modified-Since" ) >= lastModified )
+            {
+                record( name, 304 );
+                resp.setStatus( 304 );
+                return;
+            }
+
+            long offset = 0;
+            String range = req.getHeader( "Range" );
+            if ( range != null && req.getDateHeader( "If-Range" ) == lastModified )
+            {
+                offset = Long.parseLong( range.substring( "bytes=".length(), range.indexOf( '-' ) ) );
+
+                if ( offset >= file.length() )
+                {
+                    record( name, 416 );
+                    resp.setStatus( 416 );
+                    return;
+                }
+
+                record( name, 206 );
+                resp.setStatus( 206 );
+                resp.setHeader( "Content-Range", "bytes " + offset + "-" + ( file.length() - 1 ) + "/"
+                    + file.length() );
+            }
+            else
+            {
+                record( name, 200 );
+                resp.setStatus( 200 );
+            }
+
+            int fail = takeFailAfter( name );
+
+            resp.setContentLength( (int) ( file.length() - offset ) );
+
+            InputStream is = new FileInputStream( file );
+            try
+            {
+                is.skip( offset );
+                OutputStream os = resp.getOutputStream();
+                byte[] buf = new byte[1024];
+                int written = 0;
+                int n;
+                while ( ( n = is.read( buf ) ) > 0 )
+                {
+                    if ( fail >= 0 && written + n > fail )
+                    {
+                        os.write( buf, 0, fail - written );
+                        os.flush();
+                        throw new IOException( "Broken on purpose" );
+                    }
+                    os.write( buf, 0, n );
+                    written += n;
+                }
+            }
+            finally
+            {
+                is.close();
+            }
+        }
+    }
+}
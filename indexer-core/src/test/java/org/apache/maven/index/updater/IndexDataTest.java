@@ -22,10 +22,13 @@ package org.apache.maven.index.updater;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.CorruptIndexException;
@@ -38,6 +41,7 @@ import org.apache.maven.index.NexusIndexer;
 import org.apache.maven.index.context.IndexUtils;
 import org.apache.maven.index.updater.DefaultIndexUpdater;
 import org.apache.maven.index.updater.IndexDataWriter;
+import org.codehaus.plexus.util.IOUtil;
 
 /**
  * @author Eugene Kuleshov
@@ -132,6 +136,84 @@ public class IndexDataTest
         assertEquals( r1map.size(), r2map.size() );
     }
 
+    public void testParallelUnpack()
+        throws Exception
+    {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        IndexDataWriter dw = new IndexDataWriter( bos );
+        dw.write( context, null );
+
+        Directory parallelDir = new RAMDirectory();
+
+        ByteArrayInputStream is = new ByteArrayInputStream( bos.toByteArray() );
+
+        Date timestamp = DefaultIndexUpdater.unpackIndexData( is, parallelDir, context, 4, null );
+
+        assertEquals( context.getTimestamp(), timestamp );
+
+        IndexReader r1 = IndexReader.open( newDir );
+        IndexReader r2 = IndexReader.open( parallelDir );
+        try
+        {
+            assertEquals( r1.numDocs(), r2.numDocs() );
+            assertEquals( readIndex( r1 ).keySet(), readIndex( r2 ).keySet() );
+        }
+        finally
+        {
+            r1.close();
+            r2.close();
+        }
+    }
+
+    public void testParallelWrite()
+        throws Exception
+    {
+        ByteArrayOutputStream serial = new ByteArrayOutputStream();
+        int n1 = new IndexDataWriter( serial ).write( context, null );
+
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        int n2 = new IndexDataWriter( parallel, 4 ).write( context, null );
+
+        assertEquals( n1, n2 );
+        assertTrue( Arrays.equals( gunzip( serial.toByteArray() ), gunzip( parallel.toByteArray() ) ) );
+
+        Directory parallelDir = new RAMDirectory();
+
+        Date timestamp =
+            DefaultIndexUpdater.unpackIndexData( new ByteArrayInputStream( parallel.toByteArray() ), parallelDir,
+                context );
+
+        assertEquals( context.getTimestamp(), timestamp );
+
+        IndexReader r1 = IndexReader.open( newDir );
+        IndexReader r2 = IndexReader.open( parallelDir );
+        try
+        {
+            assertEquals( r1.numDocs(), r2.numDocs() );
+            assertEquals( readIndex( r1 ).keySet(), readIndex( r2 ).keySet() );
+        }
+        finally
+        {
+            r1.close();
+            r2.close();
+        }
+    }
+
+    private static byte[] gunzip( byte[] data )
+        throws IOException
+    {
+        InputStream is = new GZIPInputStream( new ByteArrayInputStream( data ) );
+        try
+        {
+            return IOUtil.toByteArray( is );
+        }
+        finally
+        {
+            is.close();
+        }
+    }
+
     private Map<String, ArtifactInfo> readIndex( IndexReader r1 )
         throws CorruptIndexException, IOException
     {
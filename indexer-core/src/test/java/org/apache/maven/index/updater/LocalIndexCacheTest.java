@@ -23,9 +23,12 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.TermQuery;
+import org.apache.maven.index.ArtifactContext;
 import org.apache.maven.index.ArtifactInfo;
 import org.apache.maven.index.FlatSearchRequest;
 import org.apache.maven.index.FlatSearchResponse;
@@ -178,6 +181,239 @@ public class LocalIndexCacheTest
         assertGroupCount( 2, "commons-lang", testContext );
     }
 
+    public void testConcurrentChunkDownloads()
+        throws Exception
+    {
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.2", null ),
+            context );
+        packIndex( remoteRepo, context );
+
+        IndexingContext testContext = getNewTempContext();
+        IndexUpdateRequest updateRequest = new IndexUpdateRequest( testContext, new TrackingFetcher( remoteRepo ) );
+        updateRequest.setLocalIndexCacheDir( localCacheDir );
+        updater.fetchAndUpdateIndex( updateRequest );
+        assertGroupCount( 1, "commons-lang", testContext );
+
+        // chunks adding 2.3, deleting 2.2, adding it back, and adding 2.4
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.3", null ),
+            context );
+        packIndex( remoteRepo, context );
+        indexer.deleteArtifactFromIndex(
+            createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.2", null ), context );
+        packIndex( remoteRepo, context );
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.2", null ),
+            context );
+        packIndex( remoteRepo, context );
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.4", null ),
+            context );
+        packIndex( remoteRepo, context );
+
+        // first chunk left by an interrupted update
+        FileUtils.copyFileToDirectory( new File( remoteRepo, "nexus-maven-repository-index.1.gz" ), localCacheDir );
+
+        TrackingFetcher fetcher = new TrackingFetcher( remoteRepo );
+        updateRequest = new IndexUpdateRequest( testContext, fetcher );
+        updateRequest.setLocalIndexCacheDir( localCacheDir );
+        updateRequest.setConcurrentDownloads( 2 );
+        updater.fetchAndUpdateIndex( updateRequest );
+        assertEquals( 4, fetcher.getRetrievedResources().size() );
+        assertFalse( fetcher.getRetrievedResources().contains( "nexus-maven-repository-index.1.gz" ) );
+        assertTrue( fetcher.getRetrievedResources().contains( "nexus-maven-repository-index.4.gz" ) );
+        assertGroupCount( 3, "commons-lang", testContext );
+
+        // same outcome restoring from the cache
+        testContext = getNewTempContext();
+        updateRequest = new IndexUpdateRequest( testContext, new TrackingFetcher( remoteRepo ) );
+        updateRequest.setLocalIndexCacheDir( localCacheDir );
+        updater.fetchAndUpdateIndex( updateRequest );
+        assertGroupCount( 3, "commons-lang", testContext );
+    }
+
+    public void testCacheCompaction()
+        throws Exception
+    {
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.2", null ),
+            context );
+        packIndex( remoteRepo, context );
+
+        IndexingContext testContext = getNewTempContext();
+        IndexUpdateRequest updateRequest = new IndexUpdateRequest( testContext, new TrackingFetcher( remoteRepo ) );
+        updateRequest.setLocalIndexCacheDir( localCacheDir );
+        updateRequest.setLocalIndexCacheCompactionThreshold( 2 );
+        updater.fetchAndUpdateIndex( updateRequest );
+
+        // one chunk, below threshold
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.3", null ),
+            context );
+        packIndex( remoteRepo, context );
+        updateRequest = new IndexUpdateRequest( testContext, new TrackingFetcher( remoteRepo ) );
+        updateRequest.setLocalIndexCacheDir( localCacheDir );
+        updateRequest.setLocalIndexCacheCompactionThreshold( 2 );
+        updater.fetchAndUpdateIndex( updateRequest );
+        assertTrue( new File( localCacheDir, "chunks.lst" ).length() > 0 );
+
+        // two more chunks, deleting 2.2 and adding 2.4
+        indexer.deleteArtifactFromIndex(
+            createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.2", null ), context );
+        packIndex( remoteRepo, context );
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.4", null ),
+            context );
+        packIndex( remoteRepo, context );
+        updateRequest = new IndexUpdateRequest( testContext, new TrackingFetcher( remoteRepo ) );
+        updateRequest.setLocalIndexCacheDir( localCacheDir );
+        updateRequest.setLocalIndexCacheCompactionThreshold( 2 );
+        updater.fetchAndUpdateIndex( updateRequest );
+        assertGroupCount( 2, "commons-lang", testContext );
+
+        // chunks folded into the index file, but kept for incremental updates from the cache
+        assertEquals( 0, new File( localCacheDir, "chunks.lst" ).length() );
+        assertTrue( new File( localCacheDir, "nexus-maven-repository-index.3.gz" ).isFile() );
+
+        // same outcome restoring from the cache
+        testContext = getNewTempContext();
+        TrackingFetcher fetcher = new TrackingFetcher( remoteRepo );
+        updateRequest = new IndexUpdateRequest( testContext, fetcher );
+        updateRequest.setLocalIndexCacheDir( localCacheDir );
+        IndexUpdateResult result = updater.fetchAndUpdateIndex( updateRequest );
+        assertEquals( Collections.singletonList( "nexus-maven-repository-index.properties" ),
+            fetcher.getRetrievedResources() );
+        assertGroupCount( 2, "commons-lang", testContext );
+        assertEquals( context.getTimestamp(), result.getTimestamp() );
+        assertEquals( context.getTimestamp(), testContext.getTimestamp() );
+
+        TermQuery query = new TermQuery( new Term( ArtifactInfo.VERSION, "2.2" ) );
+        assertEquals( 0, indexer.searchFlat( new FlatSearchRequest( query, testContext ) ).getTotalHits() );
+    }
+
+    public void testCacheCompactionKeepsRemoteData()
+        throws Exception
+    {
+        // remote index with class names
+        File fullIndexDir = new File( "target/localcache/fullindex" ).getCanonicalFile();
+        FileUtils.deleteDirectory( fullIndexDir );
+        IndexingContext fullContext =
+            indexer.addIndexingContext( repositoryId + "full", repositoryId, repoDir, fullIndexDir, repositoryUrl,
+                null, FULL_CREATORS );
+        try
+        {
+            ArtifactContext ac = createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.2", null );
+            ac.getArtifactInfo().classNames = "/org/apache/commons/lang/StringUtils\n";
+            indexer.addArtifactToIndex( ac, fullContext );
+            packIndex( remoteRepo, fullContext );
+
+            // cache compacted by an update of a context with minimal creators
+            IndexingContext testContext = getNewTempContext();
+            IndexUpdateRequest updateRequest =
+                new IndexUpdateRequest( testContext, new TrackingFetcher( remoteRepo ) );
+            updateRequest.setLocalIndexCacheDir( localCacheDir );
+            updater.fetchAndUpdateIndex( updateRequest );
+
+            ac = createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.3", null );
+            ac.getArtifactInfo().classNames = "/org/apache/commons/lang/ArrayUtils\n";
+            indexer.addArtifactToIndex( ac, fullContext );
+            packIndex( remoteRepo, fullContext );
+
+            updateRequest = new IndexUpdateRequest( testContext, new TrackingFetcher( remoteRepo ) );
+            updateRequest.setLocalIndexCacheDir( localCacheDir );
+            updateRequest.setLocalIndexCacheCompactionThreshold( 1 );
+            updater.fetchAndUpdateIndex( updateRequest );
+            assertEquals( 0, new File( localCacheDir, "chunks.lst" ).length() );
+
+            // restored by a context with all creators
+            removeTempContext();
+            tempContext =
+                indexer.addIndexingContext( repositoryId + "temp", repositoryId, repoDir, indexDir, repositoryUrl,
+                    null, FULL_CREATORS );
+            updateRequest = new IndexUpdateRequest( tempContext, new TrackingFetcher( remoteRepo ) );
+            updateRequest.setLocalIndexCacheDir( localCacheDir );
+            updater.fetchAndUpdateIndex( updateRequest );
+
+            assertEquals( "/org/apache/commons/lang/StringUtils\n", getArtifactInfo( tempContext, "2.2" ).classNames );
+            assertEquals( "/org/apache/commons/lang/ArrayUtils\n", getArtifactInfo( tempContext, "2.3" ).classNames );
+        }
+        finally
+        {
+            indexer.removeIndexingContext( fullContext, true );
+        }
+    }
+
+    private ArtifactInfo getArtifactInfo( IndexingContext context, String version )
+        throws IOException
+    {
+        TermQuery query = new TermQuery( new Term( ArtifactInfo.VERSION, version ) );
+        FlatSearchResponse response = indexer.searchFlat( new FlatSearchRequest( query, context ) );
+        assertEquals( 1, response.getTotalHits() );
+        return response.getResults().iterator().next();
+    }
+
+    public void testFoldedChunks()
+        throws Exception
+    {
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.2", null ),
+            context );
+        packIndex( remoteRepo, context );
+
+        IndexingContext testContext = getNewTempContext();
+        updater.fetchAndUpdateIndex( new IndexUpdateRequest( testContext, new TrackingFetcher( remoteRepo ) ) );
+
+        // 2.3 is changed by the second chunk
+        ArtifactContext ac = createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.3", null );
+        ac.getArtifactInfo().name = "first";
+        indexer.addArtifactToIndex( ac, context );
+        packIndex( remoteRepo, context );
+        ac = createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.3", null );
+        ac.getArtifactInfo().name = "second";
+        indexer.addArtifactToIndex( ac, context );
+        packIndex( remoteRepo, context );
+
+        TrackingFetcher fetcher = new TrackingFetcher( remoteRepo );
+        updater.fetchAndUpdateIndex( new IndexUpdateRequest( testContext, fetcher ) );
+        assertEquals( 3, fetcher.getRetrievedResources().size() );
+
+        TermQuery query = new TermQuery( new Term( ArtifactInfo.VERSION, "2.3" ) );
+        FlatSearchResponse response = indexer.searchFlat( new FlatSearchRequest( query, testContext ) );
+        assertEquals( 1, response.getTotalHits() );
+        assertEquals( "second", response.getResults().iterator().next().name );
+    }
+
+    public void testMaxSegmentsAfterUpdate()
+        throws Exception
+    {
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.2", null ),
+            context );
+        indexer.addArtifactToIndex( createArtifactContext( repositoryId, "commons-lang", "commons-lang", "2.3", null ),
+            context );
+        packIndex( remoteRepo, context );
+
+        // by default segments are left to the merge policy
+        IndexingContext testContext = getNewTempContext();
+        IndexUpdateRequest updateRequest = new IndexUpdateRequest( testContext, new TrackingFetcher( remoteRepo ) );
+        updater.fetchAndUpdateIndex( updateRequest );
+        assertGroupCount( 2, "commons-lang", testContext );
+        assertTrue( getSegmentCount( testContext ) > 1 );
+
+        testContext = getNewTempContext();
+        updateRequest = new IndexUpdateRequest( testContext, new TrackingFetcher( remoteRepo ) );
+        updateRequest.setMaxSegments( 1 );
+        updater.fetchAndUpdateIndex( updateRequest );
+        assertGroupCount( 2, "commons-lang", testContext );
+        assertEquals( 1, getSegmentCount( testContext ) );
+    }
+
+    private int getSegmentCount( IndexingContext context )
+        throws IOException
+    {
+        IndexSearcher searcher = context.acquireIndexSearcher();
+        try
+        {
+            return searcher.getIndexReader().leaves().size();
+        }
+        finally
+        {
+            context.releaseIndexSearcher( searcher );
+        }
+    }
+
     private void assertGroupCount( int expectedCount, String groupId, IndexingContext context )
         throws IOException
     {
@@ -24,6 +24,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.maven.index.updater.DefaultIndexUpdater;
@@ -37,7 +38,7 @@ public class TrackingFetcher
     extends DefaultIndexUpdater.FileFetcher
 {
 
-    private final ArrayList<String> resources = new ArrayList<String>();
+    private final List<String> resources = Collections.synchronizedList( new ArrayList<String>() );
 
     public TrackingFetcher( File basedir )
     {
@@ -0,0 +1,98 @@
+package org.apache.maven.index.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.lucene.util.BytesRef;
+
+public class SortedTermSetTest
+    extends TestCase
+{
+    public void testMark()
+    {
+        final SortedTermSet set = new SortedTermSet();
+        for ( String term : Arrays.asList( "a|b|1|NA|jar", "a|b|2|NA|jar", "a|c|1|NA|jar", "z|z|1|NA|pom" ) )
+        {
+            set.add( new BytesRef( term ) );
+        }
+        set.freeze();
+
+        assertEquals( 4, set.size() );
+
+        assertTrue( set.mark( "a|b|2|NA|jar" ) );
+        assertTrue( "marking twice still reports membership", set.mark( "a|b|2|NA|jar" ) );
+        assertTrue( set.mark( "z|z|1|NA|pom" ) );
+        assertFalse( set.mark( "x|x|1|NA|jar" ) );
+
+        final List<String> unmarked = new ArrayList<String>();
+        final BytesRef scratch = new BytesRef();
+        for ( int i = 0; i < set.size(); i++ )
+        {
+            if ( !set.isMarked( i ) )
+            {
+                unmarked.add( set.get( i, scratch ).utf8ToString() );
+            }
+        }
+        assertEquals( Arrays.asList( "a|b|1|NA|jar", "a|c|1|NA|jar" ), unmarked );
+    }
+
+    public void testOrderEnforced()
+    {
+        final SortedTermSet set = new SortedTermSet();
+        set.add( new BytesRef( "b" ) );
+        try
+        {
+            set.add( new BytesRef( "a" ) );
+            fail( "Unordered add must fail" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            // good
+        }
+    }
+
+    public void testEmpty()
+    {
+        final SortedTermSet set = new SortedTermSet();
+        set.freeze();
+
+        assertEquals( 0, set.size() );
+        assertFalse( set.mark( "a" ) );
+    }
+
+    public void testFingerprintSet()
+    {
+        final FingerprintSet set = new FingerprintSet();
+        for ( int i = 0; i < 10000; i++ )
+        {
+            assertTrue( set.add( "g|a|" + i + "|NA|jar" ) );
+        }
+        for ( int i = 0; i < 10000; i++ )
+        {
+            assertFalse( set.add( "g|a|" + i + "|NA|jar" ) );
+        }
+        assertEquals( 10000, set.size() );
+    }
+}
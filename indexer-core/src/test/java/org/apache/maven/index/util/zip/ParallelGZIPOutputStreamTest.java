@@ -0,0 +1,75 @@
+package org.apache.maven.index.util.zip;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.util.IOUtil;
+
+public class ParallelGZIPOutputStreamTest
+    extends TestCase
+{
+    public void testEmpty()
+        throws IOException
+    {
+        assertRoundTrip( new byte[0] );
+    }
+
+    public void testSpanningManyBlocks()
+        throws IOException
+    {
+        // compressible, yet not trivially, data of some blocks and a partial one
+        final Random random = new Random( 42 );
+        final StringBuilder sb = new StringBuilder();
+        while ( sb.length() < 1000 * 1000 )
+        {
+            sb.append( "org.example.g" ).append( random.nextInt( 500 ) ).append( '|' );
+            sb.append( "artifact-" ).append( random.nextInt( 5000 ) ).append( '|' );
+            sb.append( random.nextInt( 10 ) ).append( '.' ).append( random.nextInt( 100 ) ).append( "|NA|jar\n" );
+        }
+
+        assertRoundTrip( sb.toString().getBytes( "UTF-8" ) );
+    }
+
+    private void assertRoundTrip( final byte[] data )
+        throws IOException
+    {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final ParallelGZIPOutputStream pos = new ParallelGZIPOutputStream( bos, 4 );
+
+        // odd sized writes, crossing block boundaries
+        for ( int off = 0; off < data.length; off += 7777 )
+        {
+            pos.write( data, off, Math.min( 7777, data.length - off ) );
+        }
+        pos.close();
+
+        final byte[] result = IOUtil.toByteArray( new GZIPInputStream( new ByteArrayInputStream( bos.toByteArray() ) ) );
+
+        assertTrue( Arrays.equals( data, result ) );
+    }
+}